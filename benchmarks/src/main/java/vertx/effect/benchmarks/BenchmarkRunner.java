@@ -0,0 +1,40 @@
+package vertx.effect.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. It accepts the same options as the JMH command line but, unless they are given
+ * explicitly, runs every benchmark with the GC profiler ({@code -prof gc}) to report the allocation rate, and writes
+ * the results as JSON ({@code -rf json -rff jmh-result.json}) so that they can be diffed between versions.
+ */
+public final class BenchmarkRunner {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if (cmd.getProfilers()
+               .isEmpty()) options.addProfiler(GCProfiler.class);
+        if (!cmd.getResultFormat()
+                .hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult()
+                .hasValue()) options.result(DEFAULT_RESULT_FILE);
+
+        Runner runner = new Runner(options.build());
+        if (cmd.shouldList()) runner.list();
+        else runner.run();
+    }
+}
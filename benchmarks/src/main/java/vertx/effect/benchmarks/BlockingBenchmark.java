@@ -0,0 +1,100 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.Lambda;
+import vertx.effect.VIO;
+import vertx.effect.VerticleRef;
+import vertx.effect.VertxRef;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static vertx.effect.benchmarks.VerticleRefBenchmark.join;
+
+/**
+ * Sends 10k asks at the same time to a lambda that blocks for a millisecond, like a JDBC call would. The lambda is
+ * deployed with the {@link ThreadingModel#VIRTUAL_THREAD} threading model and blocks with
+ * {@link VIO#blocking(Supplier)}, or it's deployed as a worker, with an instance per thread of the default worker pool,
+ * and blocks the worker thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockingBenchmark {
+
+    private static final int ASKS = 10_000;
+    private static final int WORKER_POOL_SIZE = 20;
+
+    private Vertx vertx;
+    private Lambda<Integer, Integer> virtualThreads;
+    private Lambda<Integer, Integer> workers;
+    private List<Integer> inputs;
+
+    private static Integer block(final Integer n) {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+        return n;
+    }
+
+    @Setup
+    public void setup() {
+        inputs = IntStream.range(0,
+                                 ASKS
+                                )
+                          .boxed()
+                          .toList();
+        vertx = Vertx.vertx();
+        VertxRef vertxRef = new VertxRef(vertx);
+        VerticleRef<Integer, Integer> virtualThreadRef =
+                join(vertxRef.deploy("benchmark-blocking-virtual-threads",
+                                     (Integer n) -> VIO.blocking(() -> block(n)),
+                                     ThreadingModel.VIRTUAL_THREAD
+                                    ));
+        virtualThreads = virtualThreadRef.ask();
+        VerticleRef<Integer, Integer> workerRef =
+                join(vertxRef.deploy("benchmark-blocking-workers",
+                                     (Integer n) -> VIO.lazy(() -> block(n)),
+                                     new DeploymentOptions().setThreadingModel(ThreadingModel.WORKER)
+                                                            .setInstances(WORKER_POOL_SIZE)
+                                    ));
+        workers = workerRef.ask();
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close()
+             .toCompletionStage()
+             .toCompletableFuture()
+             .join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ASKS)
+    public List<Integer> blocking_asks_on_virtual_threads() {
+        return join(VIO.traverse(inputs,
+                                 virtualThreads,
+                                 ASKS
+                                ));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ASKS)
+    public List<Integer> blocking_asks_on_workers() {
+        return join(VIO.traverse(inputs,
+                                 workers,
+                                 ASKS
+                                ));
+    }
+}
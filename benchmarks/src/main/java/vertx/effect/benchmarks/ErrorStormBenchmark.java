@@ -0,0 +1,81 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.ExceptionReply;
+import vertx.effect.Lambda;
+import vertx.effect.ListExp;
+import vertx.effect.VIO;
+import vertx.effect.VerticleRef;
+import vertx.effect.VertxRef;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static vertx.effect.benchmarks.VerticleRefBenchmark.join;
+
+/**
+ * Measures an error storm: asks to a lambda that always fails with an exception thrown from a deep stack, with many
+ * requests in flight. By default, the failures are replied with an {@link ExceptionReply} that doesn't render the stack
+ * trace. error_storm_with_stack_traces renders the stack trace of every failure into the reply and the events, which is
+ * how every failure was replied before ExceptionReply.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorStormBenchmark {
+
+    private static final int IN_FLIGHT = 100;
+    private static final int STACK_DEPTH = 64;
+
+    private Vertx vertx;
+    private Lambda<Integer, Integer> ask;
+
+    private static int fail(final int depth) {
+        if (depth == 0) throw new IllegalArgumentException("invalid input");
+        return fail(depth - 1) + 1;
+    }
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        VertxRef vertxRef = new VertxRef(vertx);
+        VerticleRef<Integer, Integer> ref = join(vertxRef.deploy("benchmark-error-storm",
+                                                                 (Integer n) -> VIO.lazy(() -> fail(STACK_DEPTH))
+                                                                )
+                                                );
+        ask = ref.ask();
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close()
+             .toCompletionStage()
+             .toCompletableFuture()
+             .join();
+    }
+
+    private List<Integer> storm() {
+        @SuppressWarnings("unchecked")
+        VIO<Integer>[] asks = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) asks[i] = ask.apply(i)
+                                                         .recover(e -> -1);
+        return join(ListExp.par(asks));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public List<Integer> error_storm() {
+        return storm();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @Fork(value = 1, jvmArgsAppend = "-Dvertx.effect.failures.stacktrace.sampling=1")
+    public List<Integer> error_storm_with_stack_traces() {
+        return storm();
+    }
+}
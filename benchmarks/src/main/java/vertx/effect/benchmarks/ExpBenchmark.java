@@ -0,0 +1,88 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.Future;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.ListExp;
+import vertx.effect.MapExp;
+import vertx.effect.VIO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of combining effects with {@link ListExp#par(VIO[])} (unbounded and bounded) and {@link MapExp#seq()}, both for values
+ * known up front ({@link VIO#succeed(Object)}) and for effects that return an already completed Vertx future.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpBenchmark {
+
+    @Param({"10", "100"})
+    public int size;
+
+    private String[] keys;
+    private VIO<Integer>[] values;
+    private VIO<Integer>[] futures;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        keys = new String[size];
+        values = new VIO[size];
+        futures = new VIO[size];
+        for (int i = 0; i < size; i++) {
+            final int n = i;
+            keys[i] = "key" + i;
+            values[i] = VIO.succeed(n);
+            futures[i] = VIO.effect(() -> Future.succeededFuture(n));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> list_par_values() {
+        return ListExp.par(values)
+                      .get()
+                      .result();
+    }
+
+    @Benchmark
+    public List<Integer> list_par_futures() {
+        return ListExp.par(futures)
+                      .get()
+                      .result();
+    }
+
+    @Benchmark
+    public List<Integer> list_par_futures_bounded() {
+        return ListExp.par(8,
+                           futures
+                          )
+                      .get()
+                      .result();
+    }
+
+    @Benchmark
+    public Map<String, Integer> map_seq_values() {
+        MapExp<Integer> exp = MapExp.seq();
+        for (int i = 0; i < size; i++) exp = exp.set(keys[i],
+                                                     values[i]
+                                                    );
+        return exp.get()
+                  .result();
+    }
+
+    @Benchmark
+    public Map<String, Integer> map_seq_futures() {
+        MapExp<Integer> exp = MapExp.seq();
+        for (int i = 0; i < size; i++) exp = exp.set(keys[i],
+                                                     futures[i]
+                                                    );
+        return exp.get()
+                  .result();
+    }
+}
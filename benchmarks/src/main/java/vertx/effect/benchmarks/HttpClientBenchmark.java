@@ -0,0 +1,87 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import jsonvalues.JsObj;
+import jsonvalues.JsStr;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.GetReq;
+import vertx.effect.HttpClientModule;
+import vertx.effect.HttpServerBuilder;
+import vertx.effect.VertxRef;
+import vertx.effect.stub.http.HttpHeadersRespStub;
+import vertx.effect.stub.http.HttpReqHandlerStub;
+import vertx.effect.stub.http.HttpRespStub;
+import vertx.values.codecs.RegisterJsValuesCodecs;
+
+import java.util.concurrent.TimeUnit;
+
+import static vertx.effect.benchmarks.VerticleRefBenchmark.join;
+import static vertx.effect.stub.http.HttpRespStub.ALWAYS;
+
+/**
+ * Measures {@link HttpClientModule#get} against a local server created with {@link HttpServerBuilder} that replies
+ * with a constant body using {@link HttpReqHandlerStub}, so that the network is out of the equation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpClientBenchmark {
+
+    private static final String HOST = "127.0.0.1";
+    private static final String BODY = JsObj.of("name",
+                                                JsStr.of("vertx-effect")
+                                               )
+                                            .toString();
+
+    private Vertx vertx;
+    private HttpClientModule httpClient;
+    private GetReq req;
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        VertxRef vertxRef = new VertxRef(vertx);
+        httpClient = new HttpClientModule(new HttpClientOptions().setDefaultHost(HOST)
+                                                                 .setKeepAlive(true),
+                                          "benchmark-http-client"
+        );
+
+        HttpRespStub stub = HttpRespStub.when(ALWAYS)
+                                        .setBodyResp(n -> body -> req -> BODY)
+                                        .setHeadersResp(HttpHeadersRespStub.JSON_CONTENT_TYPE);
+
+        join(vertxRef.deployVerticle(new RegisterJsValuesCodecs()));
+        HttpServer server = join(new HttpServerBuilder(vertx,
+                                                       new HttpServerOptions(),
+                                                       new HttpReqHandlerStub(stub)
+        ).create(HOST,
+                 0
+                ));
+        join(vertxRef.deployVerticle(httpClient));
+        req = new GetReq().host(HOST)
+                          .port(server.actualPort())
+                          .uri("/benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close()
+             .toCompletionStage()
+             .toCompletableFuture()
+             .join();
+    }
+
+    @Benchmark
+    public JsObj get() {
+        return join(httpClient.get.apply(MultiMap.caseInsensitiveMultiMap(),
+                                         req
+                                        ));
+    }
+}
@@ -0,0 +1,99 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.buffer.Buffer;
+import jsonvalues.JsArray;
+import jsonvalues.JsBool;
+import jsonvalues.JsInt;
+import jsonvalues.JsLong;
+import jsonvalues.JsObj;
+import jsonvalues.JsStr;
+import jsonvalues.JsValue;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.JsonBinaryCodec;
+import vertx.values.codecs.JsObjMessageCodec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding a JsObj with {@link JsonBinaryCodec} and as JSON text (the codec of
+ * vertx-json-values), which is what happens to every JsObj sent to another node of a cluster. The payload is an
+ * object with an array of {@code items} objects with the same keys, like a page of results of an API.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private JsObj json;
+    private Buffer text;
+    private Buffer binary;
+
+    @Setup
+    public void setup() {
+        List<JsValue> list = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) list.add(JsObj.of("id",
+                                                          JsLong.of(1_000_000_000L + i),
+                                                          "name",
+                                                          JsStr.of("item-" + i),
+                                                          "quantity",
+                                                          JsInt.of(i % 10),
+                                                          "available",
+                                                          JsBool.of(i % 2 == 0)
+                                                         ));
+        json = JsObj.of("page",
+                        JsInt.of(1),
+                        "total",
+                        JsInt.of(items),
+                        "items",
+                        JsArray.ofIterable(list)
+                       );
+        text = Buffer.buffer();
+        JsObjMessageCodec.INSTANCE.encodeToWire(text,
+                                                json
+                                               );
+        binary = Buffer.buffer();
+        JsonBinaryCodec.INSTANCE.encodeToWire(binary,
+                                              json
+                                             );
+    }
+
+    @Benchmark
+    public Buffer encode_text() {
+        Buffer buffer = Buffer.buffer();
+        JsObjMessageCodec.INSTANCE.encodeToWire(buffer,
+                                                json
+                                               );
+        return buffer;
+    }
+
+    @Benchmark
+    public Buffer encode_binary() {
+        Buffer buffer = Buffer.buffer();
+        JsonBinaryCodec.INSTANCE.encodeToWire(buffer,
+                                              json
+                                             );
+        return buffer;
+    }
+
+    @Benchmark
+    public Object decode_text() {
+        return JsObjMessageCodec.INSTANCE.decodeFromWire(0,
+                                                         text
+                                                        );
+    }
+
+    @Benchmark
+    public Object decode_binary() {
+        return JsonBinaryCodec.INSTANCE.decodeFromWire(0,
+                                                       binary
+                                                      );
+    }
+}
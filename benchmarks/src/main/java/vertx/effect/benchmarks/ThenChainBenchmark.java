@@ -0,0 +1,70 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.Future;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.Lambda;
+import vertx.effect.VIO;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compares deep chains of {@link VIO#then(Lambda)} and {@link VIO#map(Function)} over values known up front with the
+ * previous encoding of VIO, where every operator wrapped the previous effect into a new future supplier and composed
+ * the Vertx futures with flatMap.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThenChainBenchmark {
+
+    private static final Lambda<Integer, Integer> INC = n -> VIO.succeed(n + 1);
+    private static final Function<Integer, Future<Integer>> INC_FUTURE = n -> Future.succeededFuture(n + 1);
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    @Benchmark
+    public Integer vio_then_chain() {
+        VIO<Integer> program = VIO.succeed(0);
+        for (int i = 0; i < depth; i++) program = program.then(INC);
+        return program.get()
+                      .result();
+    }
+
+    @Benchmark
+    public Integer vio_map_chain() {
+        VIO<Integer> program = VIO.succeed(0);
+        for (int i = 0; i < depth; i++) program = program.map(n -> n + 1);
+        return program.get()
+                      .result();
+    }
+
+    @Benchmark
+    public Integer future_supplier_then_chain() {
+        Supplier<Future<Integer>> program = () -> Future.succeededFuture(0);
+        for (int i = 0; i < depth; i++) {
+            Supplier<Future<Integer>> previous = program;
+            program = () -> previous.get()
+                                    .flatMap(INC_FUTURE);
+        }
+        return program.get()
+                      .result();
+    }
+
+    @Benchmark
+    public Integer future_supplier_map_chain() {
+        Supplier<Future<Integer>> program = () -> Future.succeededFuture(0);
+        for (int i = 0; i < depth; i++) {
+            Supplier<Future<Integer>> previous = program;
+            program = () -> previous.get()
+                                    .map(n -> n + 1);
+        }
+        return program.get()
+                      .result();
+    }
+}
@@ -0,0 +1,182 @@
+package vertx.effect.benchmarks;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import jsonvalues.JsInt;
+import jsonvalues.JsObj;
+import jsonvalues.JsStr;
+import org.openjdk.jmh.annotations.*;
+import vertx.effect.Lambda;
+import vertx.effect.Lambdas;
+import vertx.effect.ListExp;
+import vertx.effect.VIO;
+import vertx.effect.VerticleRef;
+import vertx.effect.VertxRef;
+import vertx.values.codecs.RegisterJsValuesCodecs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip of {@link VerticleRef#ask()} through the event bus, one request at a time and with many
+ * requests in flight. The requests in flight are also dispatched locally (see {@link VerticleRef#local()}) and sent
+ * in batches to a verticle deployed with {@link VertxRef#deployBatch(String, Lambda)}. The json asks measure the
+ * allocations of sending a JsObj, which is passed by reference to local consumers (run with the gc profiler). The
+ * spawn benchmarks compare deploying a verticle per call with {@link VertxRef#spawn(String, Lambda)} and reusing
+ * them from a pool with {@link VertxRef#spawnPooled(String, Lambda, int, Duration)}, and deploy_per_event_loop the
+ * deployment and undeployment of a lambda with an instance per event loop.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerticleRefBenchmark {
+
+    private static final int IN_FLIGHT = 100;
+
+    private Vertx vertx;
+    private VertxRef vertxRef;
+    private Lambda<Integer, Integer> ask;
+    private Lambda<Integer, Integer> batchedAsk;
+    private Lambda<Integer, Integer> localAsk;
+    private Lambda<JsObj, JsObj> jsonAsk;
+    private Lambda<Integer, Integer> spawned;
+    private Lambda<Integer, Integer> pooled;
+    private JsObj json;
+
+    static <O> O join(final VIO<O> vio) {
+        return vio.get()
+                  .toCompletionStage()
+                  .toCompletableFuture()
+                  .join();
+    }
+
+    @Setup
+    public void setup() {
+        vertx = Vertx.vertx();
+        vertxRef = new VertxRef(vertx);
+        join(vertxRef.deployVerticle(new RegisterJsValuesCodecs()));
+        VerticleRef<Integer, Integer> ref = join(vertxRef.deploy("benchmark-inc",
+                                                                 (Integer n) -> VIO.succeed(n + 1)
+                                                                )
+                                                );
+        ask = ref.ask();
+        localAsk = ref.local()
+                      .ask();
+        VerticleRef<JsObj, JsObj> jsonRef = join(vertxRef.deploy("benchmark-json",
+                                                                 Lambda.<JsObj>identity()
+                                                                )
+                                                );
+        jsonAsk = jsonRef.ask();
+        json = JsObj.of("name",
+                        JsStr.of("vertx-effect"),
+                        "version",
+                        JsInt.of(5)
+                       );
+        VerticleRef<List<Integer>, List<Integer>> batchRef =
+                join(vertxRef.deployBatch("benchmark-inc-batch",
+                                          (List<Integer> list) -> VIO.lazy(() -> {
+                                              List<Integer> result = new ArrayList<>(list.size());
+                                              for (Integer n : list) result.add(n + 1);
+                                              return result;
+                                          })
+                                         )
+                    );
+        batchedAsk = Lambdas.batched(batchRef.ask(),
+                                     IN_FLIGHT,
+                                     Duration.ofMillis(1)
+                                    );
+        spawned = vertxRef.spawn("benchmark-spawn",
+                                 (Integer n) -> VIO.succeed(n + 1)
+                                );
+        pooled = vertxRef.spawnPooled("benchmark-spawn-pooled",
+                                      (Integer n) -> VIO.succeed(n + 1),
+                                      IN_FLIGHT,
+                                      Duration.ofMinutes(1)
+                                     );
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close()
+             .toCompletionStage()
+             .toCompletableFuture()
+             .join();
+    }
+
+    @Benchmark
+    public Integer ask() {
+        return join(ask.apply(1));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public List<Integer> ask_in_flight() {
+        VIO<Integer>[] asks = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) asks[i] = ask.apply(i);
+        return join(ListExp.par(asks));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public List<Integer> ask_batched_in_flight() {
+        VIO<Integer>[] asks = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) asks[i] = batchedAsk.apply(i);
+        return join(ListExp.par(asks));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public List<Integer> ask_local_in_flight() {
+        VIO<Integer>[] asks = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) asks[i] = localAsk.apply(i);
+        return join(ListExp.par(asks));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public List<JsObj> ask_json_in_flight() {
+        VIO<JsObj>[] asks = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) asks[i] = jsonAsk.apply(json);
+        return join(ListExp.par(asks));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public List<Integer> spawn_in_flight() {
+        VIO<Integer>[] calls = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) calls[i] = spawned.apply(i);
+        return join(ListExp.par(calls));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    @SuppressWarnings("unchecked")
+    public List<Integer> spawn_pooled_in_flight() {
+        VIO<Integer>[] calls = new VIO[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) calls[i] = pooled.apply(i);
+        return join(ListExp.par(calls));
+    }
+
+    @Benchmark
+    public Void deploy_per_event_loop() {
+        VerticleRef<Integer, Integer> ref = join(vertxRef.deploy("benchmark-deploy",
+                                                                 (Integer n) -> VIO.succeed(n + 1),
+                                                                 new DeploymentOptions().setInstances(vertxRef.eventLoops())
+                                                                )
+                                                );
+        return ref.undeploy()
+                  .toCompletionStage()
+                  .toCompletableFuture()
+                  .join();
+    }
+}
@@ -22,7 +22,6 @@ import static io.vertx.core.net.impl.ConnectionBase.CLOSED_EXCEPTION;
 import static java.util.Objects.requireNonNull;
 import static vertx.effect.EventPublisher.PUBLISHER;
 import static vertx.effect.Failures.*;
-import static vertx.effect.Functions.getErrorMessage;
 import static vertx.effect.HttpResp.*;
 
 abstract class AbstractHttpClientModule extends VertxModule {
@@ -72,22 +71,15 @@ abstract class AbstractHttpClientModule extends VertxModule {
             case "VertxException": {
                 VertxException vertxException = (VertxException) exc;
                 if (vertxException == CLOSED_EXCEPTION) {
-                    return new ReplyException(RECIPIENT_FAILURE,
-                                              HTTP_CONNECTION_WAS_CLOSED_CODE,
-                                              CLOSED_EXCEPTION.getMessage()
-                    );
-                } else return new ReplyException(RECIPIENT_FAILURE,
-                                                 HTTP_FAILURE_CODE,
-                                                 getErrorMessage(exc)
-                );
+                    return HTTP_CONNECTION_WAS_CLOSED;
+                } else return ExceptionReply.of(HTTP_FAILURE_CODE,
+                                                exc);
 
             }
 
             default:
-                return new ReplyException(RECIPIENT_FAILURE,
-                                          HTTP_FAILURE_CODE,
-                                          getErrorMessage(exc)
-                );
+                return ExceptionReply.of(HTTP_FAILURE_CODE,
+                                         exc);
         }
     }
 
@@ -104,10 +96,10 @@ abstract class AbstractHttpClientModule extends VertxModule {
             HttpReqEvent reqEvent = new HttpReqEvent();
             reqEvent.begin();
             JsObj req = message.body();
-            PUBLISHER.publishMessageReceived(httpClientAddress,
+            PUBLISHER.publishMessageReceived(vertx,
+                                             httpClientAddress,
                                              message.headers()
-                                            )
-                     .accept(vertx);
+                                            );
 
             Integer type = HttpReq.TYPE_LENS.get.apply(req);
             RequestOptions options = HttpReq.toReqOptions.apply(req);
@@ -208,21 +200,20 @@ abstract class AbstractHttpClientModule extends VertxModule {
                                                                resp
                                                               );
                                         message.reply(output);
-                                        PUBLISHER.publishMessageReplied(httpClientAddress,
+                                        PUBLISHER.publishMessageReplied(vertx,
+                                                                        httpClientAddress,
                                                                         output,
                                                                         message.headers()
-                                                                       )
-                                                 .accept(vertx);
+                                                                       );
                                     } else {
                                         ReplyException replyException =
                                                 getHttpReplyException(it.cause());
                                         message.reply(replyException);
-                                        PUBLISHER
-                                                .publishFailureReplied(httpClientAddress,
-                                                                       replyException,
-                                                                       message.headers()
-                                                                      )
-                                                .accept(vertx);
+                                        PUBLISHER.publishFailureReplied(vertx,
+                                                                        httpClientAddress,
+                                                                        replyException,
+                                                                        message.headers()
+                                                                       );
                                     }
                                 }
 
@@ -232,11 +223,11 @@ abstract class AbstractHttpClientModule extends VertxModule {
                 ReplyException replyException = getHttpReplyException(r.cause());
                 message.reply(replyException);
 
-                PUBLISHER.publishFailureReplied(httpClientAddress,
+                PUBLISHER.publishFailureReplied(vertx,
+                                                httpClientAddress,
                                                 replyException,
                                                 message.headers()
-                                               )
-                         .accept(vertx);
+                                               );
 
             }
 
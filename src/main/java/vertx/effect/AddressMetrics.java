@@ -0,0 +1,50 @@
+package vertx.effect;
+
+/**
+ * Latencies of the verticle deployed on an address by a {@link VertxRef}: the service time, from the reception of a
+ * message until the lambda replies, and the round-trip time of the asks made through the {@link VerticleRef} returned
+ * by the deployment, which adds the time spent on the event bus and in the mailbox.
+ *
+ * @see VertxRef#metrics()
+ */
+public final class AddressMetrics {
+
+    /**
+     * the address of the verticle
+     */
+    public final String address;
+    private final LatencySnapshot serviceTime;
+    private final LatencySnapshot roundTrip;
+
+    AddressMetrics(final String address,
+                   final LatencySnapshot serviceTime,
+                   final LatencySnapshot roundTrip
+                  ) {
+        this.address = address;
+        this.serviceTime = serviceTime;
+        this.roundTrip = roundTrip;
+    }
+
+    /**
+     * Returns the time the lambda takes to reply to the messages.
+     */
+    public LatencySnapshot serviceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * Returns the time the asks take to get a reply.
+     */
+    public LatencySnapshot roundTrip() {
+        return roundTrip;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s(serviceTime=%s,roundTrip=%s)",
+                             address,
+                             serviceTime,
+                             roundTrip
+                            );
+    }
+}
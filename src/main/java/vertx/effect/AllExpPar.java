@@ -5,7 +5,6 @@ import io.vertx.core.Future;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -14,8 +13,26 @@ final class AllExpPar extends AllExp {
 
     private final List<VIO<Boolean>> exps;
 
+    private final boolean cancelRemaining;
+
     AllExpPar(final List<VIO<Boolean>> exps) {
+        this(exps,
+             false
+            );
+    }
+
+    AllExpPar(final List<VIO<Boolean>> exps,
+              final boolean cancelRemaining
+             ) {
         this.exps = requireNonNull(exps);
+        this.cancelRemaining = cancelRemaining;
+    }
+
+    @Override
+    public AllExp cancelRemaining() {
+        return new AllExpPar(exps,
+                             true
+        );
     }
 
     @Override
@@ -31,18 +48,21 @@ final class AllExpPar extends AllExp {
         requireNonNull(predicate);
         return new AllExpPar(exps.stream()
                                  .map(it -> it.retry(predicate, policy))
-                                 .collect(Collectors.toList()));
+                                 .collect(Collectors.toList()),
+                             cancelRemaining
+        );
     }
 
     @Override
     public Future<Boolean> get() {
-        return Future.all(exps.stream()
-                              .map(Supplier::get)
-                              .collect(Collectors.toList()))
-                     .map(l -> l.result()
-                                .list()
-                                .stream()
-                                .allMatch(it -> it instanceof Boolean && (Boolean) it)
-                         );
+        return execute().future();
+    }
+
+    @Override
+    Execution<Boolean> execute() {
+        return ShortCircuit.execute(exps,
+                                    false,
+                                    cancelRemaining
+                                   );
     }
 }
@@ -35,6 +35,16 @@ final class AllExpSeq extends AllExp {
                                  .collect(Collectors.toList()));
     }
 
+    /**
+     * Sequential expressions never start an effect before the previous one completes, so there is nothing to cancel
+     *
+     * @return this expression
+     */
+    @Override
+    public AllExp cancelRemaining() {
+        return this;
+    }
+
     @Override
     public Future<Boolean> get() {
         return get(exps);
@@ -27,4 +27,14 @@ public abstract sealed class AnyExp extends Exp<Boolean> permits AnyExpPar, AnyE
         return new AnyExpSeq(exps);
     }
 
+    /**
+     * Returns an equivalent expression that, once the result is decided (an effect returns true or fails), cancels
+     * the effects still running instead of ignoring them, invoking their cancellation hooks (see
+     * {@link VIO#cancelable(java.util.function.Function)} and {@link VIO#onCancel(Runnable)}). The parallel
+     * expression completes as soon as the result is decided either way.
+     *
+     * @return a new expression
+     */
+    public abstract AnyExp cancelRemaining();
+
 }
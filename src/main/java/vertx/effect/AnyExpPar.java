@@ -6,7 +6,6 @@ import io.vertx.core.Future;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -15,8 +14,26 @@ final class AnyExpPar extends AnyExp {
 
     final List<VIO<Boolean>> exps;
 
+    private final boolean cancelRemaining;
+
     AnyExpPar(final List<VIO<Boolean>> exps) {
+        this(exps,
+             false
+            );
+    }
+
+    AnyExpPar(final List<VIO<Boolean>> exps,
+              final boolean cancelRemaining
+             ) {
         this.exps = requireNonNull(exps);
+        this.cancelRemaining = cancelRemaining;
+    }
+
+    @Override
+    public AnyExp cancelRemaining() {
+        return new AnyExpPar(exps,
+                             true
+        );
     }
 
     @Override
@@ -36,21 +53,22 @@ final class AnyExpPar extends AnyExp {
                                  .map(it -> it.retry(predicate,
                                                      policy
                                                     ))
-                                 .collect(Collectors.toList()));
+                                 .collect(Collectors.toList()),
+                             cancelRemaining
+        );
     }
 
 
     @Override
     public Future<Boolean> get() {
-        return Future.all(exps.stream()
-                              .map(Supplier::get)
-                              .collect(Collectors.toList())
-                         )
-                     .map(l -> l.result()
-                                .list()
-                                .stream()
-                                .anyMatch(it -> it instanceof Boolean && ((Boolean) it))
-                         );
+        return execute().future();
     }
 
+    @Override
+    Execution<Boolean> execute() {
+        return ShortCircuit.execute(exps,
+                                    true,
+                                    cancelRemaining
+                                   );
+    }
 }
@@ -34,6 +34,16 @@ final class AnyExpSeq extends AnyExp {
     }
 
 
+    /**
+     * Sequential expressions never start an effect before the previous one completes, so there is nothing to cancel
+     *
+     * @return this expression
+     */
+    @Override
+    public AnyExp cancelRemaining() {
+        return this;
+    }
+
     @Override
     public Future<Boolean> get() {
         return get(exps);
@@ -0,0 +1,126 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lambda that buffers its inputs and sends them in batches to a lambda that processes lists, created with
+ * {@link Lambdas#batched(Lambda, int, Duration)}. A batch is sent when it has maxItems inputs or when maxDelay has
+ * elapsed since its first input was buffered, whatever happens first. Every caller's future is completed with the
+ * element of the reply at the position of its input, or with the failure of the batch. The buffer is guarded by the
+ * lock of this lambda, that is held just to add an input.
+ *
+ * @param <I> the type of the input
+ * @param <O> the type of the output
+ */
+final class BatchingLambda<I, O> implements Lambda<I, O> {
+
+    private final Lambda<List<I>, List<O>> lambda;
+    private final int maxItems;
+    private final Duration maxDelay;
+    private Batch<I, O> current;
+
+    BatchingLambda(final Lambda<List<I>, List<O>> lambda,
+                   final int maxItems,
+                   final Duration maxDelay
+                  ) {
+        this.lambda = lambda;
+        this.maxItems = maxItems;
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public VIO<O> apply(final I input) {
+        return VIO.effect(() -> add(input));
+    }
+
+    private Future<O> add(final I input) {
+        Promise<O> promise = Promise.promise();
+        Batch<I, O> full = null;
+        Batch<I, O> started = null;
+        synchronized (this) {
+            if (current == null) {
+                current = new Batch<>(maxItems);
+                started = current;
+            }
+            current.inputs.add(input);
+            current.promises.add(promise);
+            if (current.inputs.size() >= maxItems) {
+                full = current;
+                current = null;
+            }
+        }
+        if (full != null) send(full);
+        else if (started != null) schedule(started);
+        return promise.future();
+    }
+
+    /**
+     * sends the batch when maxDelay elapses, unless it's been sent before for being full. If maxDelay is less than a
+     * millisecond, the batch is sent once the current task of the Vertx context finishes, so that it has all the inputs
+     * added by that task.
+     */
+    private void schedule(final Batch<I, O> batch) {
+        Context context = Vertx.currentContext();
+        if (maxDelay.toMillis() == 0 && context != null) context.runOnContext(it -> flush(batch));
+        else Timers.start(maxDelay)
+                   .future()
+                   .onSuccess(it -> flush(batch));
+    }
+
+    private void flush(final Batch<I, O> batch) {
+        synchronized (this) {
+            if (current != batch) return;
+            current = null;
+        }
+        send(batch);
+    }
+
+    private void send(final Batch<I, O> batch) {
+        Future<List<O>> reply;
+        try {
+            reply = lambda.apply(batch.inputs)
+                          .get();
+        } catch (Exception e) {
+            reply = Future.failedFuture(e);
+        }
+        reply.onComplete(result -> {
+            if (result.failed()) {
+                for (Promise<O> promise : batch.promises) promise.fail(result.cause());
+                return;
+            }
+            List<O> outputs = result.result();
+            if (outputs == null || outputs.size() != batch.promises.size()) {
+                int size = outputs == null ? 0 : outputs.size();
+                IllegalStateException failure = new IllegalStateException(String.format("the batch lambda returned %d outputs for %d inputs",
+                                                                                         size,
+                                                                                         batch.promises.size()
+                                                                                        ));
+                for (Promise<O> promise : batch.promises) promise.fail(failure);
+                return;
+            }
+            for (int i = 0; i < outputs.size(); i++) batch.promises.get(i)
+                                                                   .complete(outputs.get(i));
+        });
+    }
+
+    private static final class Batch<I, O> {
+        final List<I> inputs;
+        final List<Promise<O>> promises;
+
+        Batch(final int capacity) {
+            this.inputs = new ArrayList<>(Math.min(capacity,
+                                                   1024
+                                                  ));
+            this.promises = new ArrayList<>(Math.min(capacity,
+                                                     1024
+                                                    ));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking code for {@link VIO#blocking(Supplier)}. Every execution gets a new virtual thread, so the caller is
+ * never blocked, whether it's an event loop, a worker or a virtual thread of a verticle deployed with the
+ * {@link io.vertx.core.ThreadingModel#VIRTUAL_THREAD} threading model, and no thread of the worker pool is held while
+ * waiting. When executed on a Vertx context, the result is delivered on that context, so that the effect resumes where
+ * it was started. Cancelling the effect interrupts the thread.
+ */
+final class Blocking {
+
+    private Blocking() {
+    }
+
+    /**
+     * Runs the blocking code on a new virtual thread and completes the promise with its result or the exception it
+     * throws, errors included.
+     *
+     * @param supplier the blocking code
+     * @param promise  the promise to complete with the result
+     * @return the hook that interrupts the thread
+     */
+    static <O> Runnable start(final Supplier<O> supplier,
+                              final Promise<O> promise
+                             ) {
+        Context context = Vertx.currentContext();
+        Thread thread = Thread.ofVirtual()
+                              .name("vertx-effect-blocking")
+                              .start(() -> {
+                                  try {
+                                      O result = supplier.get();
+                                      complete(context,
+                                               () -> promise.tryComplete(result)
+                                              );
+                                  } catch (Throwable e) {
+                                      complete(context,
+                                               () -> promise.tryFail(e)
+                                              );
+                                  }
+                              });
+        return thread::interrupt;
+    }
+
+    private static void complete(final Context context,
+                                 final Runnable completion
+                                ) {
+        if (context == null) completion.run();
+        else context.runOnContext(it -> completion.run());
+    }
+}
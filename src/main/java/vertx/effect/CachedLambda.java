@@ -0,0 +1,185 @@
+package vertx.effect;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lambda backed by a bounded cache of its results, created with {@link Lambdas#cached(Lambda, int, java.time.Duration)}.
+ * The cache is split into segments by the hash of the input, each of them a small LRU map with its own lock, so that
+ * callers from different event loops rarely contend. A miss puts the in-flight future into the cache before executing
+ * the lambda, so concurrent calls with the same input share it, each of them resuming on its own context. When the
+ * effect succeeds, the entry is stamped with the time it was loaded and served until the ttl. When it fails, the
+ * entry is removed.
+ *
+ * @param <I> the type of the input
+ * @param <O> the type of the output
+ */
+public final class CachedLambda<I, O> implements Lambda<I, O> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Lambda<I, O> lambda;
+    private final long ttl;
+    private final Segment<I, O>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    CachedLambda(final Lambda<I, O> lambda,
+                 final int maxSize,
+                 final long ttl
+                ) {
+        this.lambda = lambda;
+        this.ttl = ttl;
+        // a power of two so that the segment is computed with a mask, and never more segments than entries
+        int n = Integer.highestOneBit(Math.min(MAX_SEGMENTS,
+                                               maxSize
+                                              ));
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++)
+            segments[i] = new Segment<>((maxSize + n - 1) / n,
+                                        evictions
+            );
+    }
+
+    @Override
+    public VIO<O> apply(final I input) {
+        requireNonNull(input);
+        return VIO.effect(() -> get(input));
+    }
+
+    private Future<O> get(final I input) {
+        Segment<I, O> segment = segments[spread(input.hashCode()) & (segments.length - 1)];
+        Promise<O> promise;
+        Entry<O> loading;
+        synchronized (segment) {
+            Entry<O> entry = segment.get(input);
+            if (entry != null && (!entry.loaded || System.nanoTime() - entry.loadedAt < ttl)) {
+                hits.increment();
+                return Contexts.onCallerContext(entry.future);
+            }
+            promise = Promise.promise();
+            loading = new Entry<>(promise.future(),
+                                  0,
+                                  false
+            );
+            segment.put(input,
+                        loading
+                       );
+        }
+        misses.increment();
+        execute(input).onComplete(result -> {
+            complete(segment,
+                     input,
+                     loading,
+                     result
+                    );
+            promise.handle(result);
+        });
+        return Contexts.onCallerContext(promise.future());
+    }
+
+    private Future<O> execute(final I input) {
+        try {
+            return lambda.apply(input)
+                         .get();
+        } catch (Exception e) {
+            return Future.failedFuture(e);
+        }
+    }
+
+    // the entry is compared by identity on purpose: only the load that put it can replace it, and the equals of the
+    // record compares the fields, which says nothing about what load put the entry
+    @SuppressWarnings("ReferenceEquality")
+    private static <I, O> void complete(final Segment<I, O> segment,
+                                        final I input,
+                                        final Entry<O> loading,
+                                        final AsyncResult<O> result
+                                       ) {
+        synchronized (segment) {
+            // the entry could have been evicted, or replaced after expiring
+            if (segment.get(input) != loading) return;
+            if (result.succeeded()) segment.put(input,
+                                                new Entry<>(loading.future,
+                                                            System.nanoTime(),
+                                                            true
+                                                )
+                                               );
+            else segment.remove(input);
+        }
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the number of calls served from the cache, including the ones that shared an in-flight effect.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of calls that executed the lambda.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results evicted to keep the size of the cache under the max size.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of entries in the cache, including the expired and in-flight ones.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<I, O> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private record Entry<O>(Future<O> future, long loadedAt, boolean loaded) {
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Segment<I, O> extends LinkedHashMap<I, Entry<O>> {
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(final int capacity,
+                final LongAdder evictions
+               ) {
+            super(16,
+                  0.75f,
+                  true
+                 );
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<I, Entry<O>> eldest) {
+            if (size() <= capacity) return false;
+            evictions.increment();
+            return true;
+        }
+    }
+}
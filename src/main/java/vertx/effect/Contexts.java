@@ -0,0 +1,38 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+/**
+ * Helpers for the futures that are shared by callers from different contexts, like the in-flight futures of
+ * {@link Memo}, {@link CachedLambda} and {@link VerticleRef#askCoalesced(java.util.function.Function)}. A shared future
+ * is completed on the context of the caller that started the effect, so the rest of the callers have to hop back to
+ * their own context, the one where Vertx expects the callbacks of a verticle to run.
+ */
+final class Contexts {
+
+    private Contexts() {
+    }
+
+    /**
+     * Returns a future that is completed with the result of the shared one on the context of the caller. If the caller
+     * is not on a Vertx context or the shared future is already completed, the shared future is returned as is, since
+     * its listeners run on the thread that registers them.
+     *
+     * @param shared the future shared by callers from different contexts
+     * @param <O>    the type of the result
+     * @return a future completed on the context of the caller
+     */
+    static <O> Future<O> onCallerContext(final Future<O> shared) {
+        Context caller = Vertx.currentContext();
+        if (caller == null || shared.isComplete()) return shared;
+        Promise<O> promise = Promise.promise();
+        shared.onComplete(result -> {
+            if (Vertx.currentContext() == caller) promise.handle(result);
+            else caller.runOnContext(it -> promise.handle(result));
+        });
+        return promise.future();
+    }
+}
@@ -41,6 +41,8 @@ public final class Event {
     public static final String EXCEPTION_DEPLOYING_VERTICLE = "EXCEPTION_DEPLOYING_VERTICLE";
     public static final String TIMER_STARTED = "TIMER_STARTED";
     public static final String TIMER_ENDED = "TIMER_ENDED";
+    public static final String HEDGE_FIRED = "HEDGE_FIRED";
+    public static final String HEDGE_WON = "HEDGE_WON";
     private Event() {
     }
 
@@ -2,393 +2,644 @@ package vertx.effect;
 
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.ReplyException;
 import jsonvalues.*;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
-import static jsonvalues.JsNothing.NOTHING;
 import static vertx.effect.Event.*;
-import static vertx.effect.Failures.REPLY_EXCEPTION_PRISM;
 import static vertx.effect.Functions.headers2JsObj;
 
+/**
+ * Publishes the events of vertx-effect to the address {@link VertxRef#EVENTS_ADDRESS}. Publishing an event doesn't
+ * build it: the caller, usually an event loop, claims a preallocated slot of an {@link EventRing} and stores what the
+ * event is made of, the time and the thread name. A background thread drains the ring, builds
+ * the JsObj of every event and publishes it to the event bus, and waits a few milliseconds when the ring is empty. If
+ * the drainer can't keep up and the ring is full, the events are dropped instead of blocking the caller, and so are
+ * the events that can't be built, for example because the toString of a message throws. Events can be
+ * sampled per type. Besides, the events of the lifecycle of the verticles are emitted as JFR events (see
+ * {@link JfrEvents}), which are only built while a recording is enabled for them. It's configured with the following
+ * system properties:
+ * <ul>
+ *     <li>vertx.effect.enable.log.events: false to disable the events published to the event bus, true by default</li>
+ *     <li>vertx.effect.log.events.mode: BUS to publish the events only to the event bus, JFR to emit only JFR events,
+ *     without any event bus traffic or drainer thread, or ALL to do both, which is the default</li>
+ *     <li>vertx.effect.log.events.sampling: the rate of events published, from 0 to 1, 1 by default</li>
+ *     <li>vertx.effect.log.events.sampling.{event}: the rate of the given type of event, for example
+ *     vertx.effect.log.events.sampling.MESSAGE_SENT=0.01</li>
+ *     <li>vertx.effect.log.events.buffer.size: the number of slots of the ring, 4096 by default</li>
+ *     <li>vertx.effect.log.events.drain.interval.ms: how long the drainer waits when the ring is empty, 10 by
+ *     default</li>
+ * </ul>
+ * The stack traces of the exceptions are only rendered into the events for the fraction of them given by the system
+ * property vertx.effect.failures.stacktrace.sampling (see {@link ExceptionReply}).
+ * The drainer reads the slots after the caller has returned, so only immutable values are stored in them: the headers
+ * are copied, the messages of mutable types are converted into JSON and the exceptions are stored as strings. The
+ * events that can't be built or published are counted as dropped, and the drainer keeps running no matter what it
+ * catches.
+ */
 class EventPublisher {
     public static final EventPublisher PUBLISHER =
             new EventPublisher(Boolean.parseBoolean(System.getProperty("vertx.effect.enable.log.events", "true")));
+    private static final String SAMPLING_PROPERTY = "vertx.effect.log.events.sampling";
+    /**
+     * true if the events are published to the event bus
+     */
     protected final boolean enabled;
+    /**
+     * true if JFR events are emitted
+     */
+    private final boolean jfr;
+
+    /**
+     * events are published with the local codec of JsObj, so no codec has to be registered to consume them
+     */
+    private static final DeliveryOptions LOCAL_EVENT_OPTIONS = new DeliveryOptions().setCodecName(LocalCodecs.JS_OBJ);
+    /**
+     * events are published with the default codec of JsObj if the local codecs are disabled for JsObj
+     */
+    private static final DeliveryOptions EVENT_OPTIONS =
+            LocalCodecs.JSON_BY_REFERENCE ? LOCAL_EVENT_OPTIONS : new DeliveryOptions();
+
+    private final double samplingRate;
+    private final Map<String, Double> samplingRates;
+    private final long drainIntervalNanos;
+    private final EventRing ring;
 
     private EventPublisher(boolean enabled) {
-        this.enabled = enabled;
-    }
-
-    public Consumer<Vertx> publishFailureReceived(final String from,
-                                                  final Throwable exc,
-                                                  final MultiMap context
-                                                 ) {
-        return vertx -> {
-            if (enabled) {
-                Optional<ReplyException> opt = REPLY_EXCEPTION_PRISM.getOptional.apply(exc);
-
-                opt.ifPresentOrElse(error -> vertx.eventBus()
-                                                  .publish(VertxRef.EVENTS_ADDRESS,
-                                                           eventLens.set.apply(RECEIVED_FAILURE_EVENT)
-                                                                        .andThen(fromOpt.set.apply(from))
-                                                                        .andThen(contextLens.set.apply(context.isEmpty() ? NOTHING : headers2JsObj.apply(context)))
-                                                                        .andThen(failureTypeLens.set.apply(error.failureType().name()))
-                                                                        .andThen(failureCodeLens.set.apply(error.failureCode()))
-                                                                        .andThen(failureMessageLens.set.apply(error.getMessage()))
-                                                                        .andThen(Event.instantLens.set.apply(Instant.now()))
-                                                                        .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                                                        .apply(JsObj.empty())
-
-                                                          ),
-                                    () -> vertx
-                                            .eventBus()
-                                            .publish(VertxRef.EVENTS_ADDRESS,
-                                                     eventLens.set.apply(RECEIVED_FAILURE_EVENT)
-                                                                  .andThen(fromOpt.set.apply(from))
-                                                                  .andThen(contextLens.set.apply(context.isEmpty() ? NOTHING : headers2JsObj.apply(context)))
-                                                                  .andThen(exceptionOpt.set.apply(exc.getClass().getCanonicalName()))
-                                                                  .andThen(exceptionMessageOpt.set.apply(exc.getMessage()))
-                                                                  .andThen(exceptionStackOpt.set.apply(Arrays.toString(exc.getStackTrace())))
-                                                                  .andThen(Event.instantLens.set.apply(Instant.now()))
-                                                                  .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                                                  .apply(JsObj.empty())
-
-                                                    )
-                                   );
-            }
+        final String mode = System.getProperty("vertx.effect.log.events.mode",
+                                               "ALL"
+                                              );
+        this.enabled = enabled && !mode.equals("JFR");
+        this.jfr = !mode.equals("BUS");
+        samplingRate = Double.parseDouble(System.getProperty(SAMPLING_PROPERTY,
+                                                             "1"
+                                                            ));
+        Map<String, Double> rates = new HashMap<>();
+        for (String property : System.getProperties()
+                                     .stringPropertyNames())
+            if (property.startsWith(SAMPLING_PROPERTY + "."))
+                rates.put(property.substring(SAMPLING_PROPERTY.length() + 1),
+                          Double.parseDouble(System.getProperty(property))
+                         );
+        samplingRates = Map.copyOf(rates);
+        drainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("vertx.effect.log.events.drain.interval.ms",
+                                                                        10
+                                                                       ));
+        ring = this.enabled ? new EventRing(Integer.getInteger("vertx.effect.log.events.buffer.size",
+                                                          4096
+                                                         )) : null;
+        if (this.enabled) Thread.ofPlatform()
+                           .name("vertx-effect-events")
+                           .daemon()
+                           .start(this::drain);
+    }
+
+    private static void publish(final Vertx vertx,
+                                final JsObj event
+                               ) {
+        try {
+            vertx.eventBus()
+                 .publish(VertxRef.EVENTS_ADDRESS,
+                          event,
+                          EVENT_OPTIONS
+                         );
+        } catch (IllegalArgumentException noCodec) {
+            // the vertx instance was not wrapped by any VertxRef, or there is no default codec for JsObj
+            LocalCodecs.register(vertx);
+            vertx.eventBus()
+                 .publish(VertxRef.EVENTS_ADDRESS,
+                          event,
+                          LOCAL_EVENT_OPTIONS
+                         );
+        }
+    }
 
+    private boolean sampled(final String event) {
+        final double rate = samplingRates.isEmpty() ? samplingRate : samplingRates.getOrDefault(event,
+                                                                                                  samplingRate
+                                                                                                 );
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current()
+                                                           .nextDouble() < rate);
+    }
+
+    /**
+     * @return the slot to be filled with the event, or null if it's not published: the events are disabled, the
+     * event is not sampled or the ring is full
+     */
+    private EventRing.Slot claim(final Vertx vertx,
+                                 final String event
+                                ) {
+        if (!enabled || !sampled(event)) return null;
+        final EventRing.Slot slot = ring.claim();
+        if (slot == null) return null;
+        slot.vertx = vertx;
+        slot.event = event;
+        slot.millis = System.currentTimeMillis();
+        slot.thread = Thread.currentThread()
+                            .getName();
+        return slot;
+    }
 
-        };
-    }
-
-
-    public Consumer<Vertx> publishFailureReceived(final String from,
-                                                  final Throwable exc
-                                                 ) {
-        return vertx -> {
-            if (enabled) {
-                Optional<ReplyException> opt = REPLY_EXCEPTION_PRISM.getOptional.apply(exc);
-                opt.ifPresentOrElse(error -> vertx
-                                            .eventBus()
-                                            .publish(VertxRef.EVENTS_ADDRESS,
-                                                     eventLens.set.apply(RECEIVED_FAILURE_EVENT)
-                                                                  .andThen(fromOpt.set.apply(from))
-                                                                  .andThen(failureTypeLens.set.apply(error.failureType().name()))
-                                                                  .andThen(failureCodeLens.set.apply(error.failureCode()))
-                                                                  .andThen(failureMessageLens.set.apply(error.getMessage()))
-                                                                  .andThen(Event.instantLens.set.apply(Instant.now()))
-                                                                  .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                                                  .apply(JsObj.empty())
-
-                                                    ),
-                                    () -> vertx
-                                            .eventBus()
-                                            .publish(VertxRef.EVENTS_ADDRESS,
-                                                     eventLens.set.apply(RECEIVED_FAILURE_EVENT)
-                                                                  .andThen(fromOpt.set.apply(from))
-                                                                  .andThen(exceptionOpt.set.apply(exc.getClass().getCanonicalName()))
-                                                                  .andThen(exceptionMessageOpt.set.apply(exc.getMessage()))
-                                                                  .andThen(exceptionStackOpt.set.apply(Arrays.toString(exc.getStackTrace())))
-                                                                  .andThen(Event.instantLens.set.apply(Instant.now()))
-                                                                  .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                                                  .apply(JsObj.empty())
-                                                    )
-                                   );
+    /**
+     * stores the fields of the event that can fail, like the JSON of a message, which calls its toString, and commits
+     * the slot. The slot is committed even if they fail, because the drainer reads the slots in order and would wait
+     * for it forever: it's marked as poisoned instead, and the drainer releases it and counts it as dropped
+     */
+    private void commit(final EventRing.Slot slot,
+                        final MultiMap headers,
+                        final boolean hasMessage,
+                        final Object message,
+                        final Throwable error,
+                        final boolean failure
+                       ) {
+        try {
+            slot.context = context(headers);
+            if (hasMessage) {
+                slot.hasMessage = true;
+                slot.message = immutable(message);
             }
+            if (error != null) error(slot,
+                                     error,
+                                     failure
+                                    );
+        } catch (Throwable e) {
+            slot.poisoned = true;
+        } finally {
+            ring.commit(slot);
+        }
+    }
+
+    public void publishFailureReceived(final Vertx vertx,
+                                       final String from,
+                                       final Throwable exc,
+                                       final MultiMap context
+                                      ) {
+        final EventRing.Slot slot = claim(vertx,
+                                          RECEIVED_FAILURE_EVENT
+                                         );
+        if (slot == null) return;
+        slot.addressKey = fromOpt;
+        slot.address = from;
+        commit(slot,
+               context,
+               false,
+               null,
+               exc,
+               true
+              );
+    }
+
+    public void publishFailureReceived(final Vertx vertx,
+                                       final String from,
+                                       final Throwable exc
+                                      ) {
+        publishFailureReceived(vertx,
+                               from,
+                               exc,
+                               null
+                              );
+    }
+
+    public void publishException(final Vertx vertx,
+                                 final String event,
+                                 final String address,
+                                 final Throwable exc,
+                                 final MultiMap context
+                                ) {
+        final EventRing.Slot slot = claim(vertx,
+                                          event
+                                         );
+        if (slot == null) return;
+        slot.addressKey = addressOpt;
+        slot.address = address;
+        commit(slot,
+               context,
+               false,
+               null,
+               exc,
+               false
+              );
+    }
+
+    public void publishException(final Vertx vertx,
+                                 final String event,
+                                 final String address,
+                                 final Throwable exception
+                                ) {
+        publishException(vertx,
+                         event,
+                         address,
+                         exception,
+                         null
+                        );
+    }
+
+    public void publishException(final Vertx vertx,
+                                 final String event,
+                                 final Class<?> verticle,
+                                 final Throwable exception
+                                ) {
+        final EventRing.Slot slot = claim(vertx,
+                                          event
+                                         );
+        if (slot == null) return;
+        slot.addressKey = classOpt;
+        slot.address = verticle.getCanonicalName();
+        commit(slot,
+               null,
+               false,
+               null,
+               exception,
+               false
+              );
+    }
+
+    public void publishMessageReceived(final Vertx vertx,
+                                       final String address,
+                                       final MultiMap headers
+                                      ) {
+        if (jfr) JfrEvents.messageReceived(address);
+        final EventRing.Slot slot = claim(vertx,
+                                          RECEIVED_MESSAGE_EVENT
+                                         );
+        if (slot == null) return;
+        slot.addressKey = addressOpt;
+        slot.address = address;
+        commit(slot,
+               headers,
+               false,
+               null,
+               null,
+               false
+              );
+    }
+
+    public void publishResponseReceived(final Vertx vertx,
+                                        final String address,
+                                        final MultiMap headers
+                                       ) {
+        final EventRing.Slot slot = claim(vertx,
+                                          RECEIVED_RESP_EVENT
+                                         );
+        if (slot == null) return;
+        slot.addressKey = fromOpt;
+        slot.address = address;
+        commit(slot,
+               headers,
+               false,
+               null,
+               null,
+               false
+              );
+    }
+
+    public void publishResponseReceived(final Vertx vertx,
+                                        final String address
+                                       ) {
+        publishResponseReceived(vertx,
+                                address,
+                                null
+                               );
+    }
+
+    public void publishMessageSent(final Vertx vertx,
+                                   final String address,
+                                   final Object message
+                                  ) {
+        publishMessageSent(vertx,
+                           address,
+                           message,
+                           null
+                          );
+    }
+
+    public void publishMessageSent(final Vertx vertx,
+                                   final String address,
+                                   final Object message,
+                                   final MultiMap headers
+                                  ) {
+        if (jfr) JfrEvents.messageSent(address);
+        final EventRing.Slot slot = claim(vertx,
+                                          SENT_MESSAGE_EVENT
+                                         );
+        if (slot == null) return;
+        slot.addressKey = toOpt;
+        slot.address = address;
+        commit(slot,
+               headers,
+               true,
+               message,
+               null,
+               false
+              );
+    }
+
+    public void publishMessageReplied(final Vertx vertx,
+                                      final String address,
+                                      final Object result,
+                                      final MultiMap context
+                                     ) {
+        publishMessageReplied(vertx,
+                              address,
+                              result,
+                              context,
+                              0
+                             );
+    }
+
+    /**
+     * Publishes the reply of a message and emits the JFR event with the time it took to process it.
+     *
+     * @param received the value of {@link System#nanoTime()} when the message was received
+     */
+    public void publishMessageReplied(final Vertx vertx,
+                                      final String address,
+                                      final Object result,
+                                      final MultiMap context,
+                                      final long received
+                                     ) {
+        if (jfr) JfrEvents.messageReplied(address,
+                                          received
+                                         );
+        final EventRing.Slot slot = claim(vertx,
+                                          REPLIED_RESP_EVENT
+                                         );
+        if (slot == null) return;
+        slot.addressKey = addressOpt;
+        slot.address = address;
+        commit(slot,
+               context,
+               true,
+               result,
+               null,
+               false
+              );
+    }
+
+    public void publishFailureReplied(final Vertx vertx,
+                                      final String address,
+                                      final ReplyException exc,
+                                      final MultiMap context
+                                     ) {
+        publishFailureReplied(vertx,
+                              address,
+                              exc,
+                              context,
+                              0
+                             );
+    }
+
+    /**
+     * Publishes the failure replied to a message and emits the JFR event with the time it took to process it.
+     *
+     * @param received the value of {@link System#nanoTime()} when the message was received
+     */
+    public void publishFailureReplied(final Vertx vertx,
+                                      final String address,
+                                      final ReplyException exc,
+                                      final MultiMap context,
+                                      final long received
+                                     ) {
+        if (jfr) JfrEvents.failureReplied(address,
+                                          exc,
+                                          received
+                                         );
+        final EventRing.Slot slot = claim(vertx,
+                                          REPLIED_FAILURE_EVENT
+                                         );
+        if (slot == null) return;
+        slot.addressKey = addressOpt;
+        slot.address = address;
+        commit(slot,
+               context,
+               false,
+               null,
+               exc,
+               true
+              );
+    }
+
+    public void publishTimerStarted(final Vertx vertx,
+                                    final Duration delay
+                                   ) {
+        if (jfr) JfrEvents.timerStarted(delay);
+        timer(vertx,
+              TIMER_STARTED
+             );
+    }
+
+    public void publishTimerEnded(final Vertx vertx,
+                                  final Duration delay
+                                 ) {
+        if (jfr) JfrEvents.timerEnded(delay);
+        timer(vertx,
+              TIMER_ENDED
+             );
+    }
+
+    /**
+     * emits a JFR event when a retry policy schedules a retry. No event is published to the event bus
+     *
+     * @param failure the failure that is retried
+     * @param status  the status of the retries made so far
+     * @param delay   the delay before the retry
+     */
+    public void publishRetryAttempt(final Throwable failure,
+                                    final RetryStatus status,
+                                    final Delay delay
+                                   ) {
+        if (jfr) JfrEvents.retryAttempt(failure,
+                                        status,
+                                        delay
+                                       );
+    }
+
+    void timer(final Vertx vertx,
+               final String event
+              ) {
+        final EventRing.Slot slot = claim(vertx,
+                                          event
+                                         );
+        if (slot != null) ring.commit(slot);
+    }
+
+    public void publishVerticleDeployed(final Vertx vertx,
+                                        final String address,
+                                        final String id
+                                       ) {
+        if (jfr) JfrEvents.verticleDeployed(address,
+                                            id
+                                           );
+        final EventRing.Slot slot = claim(vertx,
+                                          DEPLOYED_VERTICLE
+                                         );
+        if (slot == null) return;
+        slot.addressKey = addressOpt;
+        slot.address = address;
+        slot.id = id;
+        ring.commit(slot);
+    }
 
-        };
-
-    }
-
-    public Consumer<Vertx> publishException(final String event,
-                                            final String address,
-                                            final Throwable exc,
-                                            final MultiMap context
-                                           ) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(event)
-                                          .andThen(addressOpt.set.apply(address))
-                                          .andThen(contextLens.set.apply(context.isEmpty() ? NOTHING : headers2JsObj.apply(context)))
-                                          .andThen(exceptionOpt.set.apply(exc.getClass().getCanonicalName()))
-                                          .andThen(exceptionMessageOpt.set.apply(exc.getMessage()))
-                                          .andThen(exceptionStackOpt.set.apply(Arrays.toString(exc.getStackTrace())))
-                                          .andThen(Event.instantLens.set.apply(Instant.now()))
-                                          .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                          .apply(JsObj.empty())
-
-                            );
-        };
-    }
-
-    public Consumer<Vertx> publishException(final String event,
-                                            final String address,
-                                            final Throwable exception
-                                           ) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(event)
-                                          .andThen(addressOpt.set.apply(address))
-                                          .andThen(Event.exceptionOpt.set.apply(exception.getClass().getCanonicalName()))
-                                          .andThen(exceptionMessageOpt.set.apply(exception.getMessage()))
-                                          .andThen(exceptionStackOpt.set.apply(Arrays.toString(exception.getStackTrace())))
-                                          .andThen(Event.instantLens.set.apply(Instant.now()))
-                                          .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                          .apply(JsObj.empty())
-
-                            );
-        };
-    }
-
-
-    public Consumer<Vertx> publishException(final String event,
-                                            final Class<?> verticle,
-                                            final Throwable exception
-                                           ) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(event)
-                                          .andThen(classOpt.set.apply(verticle.getCanonicalName()))
-                                          .andThen(Event.exceptionOpt.set.apply(exception.getClass()
-                                                                                         .getCanonicalName()))
-                                          .andThen(exceptionMessageOpt.set.apply(exception.getMessage()))
-                                          .andThen(exceptionStackOpt.set.apply(Arrays.toString(exception.getStackTrace())))
-                                          .andThen(Event.instantLens.set.apply(Instant.now()
-                                                                              )
-                                                  )
-                                          .andThen(Event.threadNameLens.set.apply(Thread.currentThread()
-                                                                                        .getName()
-                                                                                 )
-                                                  )
-                                          .apply(JsObj.empty())
-
-                            );
-        };
-    }
-
-
-
-    public Consumer<Vertx> publishMessageReceived(final String address,
-                                                  final MultiMap headers
-                                                 ) {
-        return vertx -> {
-            if (enabled) {
-                vertx
-                        .eventBus()
-                        .publish(VertxRef.EVENTS_ADDRESS,
-                                 eventLens.set.apply(RECEIVED_MESSAGE_EVENT)
-                                              .andThen(addressOpt.set.apply(address))
-                                              .andThen(contextLens.set.apply(headers.isEmpty() ? NOTHING : headers2JsObj.apply(headers)))
-                                              .andThen(Event.instantLens.set.apply(Instant.now()))
-                                              .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                              .apply(JsObj.empty())
-                                );
+    public void publishVerticleDeployed(final Vertx vertx,
+                                        final Class<?> verticle,
+                                        final String id
+                                       ) {
+        if (jfr) JfrEvents.verticleDeployed(verticle.getCanonicalName(),
+                                            id
+                                           );
+        final EventRing.Slot slot = claim(vertx,
+                                          DEPLOYED_VERTICLE
+                                         );
+        if (slot == null) return;
+        slot.addressKey = classOpt;
+        slot.address = verticle.getCanonicalName();
+        slot.id = id;
+        ring.commit(slot);
+    }
+
+    public void publishVerticleUndeployed(final Vertx vertx,
+                                          final String address
+                                         ) {
+        if (jfr) JfrEvents.verticleUndeployed(address);
+        final EventRing.Slot slot = claim(vertx,
+                                          UNDEPLOYED_VERTICLE
+                                         );
+        if (slot == null) return;
+        slot.addressKey = addressOpt;
+        slot.address = address;
+        ring.commit(slot);
+    }
+
+    /**
+     * Returns the number of events dropped because the ring was full or they couldn't be built or published.
+     */
+    long dropped() {
+        return enabled ? ring.dropped() : 0;
+    }
+
+    /**
+     * the loop of the drainer thread. Every committed slot is built into a JsObj and released before the event is
+     * published, so that the ring is freed as soon as possible. Anything thrown while building or publishing an event
+     * is caught, errors included, so that the drainer never dies, and the event is counted as dropped
+     */
+    private void drain() {
+        for (; ; ) {
+            final EventRing.Slot slot = ring.poll();
+            if (slot == null) {
+                LockSupport.parkNanos(drainIntervalNanos);
+                continue;
             }
-        };
-    }
-
-    public Consumer<Vertx> publishResponseReceived(final String address,
-                                                   final MultiMap headers
-                                                  ) {
-        return vertx -> {
-            if (enabled) {
-                vertx
-                        .eventBus()
-                        .publish(VertxRef.EVENTS_ADDRESS,
-                                 eventLens.set.apply(RECEIVED_RESP_EVENT)
-                                              .andThen(fromOpt.set.apply(address))
-                                              .andThen(contextLens.set.apply(headers.isEmpty() ? NOTHING : headers2JsObj.apply(headers)))
-                                              .andThen(Event.instantLens.set.apply(Instant.now()))
-                                              .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                              .apply(JsObj.empty())
-                                );
+            if (slot.poisoned) {
+                ring.release(slot);
+                ring.drop();
+                continue;
             }
-        };
-    }
-
-
-    public Consumer<Vertx> publishMessageSent(final String address,
-                                              final Object message
-                                             ) {
-        return vertx -> {
-            if (enabled) {
-                vertx
-                        .eventBus()
-                        .publish(VertxRef.EVENTS_ADDRESS,
-                                 eventLens.set.apply(SENT_MESSAGE_EVENT)
-                                              .andThen(toOpt.set.apply(address))
-                                              .andThen(messageLens.set.apply(toJsValue(message)))
-                                              .andThen(Event.instantLens.set.apply(Instant.now()))
-                                              .andThen(Event.threadNameLens.set.apply(Thread.currentThread().getName()))
-                                              .apply(JsObj.empty())
-                                );
+            final Vertx vertx = slot.vertx;
+            final JsObj event;
+            try {
+                event = toJsObj(slot);
+            } catch (Throwable e) {
+                ring.drop();
+                continue;
+            } finally {
+                ring.release(slot);
             }
-        };
-    }
-
-    public Consumer<Vertx> publishMessageSent(final String address,
-                                              final Object message,
-                                              final MultiMap headers
-                                             ) {
-        return vertx -> {
-            if (enabled) {
-                vertx
-                        .eventBus()
-                        .publish(VertxRef.EVENTS_ADDRESS,
-                                 eventLens.set.apply(SENT_MESSAGE_EVENT)
-                                              .andThen(toOpt.set.apply(address))
-                                              .andThen(contextLens.set.apply(headers.isEmpty() ? NOTHING : headers2JsObj.apply(headers)))
-                                              .andThen(messageLens.set.apply(toJsValue(message)))
-                                              .andThen(Event.instantLens.set.apply(Instant.now()))
-                                              .andThen(Event.threadNameLens.set.apply(Thread.currentThread()
-                                                                                            .getName())
-                                                      )
-                                              .apply(JsObj.empty())
-                                );
+            try {
+                publish(vertx,
+                        event
+                       );
+            } catch (Throwable e) {
+                // for example, the vertx instance was closed after the event was published
+                ring.drop();
             }
-        };
-    }
-
-    public Consumer<Vertx> publishMessageReplied(final String address,
-                                                 final Object result,
-                                                 final MultiMap context
-                                                ) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(REPLIED_RESP_EVENT)
-                                          .andThen(addressOpt.set.apply(address))
-                                          .andThen(contextLens.set.apply(context.isEmpty() ? NOTHING : headers2JsObj.apply(context)))
-                                          .andThen(messageLens.set.apply(toJsValue(result)))
-                                          .andThen(Event.instantLens.set.apply(Instant.now()))
-                                          .andThen(Event.threadNameLens.set.apply(Thread.currentThread()
-                                                                                        .getName())
-                                                  )
-                                          .apply(JsObj.empty())
-                            );
-        };
-    }
-
-
-    public Consumer<Vertx> publishFailureReplied(final String address,
-                                                 final ReplyException exc,
-                                                 final MultiMap context
-                                                ) {
-        return vertx -> {
-            if (enabled) vertx.eventBus()
-                              .publish(VertxRef.EVENTS_ADDRESS,
-                                       eventLens.set.apply(REPLIED_FAILURE_EVENT)
-                                                    .andThen(addressOpt.set.apply(address))
-                                                    .andThen(contextLens.set.apply(context.isEmpty() ?
-                                                                                           NOTHING : headers2JsObj.apply(context)))
-                                                    .andThen(failureTypeLens.set.apply(exc.failureType()
-                                                                                          .name()))
-                                                    .andThen(failureCodeLens.set.apply(exc.failureCode()))
-                                                    .andThen(failureMessageLens.set.apply(exc.getMessage()))
-                                                    .andThen(Event.instantLens.set.apply(Instant.now()))
-                                                    .andThen(Event.threadNameLens.set.apply(Thread.currentThread()
-                                                                                                  .getName())
-                                                            )
-                                                    .apply(JsObj.empty())
-                                      );
-        };
-    }
-
-
-    public Consumer<Vertx> publishTimerStarted() {
-        return timer(TIMER_STARTED);
-    }
-
-    public Consumer<Vertx> publishTimerEnded() {
-        return timer(TIMER_ENDED);
-    }
-
-
-    Consumer<Vertx> timer(final String event) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             Event.eventLens.set.apply(event)
-                                                .andThen(Event.instantLens.set.apply(Instant.now()))
-                                                .andThen(Event.threadNameLens.set.apply(Thread.currentThread()
-                                                                                              .getName())
-                                                        )
-                                                .apply(JsObj.empty())
-                            );
-        };
-    }
-
-    public Consumer<Vertx> publishVerticleDeployed(final String address,
-                                                   final String id
-                                                  ) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(DEPLOYED_VERTICLE)
-                                          .andThen(addressOpt.set.apply(address))
-                                          .andThen(instantLens.set.apply(Instant.now()))
-                                          .andThen(Event.idOption.set.apply(id))
-                                          .andThen(threadNameLens.set.apply(Thread.currentThread()
-                                                                                  .getName())
-                                                  )
-                                          .apply(JsObj.empty())
-                            );
-        };
-    }
-
-
-    public Consumer<Vertx> publishVerticleDeployed(final Class<?> verticle,
-                                                   final String id
-                                                  ) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(DEPLOYED_VERTICLE)
-                                          .andThen(classOpt.set.apply(verticle.getCanonicalName()))
-                                          .andThen(instantLens.set.apply(Instant.now()))
-                                          .andThen(Event.idOption.set.apply(id))
-                                          .andThen(threadNameLens.set.apply(Thread.currentThread()
-                                                                                  .getName())
-                                                  )
-                                          .apply(JsObj.empty())
-                            );
-        };
-    }
-
-    public Consumer<Vertx> publishVerticleUndeployed(final String address) {
-        return vertx -> {
-            if (enabled) vertx
-                    .eventBus()
-                    .publish(VertxRef.EVENTS_ADDRESS,
-                             eventLens.set.apply(UNDEPLOYED_VERTICLE)
-                                          .andThen(addressOpt.set.apply(address))
-                                          .andThen(instantLens.set.apply(Instant.now()))
-                                          .andThen(threadNameLens.set.apply(Thread.currentThread()
-                                                                                  .getName())
-                                                  )
-                                          .apply(JsObj.empty())
-                            );
-        };
-    }
-
-    private JsValue toJsValue(Object obj) {
+        }
+    }
+
+    private static JsObj context(final MultiMap headers) {
+        return headers == null || headers.isEmpty() ? null : headers2JsObj.apply(headers);
+    }
+
+    /**
+     * the messages whose type is not immutable are converted into JSON before the caller returns
+     */
+    private static Object immutable(final Object message) {
+        if (message == null || message instanceof String || message instanceof Number || message instanceof Boolean
+            || message instanceof Character || message instanceof Instant || message instanceof JsValue)
+            return message;
+        return toJsValue(message);
+    }
+
+    /**
+     * stores the strings of the event of an exception or, if it's the failure of a message, of a ReplyException
+     */
+    private static void error(final EventRing.Slot slot,
+                              final Throwable error,
+                              final boolean failure
+                             ) {
+        if (failure && error instanceof ReplyException reply) {
+            slot.failureType = reply.failureType()
+                                    .name();
+            slot.failureCode = reply.failureCode();
+            slot.failureMessage = reply.getMessage();
+            if (reply instanceof ExceptionReply exceptionReply) slot.exceptionClass = exceptionReply.exceptionClass;
+        } else {
+            slot.exceptionClass = error.getClass()
+                                       .getCanonicalName();
+            slot.exceptionMessage = error.getMessage();
+            // the stack trace is rendered only for a sample of the exceptions, see ExceptionReply
+            if (!failure && ExceptionReply.sampleStackTrace())
+                slot.stackTrace = Arrays.toString(error.getStackTrace());
+        }
+    }
+
+    private JsObj toJsObj(final EventRing.Slot slot) {
+        JsObj event = eventLens.set.apply(slot.event)
+                                   .apply(JsObj.empty());
+        if (slot.address != null)
+            event = slot.addressKey.set.apply(slot.address)
+                                       .apply(event);
+        if (slot.context != null)
+            event = contextLens.set.apply(slot.context)
+                                   .apply(event);
+        if (slot.hasMessage)
+            event = messageLens.set.apply(toJsValue(slot.message))
+                                   .apply(event);
+        if (slot.failureType != null)
+            event = failureTypeLens.set.apply(slot.failureType)
+                                       .andThen(failureCodeLens.set.apply(slot.failureCode))
+                                       .apply(event);
+        if (slot.failureMessage != null)
+            event = failureMessageLens.set.apply(slot.failureMessage)
+                                          .apply(event);
+        if (slot.exceptionClass != null)
+            event = exceptionOpt.set.apply(slot.exceptionClass)
+                                    .apply(event);
+        if (slot.exceptionMessage != null)
+            event = exceptionMessageOpt.set.apply(slot.exceptionMessage)
+                                           .apply(event);
+        if (slot.stackTrace != null)
+            event = exceptionStackOpt.set.apply(slot.stackTrace)
+                                         .apply(event);
+        if (slot.id != null)
+            event = idOption.set.apply(slot.id)
+                                .apply(event);
+        return instantLens.set.apply(Instant.ofEpochMilli(slot.millis))
+                              .andThen(threadNameLens.set.apply(slot.thread))
+                              .apply(event);
+    }
+
+    private static JsValue toJsValue(Object obj) {
         if (obj == null) return JsNull.NULL;
         if (obj instanceof String) return JsStr.of(((String) obj));
         if (obj instanceof Character) return JsStr.of(((Character) obj).toString());
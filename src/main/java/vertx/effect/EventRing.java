@@ -0,0 +1,158 @@
+package vertx.effect;
+
+import fun.optic.Option;
+import io.vertx.core.Vertx;
+import jsonvalues.JsObj;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded lock-free ring buffer of preallocated, mutable event slots, with many producers and a single consumer. A
+ * producer claims a slot with a CAS on the tail, stores the fields of the event and commits it, which makes it visible
+ * to the consumer. The consumer polls the slots in order and releases them once read, so they can be claimed again.
+ * Every slot has a sequence number that tells whether it's free, committed or released for the next lap, as in Dmitry
+ * Vyukov's bounded queue. When the buffer is full, claiming fails and the event is counted as dropped, so producers
+ * never wait.
+ */
+final class EventRing {
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    /**
+     * only accessed by the consumer
+     */
+    private long head;
+
+    /**
+     * @param size the number of slots, rounded up to a power of two
+     */
+    EventRing(final int size) {
+        if (size < 1) throw new IllegalArgumentException("size < 1");
+        final int capacity = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) slots[i] = new Slot(i);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns a free slot to be filled and {@link #commit(Slot) committed}, or null if the buffer is full.
+     */
+    Slot claim() {
+        long position = tail.get();
+        for (; ; ) {
+            final Slot slot = slots[(int) (position & mask)];
+            final long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position,
+                                       position + 1
+                                      )) {
+                    slot.position = position;
+                    return slot;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                dropped.increment();
+                return null;
+            } else position = tail.get();
+        }
+    }
+
+    /**
+     * makes the claimed slot visible to the consumer
+     */
+    void commit(final Slot slot) {
+        slot.sequence = slot.position + 1;
+    }
+
+    /**
+     * Returns the next committed slot, or null if there is none. Must be called by the consumer only.
+     */
+    Slot poll() {
+        final Slot slot = slots[(int) (head & mask)];
+        return slot.sequence == head + 1 ? slot : null;
+    }
+
+    /**
+     * clears the polled slot so that it can be claimed again. Must be called by the consumer only
+     */
+    void release(final Slot slot) {
+        slot.clear();
+        slot.sequence = head + slots.length;
+        head++;
+    }
+
+    /**
+     * counts an event that was committed but couldn't be published
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * Returns the number of events dropped because the buffer was full or they couldn't be published.
+     */
+    long dropped() {
+        return dropped.sum();
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * The fields of an event. Only immutable values and primitives are stored, since the consumer reads them after the
+     * producer has returned: the headers are copied into a JsObj, the messages of mutable types are converted into
+     * JSON, and the exceptions are stored as the strings the event is made of. Nothing is allocated for the fields that
+     * are already immutable, which are most of them.
+     */
+    static final class Slot {
+        volatile long sequence;
+        long position;
+        Vertx vertx;
+        String event;
+        Option<JsObj, String> addressKey;
+        String address;
+        JsObj context;
+        boolean hasMessage;
+        Object message;
+        String failureType;
+        int failureCode;
+        String failureMessage;
+        String exceptionClass;
+        String exceptionMessage;
+        String stackTrace;
+        String id;
+        long millis;
+        String thread;
+        /**
+         * true if the producer failed to store the fields, so the consumer must skip the slot
+         */
+        boolean poisoned;
+
+        private Slot(final long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void clear() {
+            vertx = null;
+            event = null;
+            addressKey = null;
+            address = null;
+            context = null;
+            hasMessage = false;
+            message = null;
+            failureType = null;
+            failureCode = 0;
+            failureMessage = null;
+            exceptionClass = null;
+            exceptionMessage = null;
+            stackTrace = null;
+            id = null;
+            thread = null;
+            poisoned = false;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package vertx.effect;
+
+import io.vertx.core.eventbus.ReplyException;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.vertx.core.eventbus.ReplyFailure.RECIPIENT_FAILURE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link ReplyException} replied when a lambda, a verticle or a module fails with an exception that is not a
+ * ReplyException. It carries the failure code, and the class name and message of the exception as separate fields.
+ * The message of the ReplyException, which is what travels across the event bus of a cluster, is just
+ * {@code class: message}. The stack trace is not rendered unless it's asked for with {@link #stackTrace()}, which is
+ * only possible in the process where the exception was thrown, since the exception is kept as the cause. Rendering the
+ * stack trace of every failure into the message was the main cost of replying to an error storm.
+ * <p>
+ * To include the stack trace in the message of a fraction of the failures, set the system property
+ * vertx.effect.failures.stacktrace.sampling to a number from 0 to 1 (0 by default). The same rate applies to the stack
+ * traces of the exceptions published by {@link EventPublisher}.
+ *
+ * @see Failures
+ */
+@SuppressWarnings("serial")
+public final class ExceptionReply extends ReplyException {
+
+    private static final double STACK_TRACE_SAMPLING =
+            Double.parseDouble(System.getProperty("vertx.effect.failures.stacktrace.sampling",
+                                                  "0"
+                                                 ));
+
+    /**
+     * the fully qualified name of the class of the exception
+     */
+    public final String exceptionClass;
+    /**
+     * the message of the exception, which may be null
+     */
+    public final String exceptionMessage;
+
+    private ExceptionReply(final int code,
+                           final Throwable exception,
+                           final String message
+                          ) {
+        super(RECIPIENT_FAILURE,
+              code,
+              message,
+              exception,
+              true
+             );
+        this.exceptionClass = exception.getClass()
+                                       .getName();
+        this.exceptionMessage = exception.getMessage();
+    }
+
+    /**
+     * Creates a reply that describes the given exception. Its stack trace is rendered into the message according to
+     * the sampling rate.
+     *
+     * @param code      the failure code
+     * @param exception the exception that caused the failure
+     * @return an ExceptionReply with the given code that describes the exception
+     */
+    public static ExceptionReply of(final int code,
+                                    final Throwable exception
+                                   ) {
+        requireNonNull(exception);
+        final String description = exception.getMessage() == null ?
+                                   exception.getClass()
+                                            .getName() :
+                                   exception.getClass()
+                                            .getName() + ": " + exception.getMessage();
+        return new ExceptionReply(code,
+                                  exception,
+                                  sampleStackTrace() && exception.getStackTrace().length > 0 ?
+                                  description + "@" + Arrays.toString(exception.getStackTrace()) :
+                                  description
+        );
+    }
+
+    /**
+     * Returns the stack trace of the exception, rendered when this method is called.
+     */
+    public String stackTrace() {
+        return Arrays.toString(getCause().getStackTrace());
+    }
+
+    /**
+     * Returns true if the stack trace of an exception has to be rendered, according to the sampling rate.
+     */
+    static boolean sampleStackTrace() {
+        return STACK_TRACE_SAMPLING >= 1 || (STACK_TRACE_SAMPLING > 0 && ThreadLocalRandom.current()
+                                                                                         .nextDouble() < STACK_TRACE_SAMPLING);
+    }
+}
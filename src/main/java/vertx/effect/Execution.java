@@ -0,0 +1,110 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A running effect. Combinators that abandon effects before they complete (the branches of a par expression whose
+ * result is already decided, the losers of a race...) cancel their executions, which invokes the hooks registered with
+ * {@link VIO#cancelable(Function)} or {@link VIO#onCancel(Runnable)} of the effects still running. Cancelling an
+ * execution that has already completed, or more than once, has no effect.
+ *
+ * @param <O> the type of the value produced by the effect
+ */
+interface Execution<O> {
+
+    static <O> Execution<O> of(final VIO<O> effect) {
+        if (effect instanceof Val<O> val) return Interpreter.start(val);
+        return ((Exp<O>) effect).execute();
+    }
+
+    /**
+     * Wraps the future of an effect that can't be interrupted
+     *
+     * @param future the future of an effect that can't be cancelled
+     * @return an execution whose cancellation does nothing
+     */
+    static <O> Execution<O> of(final Future<O> future) {
+        return new Execution<>() {
+            @Override
+            public Future<O> future() {
+                return future;
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+    }
+
+    /**
+     * Wraps the future of an effect that is interrupted by the given hook
+     *
+     * @param future the future of the effect
+     * @param hook   the action that interrupts the effect
+     * @return an execution that runs the hook, only once, if it's cancelled before the future completes
+     */
+    static <O> Execution<O> of(final Future<O> future,
+                               final Runnable hook
+                              ) {
+        AtomicBoolean done = new AtomicBoolean(false);
+        return new Execution<>() {
+            @Override
+            public Future<O> future() {
+                return future;
+            }
+
+            @Override
+            public void cancel() {
+                if (!future.isComplete() && done.compareAndSet(false,
+                                                               true
+                                                              )) run(hook);
+            }
+        };
+    }
+
+    /**
+     * Starts an effect that completes the given promise and returns the hook that interrupts it
+     *
+     * @param register the function that starts the effect
+     * @return the execution of the effect, whose cancellation runs the hook if not null
+     * @see VIO#cancelable(Function)
+     */
+    static <O> Execution<O> start(final Function<Promise<O>, Runnable> register) {
+        Promise<O> promise = Promise.promise();
+        Runnable hook;
+        try {
+            hook = register.apply(promise);
+        } catch (Exception e) {
+            promise.tryFail(e);
+            return of(promise.future());
+        }
+        return hook == null ?
+               of(promise.future()) :
+               of(promise.future(),
+                  hook
+                 );
+    }
+
+    /**
+     * Runs a cancellation hook. Like a failing handler in Vertx, a failing hook is reported to the current context.
+     */
+    static void run(final Runnable hook) {
+        try {
+            hook.run();
+        } catch (Throwable t) {
+            Context context = Vertx.currentContext();
+            if (context instanceof ContextInternal internal) internal.reportException(t);
+        }
+    }
+
+    Future<O> future();
+
+    void cancel();
+}
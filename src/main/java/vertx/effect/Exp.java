@@ -4,6 +4,16 @@ import java.util.function.Predicate;
 
 abstract sealed class Exp<O> implements VIO<O> permits AllExp, AnyExp, CondExp, IfElseExp, JsArrayExp, JsObjExp, ListExp, MapExp, PairExp, SwitchExp, TripleExp {
 
+    /**
+     * Executes the expression. Expressions that can abandon some of their effects, or propagate a cancellation to them,
+     * override this method.
+     *
+     * @return the execution of this expression
+     */
+    Execution<O> execute() {
+        return Execution.of(get());
+    }
+
     public abstract VIO<O> retryEach(final Predicate<Throwable> predicate,
                                      final RetryPolicy policy
                                     );
@@ -4,8 +4,11 @@ import fun.optic.Prism;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.ReplyFailure;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 import static io.vertx.core.eventbus.ReplyFailure.RECIPIENT_FAILURE;
@@ -17,6 +20,11 @@ import static java.util.Objects.requireNonNull;
  * arguments: {@link ReplyFailure}, which is always {@link ReplyFailure#RECIPIENT_FAILURE}, the failure code and a
  * message. The failure codes handles from vertx-effect go from 3000 to 9999. Use codes between 0 and 2999 in your
  * application.
+ * <p>
+ * A ReplyException created with {@code new ReplyException(failureType, code, message)} doesn't capture the stack
+ * trace, and it can't have suppressed exceptions, so it's immutable: the failures with a fixed message can be created
+ * once and reused, like {@link #HTTP_CONNECTION_WAS_CLOSED}, and the predicates and prisms built from codes with
+ * {@link #anyOf(int, int...)} and {@link #anyOfPrism(int, int...)} match a failure in constant time.
  */
 @SuppressWarnings({"serial"})
 public final class Failures {
@@ -46,6 +54,13 @@ public final class Failures {
      * When an error occurs undeploying a verticle
      */
     public static final int EXCEPTION_UNDEPLOYING_VERTICLE_CODE = 3004;
+    /**
+     * When a verticle deployed with a {@link MailboxPolicy} that rejects messages is processing and queueing as many
+     * messages as the policy allows
+     *
+     * @see MailboxPolicy#reject(int, int)
+     */
+    public static final int MAILBOX_FULL_CODE = 3005;
     /**
      * Internal error when a ReplyException is expected and another one is received
      */
@@ -104,9 +119,22 @@ public final class Failures {
                     },
                     v -> v
             );
+    /**
+     * the failure of the http client when a connection is closed by the server, which is always the same
+     *
+     * @see #HTTP_CONNECTION_WAS_CLOSED_CODE
+     */
+    // the ReplyException is stackless and carries no mutable state, so sharing a single instance is safe
+    @SuppressWarnings("StaticAssignmentOfThrowable")
+    public static final ReplyException HTTP_CONNECTION_WAS_CLOSED =
+            new ReplyException(RECIPIENT_FAILURE,
+                               HTTP_CONNECTION_WAS_CLOSED_CODE,
+                               "Connection was closed"
+            );
     /**
      * function that takes an error message and returns a ReplyException with the code {@link #BAD_MESSAGE_CODE} and the
-     * given message
+     * given message. The exception doesn't capture the stack trace, so when the message is fixed, create it once and
+     * reuse it, as {@link Validators#validate(Predicate, String)} does.
      */
     public static final Function<String, ReplyException> GET_BAD_MESSAGE_EXCEPTION =
             errorMessage -> new ReplyException(
@@ -129,17 +157,56 @@ public final class Failures {
     public static Predicate<Throwable> anyOf(final int code,
                                              final int... others
                                             ) {
-        return exc -> {
-            if (exc instanceof ReplyException) {
-                ReplyException replyException = (ReplyException) exc;
-                if (replyException.failureCode() == code) return true;
-                for (final int other : others) {
-                    if (replyException.failureCode() == other) return true;
-                }
-                return false;
-            }
-            return false;
-        };
+        IntPredicate codes = codes(code,
+                                   others
+                                  );
+        return exc -> exc instanceof ReplyException replyException && codes.test(replyException.failureCode());
+    }
+
+    /**
+     * prism where the Sum is Throwable and the part is a ReplyException whose code is one of the specified ones
+     *
+     * @param code   a failure code
+     * @param others a set of failure codes
+     * @return a prism
+     * @see #anyOf(int, int...)
+     */
+    public static Prism<Throwable, ReplyException> anyOfPrism(final int code,
+                                                              final int... others
+                                                             ) {
+        IntPredicate codes = codes(code,
+                                   others
+                                  );
+        return new Prism<>(
+                t -> t instanceof ReplyException replyException && codes.test(replyException.failureCode()) ?
+                     Optional.of(replyException) :
+                     Optional.empty(),
+                v -> v
+        );
+    }
+
+    /**
+     * the codes are looked up in a bitset when all of them are between 0 and 2^16, and with a binary search
+     * otherwise
+     */
+    private static IntPredicate codes(final int code,
+                                      final int... others
+                                     ) {
+        if (others.length == 0) return it -> it == code;
+        final int[] all = Arrays.copyOf(others,
+                                        others.length + 1
+                                       );
+        all[others.length] = code;
+        Arrays.sort(all);
+        if (all[0] >= 0 && all[all.length - 1] < 1 << 16) {
+            final BitSet bits = new BitSet(all[all.length - 1] + 1);
+            for (final int it : all) bits.set(it);
+            // vertx failures like timeouts or no handlers have a negative code, which BitSet.get rejects
+            return it -> it >= 0 && bits.get(it);
+        }
+        return it -> Arrays.binarySearch(all,
+                                         it
+                                        ) >= 0;
     }
 
 }
@@ -5,7 +5,6 @@ import jsonvalues.JsArray;
 import jsonvalues.JsObj;
 import jsonvalues.JsStr;
 
-import java.util.Arrays;
 import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -41,10 +40,4 @@ class Functions {
 
     private Functions() {
     }
-
-    public static String getErrorMessage(final Throwable e) {
-        return e.getStackTrace().length == 0 ?
-                e.toString() :
-                e + "@" + Arrays.toString(e.getStackTrace());
-    }
 }
@@ -0,0 +1,142 @@
+package vertx.effect;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution of a hedged effect. The effect is started and, every time the delay elapses without a result, a new copy
+ * is started, up to maxCopies copies in total. The first copy that succeeds wins and the rest of them, along with the
+ * pending timer, are cancelled. Hedging is about latency, not failures: if all the copies started so far fail, the
+ * execution fails with the first failure without starting more copies (use a retry policy for that).
+ * <p>
+ * A {@link Event#HEDGE_FIRED} event is published every time a copy is started because of the delay, and a
+ * {@link Event#HEDGE_WON} event when one of those copies wins.
+ *
+ * @param <O> the type of the value produced by the effect
+ */
+final class Hedge<O> implements Execution<O> {
+
+    private final VIO<O> effect;
+    private final Delay delay;
+    private final Execution<?>[] executions;
+    private final Promise<O> promise = Promise.promise();
+    private final AtomicBoolean decided = new AtomicBoolean(false);
+    private final AtomicInteger started = new AtomicInteger(0);
+    private final AtomicInteger failures = new AtomicInteger(0);
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private volatile Execution<Long> timer;
+
+    private Hedge(final VIO<O> effect,
+                  final Delay delay,
+                  final int maxCopies
+                 ) {
+        this.effect = effect;
+        this.delay = delay;
+        this.executions = new Execution<?>[maxCopies];
+    }
+
+    static <O> Hedge<O> execute(final VIO<O> effect,
+                                final Delay delay,
+                                final int maxCopies
+                               ) {
+        Hedge<O> hedge = new Hedge<>(effect,
+                                     delay,
+                                     maxCopies
+        );
+        hedge.launch();
+        return hedge;
+    }
+
+    private static void publish(final String event) {
+        Context context = Vertx.currentContext();
+        if (context != null) EventPublisher.PUBLISHER.timer(context.owner(),
+                                                            event
+                                                           );
+    }
+
+    private void launch() {
+        final int index = started.getAndIncrement();
+        Execution<O> execution;
+        try {
+            execution = Execution.of(effect);
+        } catch (Exception e) {
+            execution = Execution.of(Future.failedFuture(e));
+        }
+        executions[index] = execution;
+        // the result could have been decided by another copy while this one was being started
+        if (decided.get()) {
+            execution.cancel();
+            return;
+        }
+        execution.future()
+                 .onComplete(result -> complete(index,
+                                                result
+                                               ));
+        if (index + 1 < executions.length && !decided.get()) schedule();
+    }
+
+    private void schedule() {
+        Execution<Long> timer = Execution.of(delay.effect);
+        this.timer = timer;
+        timer.future()
+             .onSuccess(id -> {
+                 if (decided.get()) return;
+                 publish(Event.HEDGE_FIRED);
+                 launch();
+             });
+    }
+
+    private void complete(final int index,
+                          final AsyncResult<O> result
+                         ) {
+        if (result.succeeded()) {
+            if (!decided.compareAndSet(false,
+                                       true
+                                      )) return;
+            if (index > 0) publish(Event.HEDGE_WON);
+            cancelOthers(index);
+            promise.complete(result.result());
+        } else {
+            firstFailure.compareAndSet(null,
+                                       result.cause()
+                                      );
+            if (failures.incrementAndGet() == started.get() && decided.compareAndSet(false,
+                                                                                     true
+                                                                                    )) {
+                cancelOthers(index);
+                promise.fail(firstFailure.get());
+            }
+        }
+    }
+
+    private void cancelOthers(final int winner) {
+        Execution<Long> timer = this.timer;
+        if (timer != null) timer.cancel();
+        for (int i = 0; i < executions.length; i++) {
+            Execution<?> execution = executions[i];
+            if (i != winner && execution != null) execution.cancel();
+        }
+    }
+
+    @Override
+    public Future<O> future() {
+        return promise.future();
+    }
+
+    @Override
+    public void cancel() {
+        if (!decided.compareAndSet(false,
+                                   true
+                                  )) return;
+        cancelOthers(-1);
+        promise.fail(new CancellationException("effect cancelled"));
+    }
+}
@@ -2,20 +2,30 @@ package vertx.effect;
 
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
 import io.vertx.core.http.HttpServerRequest;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * Provides a constructor to create http servers, and different methods to wrapped their deployment into a {@link VIO}.
  * It allows to define some interesting methods like {@link #createAtRandom(int, int)}, that deploys the server on the
- * first free port it finds.
+ * first free port it finds. The latencies of the verticles deployed by a {@link VertxRef} can be exposed to Prometheus
+ * with {@link #withMetrics(String, VertxRef)}.
  */
 public class HttpServerBuilder {
 
     private static final String DEFAULT_HOST = "0.0.0.0";
+    /**
+     * the buckets of the histograms, in nanoseconds: the powers of two from 2^14 (about 16 microseconds) to 2^36 (about
+     * 69 seconds), which are bounds of the buckets of {@link LatencyHistogram}, so the counts are exact
+     */
+    private static final int MIN_BUCKET_EXPONENT = 14;
+    private static final int MAX_BUCKET_EXPONENT = 36;
     private final Vertx vertx;
     private final HttpServerOptions options;
     private final Handler<HttpServerRequest> reqHandler;
@@ -38,6 +48,124 @@ public class HttpServerBuilder {
             );
     }
 
+    /**
+     * Returns a builder of servers that reply to the GET requests sent to the given path with the metrics of the
+     * verticles deployed by the given {@link VertxRef} (see {@link VertxRef#metrics()}), in the text format of
+     * Prometheus. The service and round-trip times are exposed as histograms in seconds, with a bucket per power of two
+     * from about 16 microseconds to about 69 seconds, so that the quantiles can be computed over any window and across
+     * instances with histogram_quantile. The failures are exposed as counters, all of them with the label address. The
+     * rest of the requests are processed by the handler of this builder.
+     *
+     * @param path     the path of the endpoint, for example /metrics
+     * @param vertxRef the VertxRef that deployed the verticles
+     * @return a new builder
+     */
+    public HttpServerBuilder withMetrics(final String path,
+                                         final VertxRef vertxRef
+                                        ) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(vertxRef);
+        return new HttpServerBuilder(vertx,
+                                     options,
+                                     req -> {
+                                         if (path.equals(req.path()) && HttpMethod.GET.equals(req.method()))
+                                             req.response()
+                                                .putHeader("content-type",
+                                                           "text/plain; version=0.0.4; charset=utf-8"
+                                                          )
+                                                .end(toPrometheus(vertxRef.metrics()));
+                                         else reqHandler.handle(req);
+                                     }
+        );
+    }
+
+    private static String toPrometheus(final Map<String, AddressMetrics> metrics) {
+        StringBuilder text = new StringBuilder();
+        histogram(text,
+                  "vertx_effect_service_time_seconds",
+                  "Time the lambdas deployed by VertxRef take to reply to the messages",
+                  metrics,
+                  AddressMetrics::serviceTime
+                 );
+        counter(text,
+                "vertx_effect_service_failures_total",
+                "Messages replied with a failure by the lambdas deployed by VertxRef",
+                metrics,
+                AddressMetrics::serviceTime
+               );
+        histogram(text,
+                  "vertx_effect_round_trip_seconds",
+                  "Time the asks to the verticles deployed by VertxRef take to get a reply",
+                  metrics,
+                  AddressMetrics::roundTrip
+                 );
+        counter(text,
+                "vertx_effect_round_trip_failures_total",
+                "Asks to the verticles deployed by VertxRef that got a failure",
+                metrics,
+                AddressMetrics::roundTrip
+               );
+        return text.toString();
+    }
+
+    private static void histogram(final StringBuilder text,
+                                  final String name,
+                                  final String help,
+                                  final Map<String, AddressMetrics> metrics,
+                                  final Function<AddressMetrics, LatencySnapshot> latency
+                                 ) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" histogram\n");
+        for (AddressMetrics address : metrics.values()) {
+            LatencySnapshot snapshot = latency.apply(address);
+            if (snapshot.count() == 0) continue;
+            String label = label(address.address);
+            for (int exponent = MIN_BUCKET_EXPONENT; exponent <= MAX_BUCKET_EXPONENT; exponent++)
+                text.append(name).append("_bucket{address=\"").append(label).append("\",le=\"")
+                    .append(seconds(1L << exponent)).append("\"} ")
+                    .append(snapshot.countBelow(1L << exponent)).append('\n');
+            text.append(name).append("_bucket{address=\"").append(label).append("\",le=\"+Inf\"} ")
+                .append(snapshot.count()).append('\n');
+            text.append(name).append("_sum{address=\"").append(label).append("\"} ")
+                .append(seconds(snapshot.total()
+                                        .toNanos())).append('\n');
+            text.append(name).append("_count{address=\"").append(label).append("\"} ")
+                .append(snapshot.count()).append('\n');
+        }
+    }
+
+    private static void counter(final StringBuilder text,
+                                final String name,
+                                final String help,
+                                final Map<String, AddressMetrics> metrics,
+                                final Function<AddressMetrics, LatencySnapshot> latency
+                               ) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(" counter\n");
+        for (AddressMetrics address : metrics.values()) {
+            LatencySnapshot snapshot = latency.apply(address);
+            if (snapshot.count() == 0) continue;
+            text.append(name).append("{address=\"").append(label(address.address)).append("\"} ")
+                .append(snapshot.failures()).append('\n');
+        }
+    }
+
+    private static String seconds(final long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String label(final String value) {
+        return value.replace("\\",
+                             "\\\\"
+                            )
+                    .replace("\"",
+                             "\\\""
+                            )
+                    .replace("\n",
+                             "\\n"
+                            );
+    }
+
     public VIO<HttpServer> createAtRandom(final int start,
                                           final int end
                                          ) {
@@ -0,0 +1,271 @@
+package vertx.effect;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Trampolined run loop that evaluates the instruction tree of a {@link Val}. The nodes are pushed onto an explicit
+ * stack of continuations instead of being nested in callbacks, so that long programs, or programs that loop
+ * recursively (like retries), don't grow the thread stack. Values already known ({@link Val.Pure},
+ * {@link Val.Failure}, {@link Val.Lazy}) and steps that complete synchronously are consumed in place without
+ * allocating any intermediate future, and the loop only suspends (registering itself as the handler of the pending
+ * future) when a step is truly asynchronous.
+ * <p>
+ * An instance is created per execution and is never shared between executions. It keeps the execution of the leaf
+ * it's suspended on, so that cancelling the program interrupts that leaf (see {@link Val.Cancelable}) and stops the
+ * loop. The future of a cancelled program fails with a {@link CancellationException} if it was still pending, and the
+ * pending continuations are unwound with it: the observers ({@link VIO#onComplete(Handler)} and the like) are notified
+ * of the cancellation, so that the resources they release aren't leaked, while maps, thens and recovers are skipped.
+ * The continuations are unwound by whoever takes them first: the thread that cancels the program, if the loop is
+ * suspended, or the loop itself otherwise.
+ *
+ * @param <O> the type of the value produced by the program
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+final class Interpreter<O> implements Handler<AsyncResult<Object>>, Execution<O> {
+
+    private ArrayDeque<Val<?>> frames;
+    private volatile Promise<O> promise;
+    private Future<O> result;
+    private Future<O> future;
+    private volatile Execution<?> running;
+    private volatile boolean cancelled;
+    // true while the loop waits for a step to complete, the one that sets it to false owns the continuations
+    private final AtomicBoolean suspended = new AtomicBoolean(false);
+
+    private Interpreter() {
+    }
+
+    static <O> Future<O> run(final Val<O> program) {
+        return new Interpreter<O>().eval(program);
+    }
+
+    static <O> Interpreter<O> start(final Val<O> program) {
+        Interpreter<O> interpreter = new Interpreter<>();
+        interpreter.future = interpreter.eval(program);
+        return interpreter;
+    }
+
+    @Override
+    public Future<O> future() {
+        return future;
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+        Execution<?> execution = running;
+        if (execution != null) execution.cancel();
+        if (suspended.compareAndSet(true,
+                                    false
+                                   )) unwindCancelled();
+        else {
+            Promise<O> promise = this.promise;
+            if (promise != null) promise.tryFail(new CancellationException("effect cancelled"));
+        }
+    }
+
+    private static void notify(final Handler handler,
+                               final AsyncResult<?> result
+                              ) {
+        try {
+            handler.handle(result);
+        } catch (Throwable t) {
+            // same as vertx: a failing handler doesn't change the result, it's reported to the context
+            Context context = Vertx.currentContext();
+            if (context instanceof ContextInternal internal) internal.reportException(t);
+        }
+    }
+
+    /**
+     * Resumes the loop when a suspended step completes
+     *
+     * @param result the result of the step
+     */
+    @Override
+    public void handle(final AsyncResult<Object> result) {
+        if (!suspended.compareAndSet(true,
+                                     false
+                                    )) return;
+        if (cancelled) unwindCancelled();
+        else unwind(result.succeeded(),
+                    result.result(),
+                    result.cause()
+                   );
+    }
+
+    private Future<O> eval(VIO<?> current) {
+        while (true) {
+            current = descend(current);
+
+            boolean succeeded;
+            Object value = null;
+            Throwable failure = null;
+            if (current instanceof Val.Pure<?> pure) {
+                succeeded = true;
+                value = pure.value;
+            } else if (current instanceof Val.Failure<?> fail) {
+                succeeded = false;
+                failure = fail.failure;
+            } else if (current instanceof Val.Lazy<?> lazy) {
+                try {
+                    value = lazy.supplier.get();
+                    succeeded = true;
+                } catch (Throwable t) {
+                    succeeded = false;
+                    failure = t;
+                }
+            } else {
+                Execution<?> execution = null;
+                Future<?> future;
+                try {
+                    if (current instanceof Val.Cancelable<?> cancelable) execution = cancelable.execute();
+                    else if (current instanceof Exp<?> exp) execution = exp.execute();
+                    future = execution == null ? current.get() : execution.future();
+                } catch (Throwable t) {
+                    future = Future.failedFuture(t);
+                }
+
+                boolean last = frames == null || frames.isEmpty();
+                if (execution != null) running = execution;
+                if (last && promise == null) return (Future<O>) future;
+                if (last || !future.isComplete()) {
+                    if (promise == null) promise = Promise.promise();
+                    // suspended is set before reading cancelled, and cancel does the opposite, so one of them
+                    // always sees the other and the continuations are unwound only once
+                    suspended.set(true);
+                    if (cancelled) {
+                        if (execution != null) execution.cancel();
+                        if (suspended.compareAndSet(true,
+                                                    false
+                                                   )) unwindCancelled();
+                    } else ((Future<Object>) future).onComplete(this);
+                    return promise.future();
+                }
+
+                succeeded = future.succeeded();
+                value = future.result();
+                failure = future.cause();
+            }
+
+            current = next(succeeded,
+                           value,
+                           failure
+                          );
+            if (current == null) return promise == null ? result : promise.future();
+        }
+    }
+
+    private void unwind(final boolean succeeded,
+                        final Object value,
+                        final Throwable failure
+                       ) {
+        VIO<?> current = next(succeeded,
+                              value,
+                              failure
+                             );
+        if (current == null) return;
+        if (cancelled) unwindCancelled();
+        else eval(current);
+    }
+
+    /**
+     * Pops the pending continuations after the program is cancelled, notifying the observers of the cancellation and
+     * skipping the rest, and fails the promise
+     */
+    private void unwindCancelled() {
+        CancellationException cancellation = new CancellationException("effect cancelled");
+        Val<?> frame;
+        while (frames != null && (frame = frames.poll()) != null)
+            if (frame instanceof Val.Observe observe)
+                notify(observe.handler,
+                       Future.failedFuture(cancellation)
+                      );
+        promise.tryFail(cancellation);
+    }
+
+    /**
+     * Pushes the continuations of the tree until reaching a leaf
+     *
+     * @param current the root of the (sub)tree
+     * @return the leaf
+     */
+    private VIO<?> descend(VIO<?> current) {
+        while (true) {
+            VIO<?> source;
+            if (current instanceof Val.Map<?> map) source = map.source;
+            else if (current instanceof Val.FlatMap<?, ?> flatMap) source = flatMap.source;
+            else if (current instanceof Val.Attempt<?, ?> attempt) source = attempt.source;
+            else if (current instanceof Val.Recover<?> recover) source = recover.source;
+            else if (current instanceof Val.Observe<?> observe) source = observe.source;
+            else return current;
+
+            if (frames == null) frames = new ArrayDeque<>();
+            frames.push((Val<?>) current);
+            current = source;
+        }
+    }
+
+    /**
+     * Pops continuations applying the result until one of them returns a new effect to be evaluated or the stack is
+     * empty. Pure maps are applied in place.
+     *
+     * @return the next effect to be evaluated or null if the program is completed, in which case the promise (or the
+     * result if the loop never suspended) is completed too
+     */
+    private VIO<?> next(boolean succeeded,
+                        Object value,
+                        Throwable failure
+                       ) {
+        Val<?> frame;
+        while (frames != null && (frame = frames.poll()) != null) {
+            try {
+                if (succeeded) {
+                    if (frame instanceof Val.Map<?> map) value = map.apply(value);
+                    else if (frame instanceof Val.FlatMap flatMap) return (VIO<?>) flatMap.lambda.apply(value);
+                    else if (frame instanceof Val.Attempt attempt) return (VIO<?>) attempt.success.apply(value);
+                    else if (frame instanceof Val.Observe observe)
+                        notify(observe.handler,
+                               Future.succeededFuture(value)
+                              );
+                } else {
+                    if (frame instanceof Val.Recover recover) return (VIO<?>) recover.lambda.apply(failure);
+                    else if (frame instanceof Val.Attempt attempt) return (VIO<?>) attempt.failure.apply(failure);
+                    else if (frame instanceof Val.Observe observe)
+                        notify(observe.handler,
+                               Future.failedFuture(failure)
+                              );
+                }
+            } catch (Throwable t) {
+                succeeded = false;
+                value = null;
+                failure = t;
+            }
+        }
+        complete(succeeded,
+                 (O) value,
+                 failure
+                );
+        return null;
+    }
+
+    private void complete(final boolean succeeded,
+                          final O value,
+                          final Throwable failure
+                         ) {
+        if (promise == null) result = succeeded ? Future.succeededFuture(value) : Future.failedFuture(failure);
+        else if (succeeded) promise.tryComplete(value);
+        else promise.tryFail(failure);
+    }
+
+}
@@ -0,0 +1,257 @@
+package vertx.effect;
+
+import io.vertx.core.eventbus.ReplyException;
+import jdk.jfr.*;
+import jdk.jfr.Event;
+
+import java.time.Duration;
+
+/**
+ * JFR events of the lifecycle of the verticles, emitted by {@link EventPublisher}. Unlike the events published to the
+ * event bus, they are only built if a recording is enabled for them, so they can be left on in production. Record them
+ * with {@code -XX:StartFlightRecording} or JDK Mission Control, where the service time of the messages replied can be
+ * grouped by address.
+ *
+ * @see HttpReqEvent
+ */
+final class JfrEvents {
+
+    private static final String CATEGORY = "vertx.effect";
+
+    private JfrEvents() {
+    }
+
+    static void messageSent(final String address) {
+        MessageSent event = new MessageSent();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.commit();
+        }
+    }
+
+    static void messageReceived(final String address) {
+        MessageReceived event = new MessageReceived();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.commit();
+        }
+    }
+
+    static void messageReplied(final String address,
+                               final long received
+                              ) {
+        MessageReplied event = new MessageReplied();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.serviceTime = serviceTime(received);
+            event.commit();
+        }
+    }
+
+    static void failureReplied(final String address,
+                               final ReplyException failure,
+                               final long received
+                              ) {
+        FailureReplied event = new FailureReplied();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.failureType = failure.failureType()
+                                       .name();
+            event.failureCode = failure.failureCode();
+            event.failureMessage = failure.getMessage();
+            event.serviceTime = serviceTime(received);
+            event.commit();
+        }
+    }
+
+    static void verticleDeployed(final String address,
+                                 final String id
+                                ) {
+        VerticleDeployed event = new VerticleDeployed();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.id = id;
+            event.commit();
+        }
+    }
+
+    static void verticleUndeployed(final String address) {
+        VerticleUndeployed event = new VerticleUndeployed();
+        if (event.shouldCommit()) {
+            event.address = address;
+            event.commit();
+        }
+    }
+
+    static void timerStarted(final Duration delay) {
+        TimerStarted event = new TimerStarted();
+        if (event.shouldCommit()) {
+            event.delay = delay.toMillis();
+            event.commit();
+        }
+    }
+
+    static void timerEnded(final Duration delay) {
+        TimerEnded event = new TimerEnded();
+        if (event.shouldCommit()) {
+            event.delay = delay.toMillis();
+            event.commit();
+        }
+    }
+
+    static void retryAttempt(final Throwable failure,
+                             final RetryStatus status,
+                             final Delay delay
+                            ) {
+        RetryAttempt event = new RetryAttempt();
+        if (event.shouldCommit()) {
+            event.attempt = status.counter + 1;
+            event.delay = delay.duration.toMillis();
+            event.cumulativeDelay = status.cumulativeDelay;
+            event.exceptionClass = failure.getClass()
+                                          .getCanonicalName();
+            event.exceptionMessage = failure.getMessage();
+            if (failure instanceof ReplyException replyException)
+                event.failureCode = replyException.failureCode();
+            event.commit();
+        }
+    }
+
+    /**
+     * @param received the value of {@link System#nanoTime()} when the message was received, or zero if unknown
+     */
+    private static long serviceTime(final long received) {
+        return received == 0 ? 0 : System.nanoTime() - received;
+    }
+
+    @Label("message sent")
+    @Name("vertx.effect.MessageSent")
+    @Category(CATEGORY)
+    @Description("Message sent to a verticle.")
+    @StackTrace(value = false)
+    static final class MessageSent extends Event {
+        @Label("address")
+        String address;
+    }
+
+    @Label("message received")
+    @Name("vertx.effect.MessageReceived")
+    @Category(CATEGORY)
+    @Description("Message received by a verticle.")
+    @StackTrace(value = false)
+    static final class MessageReceived extends Event {
+        @Label("address")
+        String address;
+    }
+
+    @Label("message replied")
+    @Name("vertx.effect.MessageReplied")
+    @Category(CATEGORY)
+    @Description("Response replied by a verticle, with the time since the message was received.")
+    @StackTrace(value = false)
+    static final class MessageReplied extends Event {
+        @Label("address")
+        String address;
+
+        @Label("service_time")
+        @Description("Time since the message was received, or zero if unknown")
+        @Timespan
+        long serviceTime;
+    }
+
+    @Label("failure replied")
+    @Name("vertx.effect.FailureReplied")
+    @Category(CATEGORY)
+    @Description("Failure replied by a verticle, with the time since the message was received.")
+    @StackTrace(value = false)
+    static final class FailureReplied extends Event {
+        @Label("address")
+        String address;
+
+        @Label("failure_type")
+        String failureType;
+
+        @Label("failure_code")
+        int failureCode;
+
+        @Label("failure_message")
+        String failureMessage;
+
+        @Label("service_time")
+        @Description("Time since the message was received, or zero if unknown")
+        @Timespan
+        long serviceTime;
+    }
+
+    @Label("verticle deployed")
+    @Name("vertx.effect.VerticleDeployed")
+    @Category(CATEGORY)
+    @Description("Verticle deployed on an address, or the class of the verticle if it doesn't listen on one.")
+    @StackTrace(value = false)
+    static final class VerticleDeployed extends Event {
+        @Label("address")
+        String address;
+
+        @Label("id")
+        String id;
+    }
+
+    @Label("verticle undeployed")
+    @Name("vertx.effect.VerticleUndeployed")
+    @Category(CATEGORY)
+    @Description("Verticle undeployed.")
+    @StackTrace(value = false)
+    static final class VerticleUndeployed extends Event {
+        @Label("address")
+        String address;
+    }
+
+    @Label("timer started")
+    @Name("vertx.effect.TimerStarted")
+    @Category(CATEGORY)
+    @Description("Timer of a delay started.")
+    @StackTrace(value = false)
+    static final class TimerStarted extends Event {
+        @Label("delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long delay;
+    }
+
+    @Label("timer ended")
+    @Name("vertx.effect.TimerEnded")
+    @Category(CATEGORY)
+    @Description("Timer of a delay fired.")
+    @StackTrace(value = false)
+    static final class TimerEnded extends Event {
+        @Label("delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long delay;
+    }
+
+    @Label("retry attempt")
+    @Name("vertx.effect.RetryAttempt")
+    @Category(CATEGORY)
+    @Description("Retry of a failed effect scheduled by a retry policy.")
+    @StackTrace(value = false)
+    static final class RetryAttempt extends Event {
+        @Label("attempt")
+        int attempt;
+
+        @Label("delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long delay;
+
+        @Label("cumulative_delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long cumulativeDelay;
+
+        @Label("exception_class")
+        String exceptionClass;
+
+        @Label("exception_message")
+        String exceptionMessage;
+
+        @Label("failure_code")
+        int failureCode;
+    }
+}
@@ -3,6 +3,7 @@ package vertx.effect;
 import jsonvalues.JsObj;
 import jsonvalues.JsValue;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -1565,6 +1566,16 @@ public abstract sealed class JsObjExp extends Exp<JsObj> permits JsObjExpPar, Js
         return obj;
     }
 
+    /**
+     * Bounds the effect of every key in time (see {@link VIO#timeout(Duration)}), the counterpart of
+     * {@link #retryEach(RetryPolicy)}. The effects that time out are cancelled and the expression fails with a
+     * {@link java.util.concurrent.TimeoutException}.
+     *
+     * @param duration the max time the effect of every key can take
+     * @return a new expression
+     */
+    public abstract VIO<JsObj> timeoutEach(final Duration duration);
+
     public abstract JsObjExp set(final String key,
                                  final VIO<? extends JsValue> val
                                 );
@@ -5,6 +5,7 @@ import io.vertx.core.Future;
 import jsonvalues.JsObj;
 import jsonvalues.JsValue;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -101,4 +102,14 @@ final class JsObjExpPar extends JsObjExp {
 
     }
 
+    @Override
+    public VIO<JsObj> timeoutEach(final Duration duration) {
+        Objects.requireNonNull(duration);
+        Map<String, VIO<? extends JsValue>> map = new LinkedHashMap<>();
+        bindings.forEach((key, exp) -> map.put(key,
+                                               exp.timeout(duration)
+                                              ));
+        return new JsObjExpPar(map);
+    }
+
 }
@@ -5,6 +5,7 @@ import io.vertx.core.Future;
 import jsonvalues.JsObj;
 import jsonvalues.JsValue;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -91,5 +92,14 @@ final class JsObjExpSeq extends JsObjExp {
         );
     }
 
+    @Override
+    public VIO<JsObj> timeoutEach(final Duration duration) {
+        Objects.requireNonNull(duration);
+        Map<String, VIO<? extends JsValue>> map = new LinkedHashMap<>();
+        bindings.forEach((key, exp) -> map.put(key,
+                                               exp.timeout(duration)
+                                              ));
+        return new JsObjExpSeq(map);
+    }
 
 }
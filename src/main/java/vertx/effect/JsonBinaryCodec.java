@@ -0,0 +1,364 @@
+package vertx.effect;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageCodec;
+import jsonvalues.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary codec for JsObj and JsArray, more compact and faster to encode and decode than JSON text. Messages are
+ * passed by reference to local consumers, like with the rest of codecs registered by {@link VertxRef}, so the binary
+ * format only matters when they are sent to other nodes of a cluster. It's selected per message setting its name in
+ * the delivery options:
+ *
+ * <pre>{@code
+ * ref.ask(new DeliveryOptions().setCodecName(JsonBinaryCodec.NAME))
+ * }</pre>
+ * <p>
+ * or for every JsObj and JsArray sent by a Vertx instance with {@link VertxRef#useBinaryJsonCodec()}.
+ * <p>
+ * Every value is written as a one byte tag followed by its content, in a tag-length-value format:
+ * <ul>
+ *     <li>null, true and false: just the tag</li>
+ *     <li>int and long: zigzag varint, so that small numbers take one or two bytes</li>
+ *     <li>double: the 8 bytes of the IEEE 754 representation</li>
+ *     <li>big decimal: the scale as a zigzag varint, followed by the unscaled value as a big integer</li>
+ *     <li>big integer and binary: the length as a varint followed by the bytes</li>
+ *     <li>string: the length of the UTF-8 bytes as a varint followed by the bytes</li>
+ *     <li>instant: the epoch seconds as a zigzag varint followed by the nanos as a varint</li>
+ *     <li>array: the number of elements as a varint followed by the elements</li>
+ *     <li>object: the number of keys as a varint followed by the pairs key-value</li>
+ * </ul>
+ * Keys are interned per message: the first occurrence of a key is written as a zero followed by the string, and the
+ * following ones just as its position among the keys of the message plus one, so arrays of objects with the same
+ * keys don't repeat them. Contrary to JSON text, the type of every value is preserved, including instants and binary
+ * data.
+ */
+public final class JsonBinaryCodec implements MessageCodec<Json<?>, Json<?>> {
+
+    /**
+     * name of the codec to set in the {@link DeliveryOptions} of a message
+     */
+    public static final String NAME = "vertx-effect-json-binary";
+
+    public static final JsonBinaryCodec INSTANCE = new JsonBinaryCodec();
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BIG_DEC = 6;
+    private static final byte BIG_INT = 7;
+    private static final byte STR = 8;
+    private static final byte INSTANT = 9;
+    private static final byte BINARY = 10;
+    private static final byte ARRAY = 11;
+    private static final byte OBJ = 12;
+
+    private JsonBinaryCodec() {
+    }
+
+    @Override
+    public void encodeToWire(final Buffer buffer,
+                             final Json<?> json
+                            ) {
+        Writer writer = new Writer();
+        writer.write(json);
+        buffer.appendBytes(writer.bytes,
+                           0,
+                           writer.count
+                          );
+    }
+
+    @Override
+    public Json<?> decodeFromWire(final int pos,
+                                  final Buffer buffer
+                                 ) {
+        // copying the rest of the buffer once is cheaper than reading it byte by byte
+        JsValue value = new Reader(buffer.getBytes(pos,
+                                                   buffer.length()
+                                                  )).read();
+        if (value.isJson()) return value.toJson();
+        throw new IllegalArgumentException("the message is not a JsObj nor a JsArray");
+    }
+
+    @Override
+    public Json<?> transform(final Json<?> json) {
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+
+    private static final class Writer {
+
+        private byte[] bytes = new byte[128];
+        private int count;
+        private Map<String, Integer> keys;
+
+        void write(final JsValue value) {
+            switch (value) {
+                case JsObj obj -> writeObj(obj);
+                case JsArray array -> writeArray(array);
+                case JsStr str -> {
+                    writeByte(STR);
+                    writeUtf8(str.value);
+                }
+                case JsInt n -> {
+                    writeByte(INT);
+                    writeVarint(zigzag(n.value));
+                }
+                case JsLong n -> {
+                    writeByte(LONG);
+                    writeVarint(zigzag(n.value));
+                }
+                case JsDouble n -> {
+                    writeByte(DOUBLE);
+                    writeLong(Double.doubleToRawLongBits(n.value));
+                }
+                case JsBool bool -> writeByte(bool.value ? TRUE : FALSE);
+                case JsNull nil -> writeByte(NULL);
+                case JsBigDec n -> {
+                    writeByte(BIG_DEC);
+                    writeVarint(zigzag(n.value.scale()));
+                    writeBytes(n.value.unscaledValue()
+                                      .toByteArray());
+                }
+                case JsBigInt n -> {
+                    writeByte(BIG_INT);
+                    writeBytes(n.value.toByteArray());
+                }
+                case JsInstant instant -> {
+                    writeByte(INSTANT);
+                    writeVarint(zigzag(instant.value.getEpochSecond()));
+                    writeVarint(instant.value.getNano());
+                }
+                case JsBinary binary -> {
+                    writeByte(BINARY);
+                    writeBytes(binary.value);
+                }
+                default -> throw new IllegalArgumentException("value not supported: " + value);
+            }
+        }
+
+        private void writeObj(final JsObj obj) {
+            writeByte(OBJ);
+            writeVarint(obj.size());
+            for (JsObjPair pair : obj) {
+                writeKey(pair.key());
+                write(pair.value());
+            }
+        }
+
+        private void writeArray(final JsArray array) {
+            writeByte(ARRAY);
+            writeVarint(array.size());
+            for (JsValue value : array) write(value);
+        }
+
+        private void writeKey(final String key) {
+            if (keys == null) keys = new HashMap<>();
+            Integer id = keys.putIfAbsent(key,
+                                          keys.size()
+                                         );
+            if (id != null) writeVarint(id + 1L);
+            else {
+                writeVarint(0);
+                writeUtf8(key);
+            }
+        }
+
+        private void writeUtf8(final String str) {
+            int length = str.length();
+            // most strings are ASCII, and their chars are written without encoding them into a new array
+            if (length < 128) {
+                ensureCapacity(length + 1);
+                int start = count;
+                bytes[count++] = (byte) length;
+                for (int i = 0; i < length; i++) {
+                    char c = str.charAt(i);
+                    if (c >= 0x80) {
+                        count = start;
+                        writeBytes(str.getBytes(StandardCharsets.UTF_8));
+                        return;
+                    }
+                    bytes[count++] = (byte) c;
+                }
+                return;
+            }
+            writeBytes(str.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBytes(final byte[] value) {
+            writeVarint(value.length);
+            ensureCapacity(value.length);
+            System.arraycopy(value,
+                             0,
+                             bytes,
+                             count,
+                             value.length
+                            );
+            count += value.length;
+        }
+
+        private void writeByte(final byte b) {
+            ensureCapacity(1);
+            bytes[count++] = b;
+        }
+
+        private void writeLong(final long n) {
+            ensureCapacity(Long.BYTES);
+            for (int shift = 56; shift >= 0; shift -= 8) bytes[count++] = (byte) (n >>> shift);
+        }
+
+        private void writeVarint(long n) {
+            ensureCapacity(10);
+            while ((n & ~0x7FL) != 0) {
+                bytes[count++] = (byte) ((n & 0x7F) | 0x80);
+                n >>>= 7;
+            }
+            bytes[count++] = (byte) n;
+        }
+
+        private void ensureCapacity(final int n) {
+            if (count + n > bytes.length) bytes = Arrays.copyOf(bytes,
+                                                                Math.max(bytes.length * 2,
+                                                                         count + n
+                                                                        )
+                                                               );
+        }
+
+        private static long zigzag(final long n) {
+            return (n << 1) ^ (n >> 63);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int pos;
+        private List<String> keys;
+
+        Reader(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        JsValue read() {
+            byte tag = bytes[pos++];
+            return switch (tag) {
+                case NULL -> JsNull.NULL;
+                case FALSE -> JsBool.FALSE;
+                case TRUE -> JsBool.TRUE;
+                case INT -> JsInt.of((int) unzigzag(readVarint()));
+                case LONG -> JsLong.of(unzigzag(readVarint()));
+                case DOUBLE -> JsDouble.of(Double.longBitsToDouble(readLong()));
+                case BIG_DEC -> {
+                    int scale = (int) unzigzag(readVarint());
+                    yield JsBigDec.of(new BigDecimal(new BigInteger(readBytes()),
+                                                     scale
+                    ));
+                }
+                case BIG_INT -> JsBigInt.of(new BigInteger(readBytes()));
+                case STR -> JsStr.of(readUtf8());
+                case INSTANT -> {
+                    long seconds = unzigzag(readVarint());
+                    yield JsInstant.of(Instant.ofEpochSecond(seconds,
+                                                             readVarint()
+                                                            ));
+                }
+                case BINARY -> JsBinary.of(readBytes());
+                case ARRAY -> readArray();
+                case OBJ -> readObj();
+                default -> throw new IllegalArgumentException("unknown tag " + tag + " at position " + (pos - 1));
+            };
+        }
+
+        private JsObj readObj() {
+            int size = (int) readVarint();
+            JsObj obj = JsObj.empty();
+            for (int i = 0; i < size; i++) {
+                String key = readKey();
+                obj = obj.set(key,
+                              read()
+                             );
+            }
+            return obj;
+        }
+
+        private JsArray readArray() {
+            int size = (int) readVarint();
+            List<JsValue> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) values.add(read());
+            return JsArray.ofIterable(values);
+        }
+
+        private String readKey() {
+            if (keys == null) keys = new ArrayList<>();
+            int id = (int) readVarint();
+            if (id > 0) return keys.get(id - 1);
+            String key = readUtf8();
+            keys.add(key);
+            return key;
+        }
+
+        private String readUtf8() {
+            int length = (int) readVarint();
+            String str = new String(bytes,
+                                    pos,
+                                    length,
+                                    StandardCharsets.UTF_8
+            );
+            pos += length;
+            return str;
+        }
+
+        private byte[] readBytes() {
+            int length = (int) readVarint();
+            byte[] value = Arrays.copyOfRange(bytes,
+                                              pos,
+                                              pos + length
+                                             );
+            pos += length;
+            return value;
+        }
+
+        private long readLong() {
+            long n = 0;
+            for (int i = 0; i < Long.BYTES; i++) n = (n << 8) | (bytes[pos++] & 0xFF);
+            return n;
+        }
+
+        private long readVarint() {
+            long n = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[pos++];
+                n |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return n;
+            }
+            throw new IllegalArgumentException("malformed varint at position " + pos);
+        }
+
+        private static long unzigzag(final long n) {
+            return (n >>> 1) ^ -(n & 1);
+        }
+    }
+}
@@ -27,5 +27,24 @@ public interface Lambda<I, O> extends Function<I, VIO<O>> {
         return i -> map.apply(this.apply(i));
     }
 
+    /**
+     * Returns a lambda whose effects are hedged
+     *
+     * @param after     the delay after which a new copy of the effect is started
+     * @param maxCopies the max number of copies of the effect executed at the same time
+     * @return a new lambda
+     * @see VIO#hedge(Delay, int)
+     */
+    default Lambda<I, O> hedge(final Delay after,
+                               final int maxCopies
+                              ) {
+        requireNonNull(after);
+        if (maxCopies < 1) throw new IllegalArgumentException("maxCopies < 1");
+        return i -> this.apply(i)
+                        .hedge(after,
+                               maxCopies
+                              );
+    }
+
 
 }
@@ -0,0 +1,70 @@
+package vertx.effect;
+
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Factory methods that decorate lambdas.
+ */
+public final class Lambdas {
+
+    private Lambdas() {
+    }
+
+    /**
+     * returns a lambda that caches the results of the given one by input, which must be an idempotent lookup. The cache
+     * keeps at most maxSize results, evicting the least recently used ones, for the given ttl. Concurrent calls with the
+     * same input share the same in-flight effect, and failures are not cached.
+     *
+     * @param lambda  the lambda
+     * @param maxSize the max number of results cached
+     * @param ttl     the time a result is cached for
+     * @param <I>     the type of the input
+     * @param <O>     the type of the output
+     * @return a cached lambda that exposes the hit and miss counters of the cache
+     */
+    public static <I, O> CachedLambda<I, O> cached(final Lambda<I, O> lambda,
+                                                   final int maxSize,
+                                                   final Duration ttl
+                                                  ) {
+        requireNonNull(lambda);
+        requireNonNull(ttl);
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize <= 0");
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl <= 0");
+        return new CachedLambda<>(lambda,
+                                  maxSize,
+                                  ttl.toNanos()
+        );
+    }
+
+    /**
+     * returns a lambda that buffers its inputs and sends them in batches to the given lambda, which processes lists of
+     * inputs and returns a list with an output per input, in the same order. A batch is sent when it has maxItems inputs
+     * or when maxDelay has elapsed since its first input was buffered. A maxDelay of less than a millisecond sends the
+     * batch once the current task of the Vertx context is done (or right away outside a Vertx context). The batch lambda is typically the ask of a verticle
+     * deployed with {@link VertxRef#deployBatch(String, Lambda)}, so that many small requests travel as one message.
+     *
+     * @param lambda   the lambda that processes the batches
+     * @param maxItems the max number of inputs of a batch
+     * @param maxDelay the max time an input waits for the batch to be sent
+     * @param <I>      the type of the input
+     * @param <O>      the type of the output
+     * @return a batching lambda, that must be created once and shared by the callers
+     */
+    public static <I, O> Lambda<I, O> batched(final Lambda<List<I>, List<O>> lambda,
+                                              final int maxItems,
+                                              final Duration maxDelay
+                                             ) {
+        requireNonNull(lambda);
+        requireNonNull(maxDelay);
+        if (maxItems <= 0) throw new IllegalArgumentException("maxItems <= 0");
+        if (maxDelay.isNegative()) throw new IllegalArgumentException("maxDelay < 0");
+        return new BatchingLambda<>(lambda,
+                                    maxItems,
+                                    maxDelay
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package vertx.effect;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with buckets of logarithmic size like HdrHistogram: every power of
+ * two is divided into 32 linear sub-buckets, so a recorded value is off by at most 1/32 (about 3%) of itself, and the
+ * whole range up to 2^44 nanoseconds (almost five hours) fits in a fixed number of buckets. Greater values are counted
+ * in the last one. The counters are striped by thread, so the event loops that record values at the same time don't
+ * contend for the same cache lines: every thread is assigned a stripe round-robin the first time it records a value in
+ * any histogram, so the first threads, like the event loops, get a stripe each as long as there are no more threads
+ * than stripes. A stripe is allocated the first time a thread assigned to it records a value.
+ *
+ * @see LatencySnapshot
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 43;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int FAILURES = BUCKETS + 2;
+    private static final int STRIPES =
+            Math.min(64,
+                     Integer.highestOneBit(Math.max(1,
+                                                    2 * Runtime.getRuntime()
+                                                               .availableProcessors() - 1
+                                                   )) << 1
+                    );
+
+    private static final AtomicInteger NEXT_STRIPE = new AtomicInteger();
+    private static final ThreadLocal<Integer> STRIPE =
+            ThreadLocal.withInitial(() -> NEXT_STRIPE.getAndIncrement() & (STRIPES - 1));
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+    /**
+     * @param nanos  the latency, negative values are recorded as zero
+     * @param failed true if the message was replied with a failure
+     */
+    void record(final long nanos,
+                final boolean failed
+               ) {
+        final long value = Math.min(Math.max(nanos,
+                                             0
+                                            ),
+                                    MAX_VALUE
+                                   );
+        final AtomicLongArray stripe = stripe();
+        stripe.incrementAndGet(index(value));
+        stripe.addAndGet(SUM,
+                         value
+                        );
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX,
+                                                    max,
+                                                    value
+                                                   ))
+            max = stripe.get(MAX);
+        if (failed) stripe.incrementAndGet(FAILURES);
+    }
+
+    /**
+     * Returns the sum of all the stripes. Values recorded while the snapshot is taken may or may not be included.
+     */
+    LatencySnapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long sum = 0, max = 0, failures = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            final AtomicLongArray stripe = stripes.get(i);
+            if (stripe == null) continue;
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+                counts[bucket] += stripe.get(bucket);
+            sum += stripe.get(SUM);
+            max = Math.max(max,
+                           stripe.get(MAX)
+                          );
+            failures += stripe.get(FAILURES);
+        }
+        return new LatencySnapshot(counts,
+                                   sum,
+                                   max,
+                                   failures
+        );
+    }
+
+    private AtomicLongArray stripe() {
+        final int i = STRIPE.get();
+        final AtomicLongArray stripe = stripes.get(i);
+        if (stripe != null) return stripe;
+        stripes.compareAndSet(i,
+                              null,
+                              new AtomicLongArray(BUCKETS + 3)
+                             );
+        return stripes.get(i);
+    }
+
+    /**
+     * values lower than 64 have their own bucket. Otherwise, the bucket is given by the position of the highest bit,
+     * and the sub-bucket by the next five bits.
+     */
+    static int index(final long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the highest value that is counted in the given bucket.
+     */
+    static long highestValue(final int index) {
+        if (index < 2 * SUB_BUCKETS) return index;
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long subBucket = (long) (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
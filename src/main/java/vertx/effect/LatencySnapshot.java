@@ -0,0 +1,121 @@
+package vertx.effect;
+
+import java.time.Duration;
+
+/**
+ * Immutable copy of a histogram of latencies taken at some point in time, with the number of messages replied, how
+ * many of them were failures, and the distribution of their latencies. Percentiles are reported as the highest value
+ * of the bucket where they fall, so they are off by at most 3%, and never greater than the max.
+ *
+ * @see VertxRef#metrics()
+ */
+public final class LatencySnapshot {
+
+    static final LatencySnapshot EMPTY = new LatencySnapshot(new long[LatencyHistogram.BUCKETS],
+                                                             0,
+                                                             0,
+                                                             0
+    );
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long failures;
+
+    LatencySnapshot(final long[] counts,
+                    final long sum,
+                    final long max,
+                    final long failures
+                   ) {
+        this.counts = counts;
+        long count = 0;
+        for (long n : counts) count += n;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.failures = failures;
+    }
+
+    /**
+     * Returns the number of latencies recorded, successful or not.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the number of latencies recorded for failures.
+     */
+    public long failures() {
+        return failures;
+    }
+
+    /**
+     * Returns the sum of all the latencies recorded.
+     */
+    public Duration total() {
+        return Duration.ofNanos(sum);
+    }
+
+    /**
+     * Returns the mean of the latencies, or zero if none was recorded.
+     */
+    public Duration mean() {
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(sum / count);
+    }
+
+    /**
+     * Returns the greatest latency recorded, or zero if none was recorded.
+     */
+    public Duration max() {
+        return Duration.ofNanos(max);
+    }
+
+    /**
+     * Returns the latency below which the given fraction of the latencies fall, for example 0.99 for the p99.
+     *
+     * @param quantile a number from 0 to 1
+     * @return the latency, or zero if none was recorded
+     * @throws IllegalArgumentException if the quantile is not between 0 and 1
+     */
+    public Duration percentile(final double quantile) {
+        if (!(quantile >= 0 && quantile <= 1))
+            throw new IllegalArgumentException("quantile not in [0,1]: " + quantile);
+        if (count == 0) return Duration.ZERO;
+        final long rank = Math.max(1,
+                                   (long) Math.ceil(quantile * count)
+                                  );
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Duration.ofNanos(Math.min(LatencyHistogram.highestValue(i),
+                                                               max
+                                                              ));
+        }
+        return Duration.ofNanos(max);
+    }
+
+    /**
+     * Returns the number of latencies lower than the given bound, which must be a power of two, since those are bounds
+     * of the buckets and the count is exact.
+     */
+    long countBelow(final long bound) {
+        long below = 0;
+        for (int i = 0; i < counts.length && LatencyHistogram.highestValue(i) < bound; i++)
+            below += counts[i];
+        return below;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(count=%s,failures=%s,mean=%s,p50=%s,p99=%s,max=%s)",
+                             count,
+                             failures,
+                             mean(),
+                             percentile(0.5),
+                             percentile(0.99),
+                             max()
+                            );
+    }
+}
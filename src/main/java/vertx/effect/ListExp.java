@@ -31,6 +31,29 @@ public abstract sealed class ListExp<O> extends Exp<List<O>> permits ListExpPar,
         return new ListExpPar<>(exp);
     }
 
+    /**
+     * Like {@link #par(VIO[])} but keeping at most maxConcurrency effects in flight: the next effect is started as
+     * soon as one completes. The results keep the order of the given effects, and the first failure fails the
+     * expression without starting the remaining effects.
+     *
+     * @param maxConcurrency the max number of effects executed at the same time
+     * @param others         the effects
+     * @param <O>            the type of the values produced by the effects
+     * @return a parallel ListExp with bounded concurrency
+     */
+    @SuppressWarnings("unchecked")
+    @SafeVarargs
+    public static <O> ListExp<O> par(final int maxConcurrency,
+                                     final VIO<O>... others
+                                    ) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency < 1");
+        List<VIO<? extends O>> exp = new ArrayList<>();
+        for (final VIO<O> other : requireNonNull(others)) exp.add(requireNonNull(other));
+        return new ListExpPar<>(exp,
+                                maxConcurrency
+        );
+    }
+
     @SuppressWarnings("unchecked")
     public VIO<O> head() {
         return (VIO<O>) seq.get(0);
@@ -1,12 +1,16 @@
 package vertx.effect;
 
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -15,12 +19,27 @@ import static java.util.Objects.requireNonNull;
 
 final class ListExpPar<O> extends ListExp<O> {
 
+    /**
+     * max number of effects in flight. Integer.MAX_VALUE means no limit
+     */
+    final int maxConcurrency;
+
     ListExpPar(List<VIO<? extends O>> seq) {
+        this(seq,
+             Integer.MAX_VALUE
+            );
+    }
+
+    ListExpPar(List<VIO<? extends O>> seq,
+               int maxConcurrency
+              ) {
         super(seq);
+        this.maxConcurrency = maxConcurrency;
     }
 
     ListExpPar() {
         super(new ArrayList<>());
+        this.maxConcurrency = Integer.MAX_VALUE;
     }
 
     @Override
@@ -39,13 +58,17 @@ final class ListExpPar<O> extends ListExp<O> {
         Objects.requireNonNull(predicate);
         return new ListExpPar<>(seq.stream()
                                    .map(it -> it.retry(predicate, policy))
-                                   .collect(Collectors.toList())
+                                   .collect(Collectors.toList()),
+                                maxConcurrency
         );
     }
 
 
     @Override
     public Future<List<O>> get() {
+        if (seq.size() > maxConcurrency) return new Bounded<>(seq,
+                                                              maxConcurrency
+        ).run();
         return Future.all(seq.stream()
                              .map(Supplier::get)
                              .collect(Collectors.toList()))
@@ -55,14 +78,18 @@ final class ListExpPar<O> extends ListExp<O> {
 
     @Override
     public ListExp<O> append(final VIO<? extends O> exp) {
-        var xs = new ListExpPar<>(seq);
+        var xs = new ListExpPar<>(seq,
+                                  maxConcurrency
+        );
         xs.seq.add(requireNonNull(exp));
         return xs;
     }
 
     @Override
     public ListExp<O> prepend(final VIO<? extends O> exp) {
-        var xs = new ListExpPar<>(seq);
+        var xs = new ListExpPar<>(seq,
+                                  maxConcurrency
+        );
         xs.seq.add(0, exp);
         return xs;
     }
@@ -71,7 +98,86 @@ final class ListExpPar<O> extends ListExp<O> {
     @Override
     public ListExp<O> tail() {
 
-        return new ListExpPar<>(new ArrayList<>(seq.subList(1, seq.size())));
+        return new ListExpPar<>(new ArrayList<>(seq.subList(1, seq.size())),
+                                maxConcurrency
+        );
+    }
+
+    /**
+     * Executes the effects keeping at most maxConcurrency of them in flight: a new effect is started every time one
+     * completes, in the order of the list. Results are stored at the index of their effect, so the output keeps the
+     * input order no matter the order of completion. The first failure fails the whole execution, and no more effects
+     * are started from then on (the ones in flight are not cancelled). Effects that complete synchronously are consumed
+     * in a loop, so that long lists of them don't grow the stack.
+     */
+    private static final class Bounded<O> {
+        private final List<VIO<? extends O>> seq;
+        private final int maxConcurrency;
+        private final List<O> results;
+        private final AtomicInteger next = new AtomicInteger(0);
+        private final AtomicInteger pending;
+        private final Promise<List<O>> promise = Promise.promise();
+        private volatile boolean failed;
+
+        Bounded(final List<VIO<? extends O>> seq,
+                final int maxConcurrency
+               ) {
+            this.seq = seq;
+            this.maxConcurrency = maxConcurrency;
+            this.results = new ArrayList<>(Collections.nCopies(seq.size(),
+                                                             null
+                                                            ));
+            this.pending = new AtomicInteger(seq.size());
+        }
+
+        Future<List<O>> run() {
+            for (int i = 0; i < maxConcurrency && !failed; i++) startNext();
+            return promise.future();
+        }
+
+        private void startNext() {
+            int index;
+            while (!failed && (index = next.getAndIncrement()) < results.size()) {
+                Future<? extends O> future;
+                try {
+                    future = seq.get(index)
+                                .get();
+                } catch (Exception e) {
+                    future = Future.failedFuture(e);
+                }
+                if (!future.isComplete()) {
+                    final int i = index;
+                    future.onComplete(result -> {
+                        if (complete(i,
+                                     result
+                                    )) startNext();
+                    });
+                    return;
+                }
+                if (!complete(index,
+                              future
+                             )) return;
+            }
+        }
+
+        /**
+         * @return true if more effects can be started
+         */
+        private boolean complete(final int index,
+                                 final AsyncResult<? extends O> result
+                                ) {
+            if (result.failed()) {
+                failed = true;
+                promise.tryFail(result.cause());
+                return false;
+            }
+            results.set(index,
+                        result.result()
+                       );
+            // the decrement publishes the results set by other threads to the one that completes the promise
+            if (pending.decrementAndGet() == 0) promise.tryComplete(results);
+            return true;
+        }
     }
 
 
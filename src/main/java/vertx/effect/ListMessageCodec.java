@@ -0,0 +1,52 @@
+package vertx.effect;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+import java.util.List;
+
+/**
+ * Codec to send the lists of a batch (see {@link VertxRef#deployBatch(String, Lambda)}) to local consumers. Lists are
+ * passed by reference, the batching lambdas never modify them once sent. The elements can be of any type, so they
+ * can't be sent to other nodes of a cluster: the VerticleRefs of the batch verticles send them with
+ * {@link io.vertx.core.eventbus.DeliveryOptions#setLocalOnly(boolean)}, and the wire methods are never called. It's
+ * registered along with the rest of {@link LocalCodecs}.
+ */
+final class ListMessageCodec implements MessageCodec<List<?>, List<?>> {
+
+    static final String NAME = "vertx-effect-list";
+
+    static final ListMessageCodec INSTANCE = new ListMessageCodec();
+
+    private ListMessageCodec() {
+    }
+
+    @Override
+    public void encodeToWire(final Buffer buffer,
+                             final List<?> list
+                            ) {
+        throw new UnsupportedOperationException("batches are sent with DeliveryOptions.setLocalOnly(true)");
+    }
+
+    @Override
+    public List<?> decodeFromWire(final int pos,
+                                  final Buffer buffer
+                                 ) {
+        throw new UnsupportedOperationException("batches are sent with DeliveryOptions.setLocalOnly(true)");
+    }
+
+    @Override
+    public List<?> transform(final List<?> list) {
+        return list;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
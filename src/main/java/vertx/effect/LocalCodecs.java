@@ -0,0 +1,335 @@
+package vertx.effect;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.MessageCodec;
+import jsonvalues.JsArray;
+import jsonvalues.JsObj;
+import jsonvalues.Json;
+import vertx.values.codecs.JsArrayMessageCodec;
+import vertx.values.codecs.JsObjMessageCodec;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codecs registered by name, once per Vertx instance, when a {@link VertxRef} is created:
+ * <ul>
+ *     <li>JsObj and JsArray, passed by reference to local consumers, and serialized when sent to other nodes of a
+ *     cluster as JSON text or with the {@link JsonBinaryCodec}. The first byte tells the format, so every node reads
+ *     both</li>
+ *     <li>the lists of the batches, passed by reference and only to local consumers (see {@link ListMessageCodec})</li>
+ * </ul>
+ * The codecs are registered by name and not as default codecs, so deploying the RegisterJsValuesCodecs verticle of
+ * vertx-json-values still works. Immutable types other than json-values, like records, can be registered with
+ * {@link VertxRef#registerLocalCodec(Class)}, and are only sent to local consumers.
+ * <p>
+ * By default, JsObj and JsArray are sent with the default codecs registered by RegisterJsValuesCodecs, like in previous
+ * releases, which already pass them by reference to local consumers. Setting the system property
+ * vertx.effect.codecs.json.local to true, they are sent with the named codecs instead, so RegisterJsValuesCodecs
+ * doesn't have to be deployed, and {@link VertxRef#useBinaryJsonCodec()} applies to every message. Nodes running a
+ * release previous to these codecs don't know their names, so the property must only be set once every node of the
+ * cluster registers them.
+ */
+final class LocalCodecs {
+
+    static final String JS_OBJ = "vertx-effect-jsobj";
+    static final String JS_ARRAY = "vertx-effect-jsarray";
+    /**
+     * true to send JsObj and JsArray with the named codecs, which nodes on previous releases can't read
+     */
+    static final boolean JSON_BY_REFERENCE =
+            Boolean.parseBoolean(System.getProperty("vertx.effect.codecs.json.local",
+                                                    "false"
+                                                   ));
+
+    /**
+     * the types registered with {@link VertxRef#registerLocalCodec(Class)}, whose messages can't be serialized
+     */
+    private static final Set<Class<?>> LOCAL_ONLY = ConcurrentHashMap.newKeySet();
+
+    private static final Map<Vertx, WireFormat> REGISTERED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private LocalCodecs() {
+    }
+
+    /**
+     * registers the codecs if they are not registered yet
+     *
+     * @param vertx the vertx instance
+     */
+    static void register(final Vertx vertx) {
+        format(vertx);
+    }
+
+    /**
+     * registers a codec that passes the messages of the given type by reference, and only to local consumers
+     *
+     * @param vertx the vertx instance
+     * @param type  the type of the messages
+     * @param <T>   the type of the messages
+     */
+    static <T> void registerByReference(final Vertx vertx,
+                                        final Class<T> type
+                                       ) {
+        vertx.eventBus()
+             .registerDefaultCodec(type,
+                                   new ByReferenceCodec<>(type)
+                                  );
+        LOCAL_ONLY.add(type);
+    }
+
+    /**
+     * sends the JsObj and JsArray to other nodes with the {@link JsonBinaryCodec} instead of as JSON text
+     *
+     * @param vertx the vertx instance
+     */
+    static void useBinaryJson(final Vertx vertx) {
+        format(vertx).binary = true;
+    }
+
+    private static WireFormat format(final Vertx vertx) {
+        WireFormat format = REGISTERED.get(vertx);
+        if (format != null) return format;
+        synchronized (REGISTERED) {
+            format = REGISTERED.get(vertx);
+            if (format != null) return format;
+            format = new WireFormat();
+            register(vertx,
+                     new JsonCodec(JS_OBJ,
+                                   format
+                     )
+                    );
+            register(vertx,
+                     new JsonCodec(JS_ARRAY,
+                                   format
+                     )
+                    );
+            register(vertx,
+                     JsonBinaryCodec.INSTANCE
+                    );
+            register(vertx,
+                     ListMessageCodec.INSTANCE
+                    );
+            REGISTERED.put(vertx,
+                           format
+                          );
+            return format;
+        }
+    }
+
+    private static void register(final Vertx vertx,
+                                 final MessageCodec<?, ?> codec
+                                ) {
+        try {
+            vertx.eventBus()
+                 .registerCodec(codec);
+        } catch (IllegalStateException alreadyRegistered) {
+            // registered by another class loader sharing the vertx instance
+        }
+    }
+
+    /**
+     * Returns the name of the codec to send the given message with.
+     *
+     * @param body the message
+     * @return the name of the codec of the message, or null to let Vertx pick the default one
+     */
+    static String codecName(final Object body) {
+        if (!JSON_BY_REFERENCE) return null;
+        if (body instanceof JsObj) return JS_OBJ;
+        if (body instanceof JsArray) return JS_ARRAY;
+        return null;
+    }
+
+    /**
+     * Returns the delivery options to send the given message with.
+     *
+     * @param options the delivery options
+     * @param body    the message
+     * @return the given options if they already have a codec or there isn't a local codec for the message, or a copy of
+     * them with the local codec otherwise
+     */
+    static DeliveryOptions withCodec(final DeliveryOptions options,
+                                     final Object body
+                                    ) {
+        if (options.getCodecName() != null) return options;
+        if (isLocalOnly(body)) return new DeliveryOptions(options).setLocalOnly(true);
+        String codecName = codecName(body);
+        return codecName == null ? options : new DeliveryOptions(options).setCodecName(codecName);
+    }
+
+    private static boolean isLocalOnly(final Object body) {
+        return body != null && !LOCAL_ONLY.isEmpty() && LOCAL_ONLY.contains(body.getClass());
+    }
+
+    /**
+     * Returns the delivery options to send every message with, computed once for the messages of every local codec.
+     *
+     * @param options the delivery options
+     * @return the selector of the delivery options of every message
+     */
+    static Selector selector(final DeliveryOptions options) {
+        DeliveryOptions localOnly = options.getCodecName() != null ?
+                                    options :
+                                    new DeliveryOptions(options).setLocalOnly(true);
+        if (options.getCodecName() != null || !JSON_BY_REFERENCE) return new Selector(options,
+                                                                options,
+                                                                options,
+                                                                localOnly
+        );
+        return new Selector(options,
+                            new DeliveryOptions(options).setCodecName(JS_OBJ),
+                            new DeliveryOptions(options).setCodecName(JS_ARRAY),
+                            localOnly
+        );
+    }
+
+    /**
+     * The delivery options to send the messages of every type, so that no options are created per message. The
+     * messages of the types registered by reference are only sent to local consumers.
+     */
+    record Selector(DeliveryOptions options, DeliveryOptions jsObj, DeliveryOptions jsArray,
+                    DeliveryOptions localOnly) {
+
+        DeliveryOptions of(final Object body) {
+            if (body instanceof JsObj) return jsObj;
+            if (body instanceof JsArray) return jsArray;
+            if (isLocalOnly(body)) return localOnly;
+            return options;
+        }
+    }
+
+    /**
+     * Codec for JsObj and JsArray that passes them by reference to local consumers. When sent to other nodes, they are
+     * serialized as JSON text or, if enabled for the vertx instance, with the {@link JsonBinaryCodec}. The format is
+     * written in the first byte, so that every node can read both formats no matter the one it uses to send them.
+     */
+    private static final class JsonCodec implements MessageCodec<Json<?>, Json<?>> {
+
+        private static final byte JS_OBJ_TEXT = 0;
+        private static final byte JS_ARRAY_TEXT = 1;
+        private static final byte BINARY = 2;
+
+        private final String name;
+        private final WireFormat format;
+
+        JsonCodec(final String name,
+                  final WireFormat format
+                 ) {
+            this.name = name;
+            this.format = format;
+        }
+
+        @Override
+        public void encodeToWire(final Buffer buffer,
+                                 final Json<?> json
+                                ) {
+            if (format.binary) {
+                buffer.appendByte(BINARY);
+                JsonBinaryCodec.INSTANCE.encodeToWire(buffer,
+                                                      json
+                                                     );
+            } else if (json instanceof JsObj obj) {
+                buffer.appendByte(JS_OBJ_TEXT);
+                JsObjMessageCodec.INSTANCE.encodeToWire(buffer,
+                                                        obj
+                                                       );
+            } else {
+                buffer.appendByte(JS_ARRAY_TEXT);
+                JsArrayMessageCodec.INSTANCE.encodeToWire(buffer,
+                                                          (JsArray) json
+                                                         );
+            }
+        }
+
+        @Override
+        public Json<?> decodeFromWire(final int pos,
+                                      final Buffer buffer
+                                     ) {
+            return switch (buffer.getByte(pos)) {
+                case JS_OBJ_TEXT -> (JsObj) JsObjMessageCodec.INSTANCE.decodeFromWire(pos + 1,
+                                                                                      buffer
+                                                                                     );
+                case JS_ARRAY_TEXT -> (JsArray) JsArrayMessageCodec.INSTANCE.decodeFromWire(pos + 1,
+                                                                                            buffer
+                                                                                           );
+                case BINARY -> JsonBinaryCodec.INSTANCE.decodeFromWire(pos + 1,
+                                                                       buffer
+                                                                      );
+                default -> throw new IllegalArgumentException("unknown format " + buffer.getByte(pos));
+            };
+        }
+
+        @Override
+        public Json<?> transform(final Json<?> json) {
+            return json;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public byte systemCodecID() {
+            return -1;
+        }
+    }
+
+    /**
+     * format used by the codecs of a vertx instance to send json-values objects to other nodes
+     */
+    private static final class WireFormat {
+        volatile boolean binary;
+    }
+
+    /**
+     * Codec for immutable types that are passed by reference to local consumers and can't be sent to other nodes. The
+     * VerticleRefs send them with {@link DeliveryOptions#setLocalOnly(boolean)}, so the wire methods are only called
+     * when they are sent through the event bus directly or as the reply to an ask from another node.
+     *
+     * @param <T> the type of the messages
+     */
+    private static final class ByReferenceCodec<T> implements MessageCodec<T, T> {
+
+        private final String name;
+
+        ByReferenceCodec(final Class<T> type) {
+            this.name = "vertx-effect-local-" + type.getName();
+        }
+
+        @Override
+        public void encodeToWire(final Buffer buffer,
+                                 final T t
+                                ) {
+            throw new UnsupportedOperationException(name + " can't send messages to other nodes");
+        }
+
+        @Override
+        public T decodeFromWire(final int pos,
+                                final Buffer buffer
+                               ) {
+            throw new UnsupportedOperationException(name + " can't read messages from other nodes");
+        }
+
+        @Override
+        public T transform(final T t) {
+            return t;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public byte systemCodecID() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyException;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static vertx.effect.Failures.INTERNAL_ERROR_CODE;
+import static vertx.effect.Failures.UNKNOWN_ERROR_CODE;
+
+/**
+ * Invokes a lambda deployed by {@link VertxRef} directly, without the event bus, for the VerticleRefs in local mode
+ * (see {@link VerticleRef#local()}). Every instance of the verticle registers its context when it starts and removes
+ * it when it stops. A message is processed on one of those contexts, chosen round-robin, so the lambda keeps running
+ * on the event loop of one instance at a time, like when it consumes messages from the event bus. The same events are
+ * published, and failures are turned into {@link ReplyException} the same way.
+ *
+ * @param <I> the type of the message sent to the verticle
+ * @param <O> the type of the reply
+ */
+final class LocalDispatcher<I, O> {
+
+    private final String address;
+    private final Lambdac<I, O> lambda;
+    private final LatencyHistogram latency;
+    private final AtomicInteger next = new AtomicInteger(0);
+    private volatile Context[] contexts = new Context[0];
+
+    LocalDispatcher(final String address,
+                    final Lambdac<I, O> lambda,
+                    final LatencyHistogram latency
+                   ) {
+        this.address = address;
+        this.lambda = lambda;
+        this.latency = latency;
+    }
+
+    synchronized void register(final Context context) {
+        Context[] copy = Arrays.copyOf(contexts,
+                                       contexts.length + 1
+                                      );
+        copy[contexts.length] = context;
+        contexts = copy;
+    }
+
+    synchronized void unregister(final Context context) {
+        contexts = Arrays.stream(contexts)
+                         .filter(it -> it != context)
+                         .toArray(Context[]::new);
+    }
+
+    /**
+     * Returns the context of the instance that processes the next message, or null if there are no instances running.
+     */
+    Context next() {
+        Context[] contexts = this.contexts;
+        if (contexts.length == 0) return null;
+        return contexts[Math.floorMod(next.getAndIncrement(),
+                                      contexts.length
+                                     )];
+    }
+
+    /**
+     * processes the message on the given context
+     *
+     * @param target  the context of the instance, returned by {@link #next()}
+     * @param headers the headers of the message
+     * @param body    the message
+     * @return the reply
+     */
+    Future<O> dispatch(final Context target,
+                       final MultiMap headers,
+                       final I body
+                      ) {
+        Promise<O> promise = Promise.promise();
+        target.runOnContext(it -> process(target.owner(),
+                                          headers,
+                                          body,
+                                          promise
+                                         ));
+        return promise.future();
+    }
+
+    @SuppressWarnings("ReturnValueIgnored")
+    private void process(final Vertx vertx,
+                         final MultiMap headers,
+                         final I body,
+                         final Promise<O> promise
+                        ) {
+        final long received = System.nanoTime();
+        try {
+            EventPublisher.PUBLISHER.publishMessageReceived(vertx,
+                                                            address,
+                                                            headers
+                                                           );
+            lambda.apply(headers,
+                         body
+                        )
+                  .onComplete(event -> {
+                      latency.record(System.nanoTime() - received,
+                                     event.failed()
+                                    );
+                      if (event.succeeded()) {
+                          promise.tryComplete(event.result());
+                          EventPublisher.PUBLISHER.publishMessageReplied(vertx,
+                                                                         address,
+                                                                         event.result(),
+                                                                         headers,
+                                                                         received
+                                                                        );
+                      } else {
+                          ReplyException error = Failures.REPLY_EXCEPTION_PRISM
+                                  .getOptional.apply(event.cause())
+                                              .orElseGet(() -> ExceptionReply.of(UNKNOWN_ERROR_CODE,
+                                                                                 event.cause()
+                                              ));
+                          promise.tryFail(error);
+                          EventPublisher.PUBLISHER.publishFailureReplied(vertx,
+                                                                         address,
+                                                                         error,
+                                                                         headers,
+                                                                         received
+                                                                        );
+                      }
+                  })
+                  .get();
+        } catch (Exception exc) {
+            latency.record(System.nanoTime() - received,
+                           true
+                          );
+            promise.tryFail(ExceptionReply.of(INTERNAL_ERROR_CODE,
+                                              exc));
+            EventPublisher.PUBLISHER.publishException(vertx,
+                                                      Event.EXCEPTION_PROCESSING_MESSAGE,
+                                                      address,
+                                                      exc,
+                                                      headers
+                                                     );
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+
+import java.util.ArrayDeque;
+import java.util.function.Function;
+
+import static io.vertx.core.eventbus.ReplyFailure.NO_HANDLERS;
+import static io.vertx.core.eventbus.ReplyFailure.RECIPIENT_FAILURE;
+import static vertx.effect.Failures.MAILBOX_FULL_CODE;
+
+/**
+ * The mailbox of an instance of a verticle deployed with a {@link MailboxPolicy}. It's only accessed from the context
+ * of the instance, so no synchronization is needed. The completion of an execution of the lambda is moved back to that
+ * context if the lambda completes its future on another thread.
+ *
+ * @param <I> the type of the message sent to the verticle
+ */
+final class Mailbox<I> {
+
+    private final String address;
+    private final MailboxPolicy policy;
+    private final MailboxMetrics metrics;
+    private final Function<Message<I>, Future<?>> processor;
+    private final MessageConsumer<?> consumer;
+    private final Context context;
+    private final ArrayDeque<Message<I>> queue = new ArrayDeque<>();
+    private int inFlight;
+    private boolean paused;
+
+    Mailbox(final String address,
+            final MailboxPolicy policy,
+            final MailboxMetrics metrics,
+            final Function<Message<I>, Future<?>> processor,
+            final MessageConsumer<?> consumer,
+            final Context context
+           ) {
+        this.address = address;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.processor = processor;
+        this.consumer = consumer;
+        this.context = context;
+    }
+
+    void offer(final Message<I> message) {
+        if (inFlight < policy.maxInFlight) process(message);
+        else if (queue.size() < policy.maxQueued || policy.overflow == MailboxPolicy.Overflow.PAUSE) {
+            queue.add(message);
+            metrics.onQueued(1);
+        } else reject(message);
+        if (!paused && policy.overflow == MailboxPolicy.Overflow.PAUSE && isFull()) {
+            paused = true;
+            consumer.pause();
+            metrics.onPaused();
+        }
+    }
+
+    /**
+     * replies to the queued messages as if there were no handlers, since the instance is being undeployed
+     */
+    void close() {
+        metrics.onQueued(-queue.size());
+        Message<I> message;
+        while ((message = queue.poll()) != null)
+            message.reply(new ReplyException(NO_HANDLERS,
+                                             "No handlers for address " + address
+            ));
+    }
+
+    private boolean isFull() {
+        return inFlight >= policy.maxInFlight && queue.size() >= policy.maxQueued;
+    }
+
+    private void process(final Message<I> message) {
+        inFlight++;
+        metrics.onStarted();
+        final Future<?> future;
+        try {
+            future = processor.apply(message);
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+        future.onComplete(it -> {
+            if (Vertx.currentContext() == context) release();
+            else context.runOnContext(nil -> release());
+        });
+    }
+
+    private void release() {
+        inFlight--;
+        metrics.onCompleted();
+        while (inFlight < policy.maxInFlight && !queue.isEmpty()) {
+            metrics.onQueued(-1);
+            process(queue.poll());
+        }
+        if (paused && !isFull()) {
+            paused = false;
+            consumer.resume();
+        }
+    }
+
+    @SuppressWarnings("ReturnValueIgnored")
+    private void reject(final Message<I> message) {
+        metrics.onRejected();
+        ReplyException error = new ReplyException(RECIPIENT_FAILURE,
+                                                  MAILBOX_FULL_CODE,
+                                                  String.format("The mailbox of %s is full: %s",
+                                                                address,
+                                                                policy
+                                                               )
+        );
+        message.reply(error,
+                      new DeliveryOptions().setHeaders(message.headers())
+                     );
+        EventPublisher.PUBLISHER.publishFailureReplied(context.owner(),
+                                                       address,
+                                                       error,
+                                                       message.headers()
+                                                      );
+    }
+}
@@ -0,0 +1,80 @@
+package vertx.effect;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the mailbox of a verticle deployed with a {@link MailboxPolicy}, aggregated over all its instances. The
+ * gauges {@link #inFlight()} and {@link #queued()} return the current values, and the counters {@link #rejected()} and
+ * {@link #pauses()} the totals since the deployment.
+ *
+ * @see VerticleRef#mailbox()
+ */
+public final class MailboxMetrics {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+
+    MailboxMetrics() {
+    }
+
+    /**
+     * Returns the number of executions of the lambda in progress.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the number of messages waiting for an execution of the lambda to complete.
+     */
+    public int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Returns the number of messages rejected with {@link Failures#MAILBOX_FULL_CODE}.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of times the consumer was paused.
+     */
+    public long pauses() {
+        return pauses.sum();
+    }
+
+    void onStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    void onCompleted() {
+        inFlight.decrementAndGet();
+    }
+
+    void onQueued(final int delta) {
+        queued.addAndGet(delta);
+    }
+
+    void onRejected() {
+        rejected.increment();
+    }
+
+    void onPaused() {
+        pauses.increment();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(inFlight=%s,queued=%s,rejected=%s,pauses=%s)",
+                             inFlight(),
+                             queued(),
+                             rejected(),
+                             pauses()
+                            );
+    }
+}
@@ -0,0 +1,142 @@
+package vertx.effect;
+
+import io.vertx.core.eventbus.MessageConsumer;
+
+/**
+ * Bounds the messages that a verticle deployed from a lambda with {@link VertxRef} processes at the same time. Without
+ * a policy, every message is passed to the lambda as soon as it's received, and a slow lambda that returns futures
+ * keeps accepting messages until the memory blows up. With a policy, at most {@link #maxInFlight} executions of the
+ * lambda are in progress, and at most {@link #maxQueued} messages wait for one of them to complete. When both are
+ * reached, the verticle either pauses its {@link MessageConsumer}, so that the event bus buffers the messages, or
+ * fails fast replying with {@link Failures#MAILBOX_FULL_CODE}, so that the callers can shed the load. The limits apply
+ * to every instance of the verticle.
+ * <p>
+ * Pausing is not end-to-end backpressure: the event bus buffers at most {@link #maxBuffered} messages for a paused
+ * consumer and discards the following ones without replying, so their senders only see a timeout. Besides, the
+ * messages that the event bus delivers while the consumer is being paused or draining its buffer after a resume are
+ * queued anyway, so the queue can briefly hold more than {@link #maxQueued} messages. Use {@link #reject(int, int)}
+ * when every caller has to get an answer.
+ *
+ * @see VertxRef#deploy(String, Lambda, io.vertx.core.DeploymentOptions, MailboxPolicy)
+ * @see MailboxMetrics
+ */
+public final class MailboxPolicy {
+
+    /**
+     * max number of executions of the lambda in progress
+     */
+    public final int maxInFlight;
+    /**
+     * max number of messages waiting for an execution of the lambda to complete
+     */
+    public final int maxQueued;
+    /**
+     * max number of messages buffered by the event bus while the consumer is paused, the rest are discarded
+     */
+    public final int maxBuffered;
+    /**
+     * what happens when both limits are reached
+     */
+    public final Overflow overflow;
+
+    /**
+     * the max number of messages buffered by a paused consumer if not specified, the same as the event bus
+     */
+    public static final int DEFAULT_MAX_BUFFERED = 1000;
+
+    private MailboxPolicy(final int maxInFlight,
+                          final int maxQueued,
+                          final int maxBuffered,
+                          final Overflow overflow
+                         ) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight < 1");
+        if (maxQueued < 0) throw new IllegalArgumentException("maxQueued < 0");
+        if (maxBuffered < 0) throw new IllegalArgumentException("maxBuffered < 0");
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.maxBuffered = maxBuffered;
+        this.overflow = overflow;
+    }
+
+    /**
+     * Returns a policy that pauses the consumer of the verticle when the limits are reached and resumes it as soon as
+     * an execution of the lambda completes. While paused, the event bus buffers up to {@link #DEFAULT_MAX_BUFFERED}
+     * messages and discards the rest without replying.
+     *
+     * @param maxInFlight max number of executions of the lambda in progress, greater than zero
+     * @param maxQueued   max number of messages waiting for an execution to complete, zero or greater
+     * @return a MailboxPolicy
+     * @see #pause(int, int, int)
+     */
+    public static MailboxPolicy pause(final int maxInFlight,
+                                      final int maxQueued
+                                     ) {
+        return pause(maxInFlight,
+                     maxQueued,
+                     DEFAULT_MAX_BUFFERED
+                    );
+    }
+
+    /**
+     * Returns a policy that pauses the consumer of the verticle when the limits are reached and resumes it as soon as
+     * an execution of the lambda completes. While paused, the event bus buffers up to maxBuffered messages (see
+     * {@link MessageConsumer#setMaxBufferedMessages(int)}) and discards the rest without replying, so their senders
+     * get a timeout.
+     *
+     * @param maxInFlight max number of executions of the lambda in progress, greater than zero
+     * @param maxQueued   max number of messages waiting for an execution to complete, zero or greater
+     * @param maxBuffered max number of messages buffered by the event bus while the consumer is paused, zero or greater
+     * @return a MailboxPolicy
+     */
+    public static MailboxPolicy pause(final int maxInFlight,
+                                      final int maxQueued,
+                                      final int maxBuffered
+                                     ) {
+        return new MailboxPolicy(maxInFlight,
+                                 maxQueued,
+                                 maxBuffered,
+                                 Overflow.PAUSE
+        );
+    }
+
+    /**
+     * Returns a policy that replies with a failure with the code {@link Failures#MAILBOX_FULL_CODE} when the limits are
+     * reached.
+     *
+     * @param maxInFlight max number of executions of the lambda in progress, greater than zero
+     * @param maxQueued   max number of messages waiting for an execution to complete, zero or greater
+     * @return a MailboxPolicy
+     */
+    public static MailboxPolicy reject(final int maxInFlight,
+                                       final int maxQueued
+                                      ) {
+        return new MailboxPolicy(maxInFlight,
+                                 maxQueued,
+                                 0,
+                                 Overflow.REJECT
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format("(%s,%s,%s)",
+                             maxInFlight,
+                             maxQueued,
+                             overflow
+                            );
+    }
+
+    /**
+     * what a verticle does with a message when the limits of its policy are reached
+     */
+    public enum Overflow {
+        /**
+         * pauses the consumer of the verticle
+         */
+        PAUSE,
+        /**
+         * replies with the failure code {@link Failures#MAILBOX_FULL_CODE}
+         */
+        REJECT
+    }
+}
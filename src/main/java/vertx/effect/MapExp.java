@@ -1,6 +1,7 @@
 package vertx.effect;
 
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -1664,6 +1665,16 @@ public abstract sealed class MapExp<O> extends Exp<Map<String, O>> permits MapEx
         return bindings.isEmpty();
     }
 
+    /**
+     * Bounds the effect of every key in time (see {@link VIO#timeout(Duration)}), the counterpart of
+     * {@link #retryEach(RetryPolicy)}. The effects that time out are cancelled and the expression fails with a
+     * {@link java.util.concurrent.TimeoutException}.
+     *
+     * @param duration the max time the effect of every key can take
+     * @return a new expression
+     */
+    public abstract VIO<Map<String, O>> timeoutEach(final Duration duration);
+
     public abstract MapExp<O> set(final String key,
                                   final VIO<? extends O> exp
                                  );
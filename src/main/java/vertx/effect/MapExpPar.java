@@ -3,6 +3,7 @@ package vertx.effect;
 
 import io.vertx.core.Future;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -98,5 +99,14 @@ final class MapExpPar<O> extends MapExp<O> {
                      });
     }
 
+    @Override
+    public VIO<Map<String, O>> timeoutEach(final Duration duration) {
+        Objects.requireNonNull(duration);
+        Map<String, VIO<? extends O>> map = new LinkedHashMap<>();
+        bindings.forEach((key, exp) -> map.put(key,
+                                               exp.timeout(duration)
+                                              ));
+        return new MapExpPar<>(map);
+    }
 
 }
@@ -2,6 +2,7 @@ package vertx.effect;
 
 import io.vertx.core.Future;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -100,4 +101,14 @@ final class MapExpSeq<O> extends MapExp<O> {
         return acc;
     }
 
+    @Override
+    public VIO<Map<String, O>> timeoutEach(final Duration duration) {
+        Objects.requireNonNull(duration);
+        Map<String, VIO<? extends O>> map = new LinkedHashMap<>();
+        bindings.forEach((key, exp) -> map.put(key,
+                                               exp.timeout(duration)
+                                              ));
+        return new MapExpSeq<>(map);
+    }
+
 }
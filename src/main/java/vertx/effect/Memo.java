@@ -0,0 +1,134 @@
+package vertx.effect;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Supplier that caches the result of an effect. The entry is swapped with compare-and-set operations, so it's safe to
+ * use from different event loops without locks:
+ * <ul>
+ *     <li>concurrent callers share the same in-flight future while the effect is being loaded, and each of them
+ *     resumes on its own context when it completes</li>
+ *     <li>a successful result is served until it's older than the ttl; then, the next caller loads it again</li>
+ *     <li>once a result is older than refreshAfter (but not than the ttl), it's still served while one caller
+ *     refreshes it in the background. If the refresh fails, the stale result is kept, and the refresh is not retried
+ *     until a quarter of the time between refreshAfter and the ttl has passed, so that a failing backend isn't called
+ *     on every hit. A stale result is never served past the ttl: then, the next caller loads it again, and gets the
+ *     failure if the load fails</li>
+ *     <li>failures are not cached: they are propagated to the callers sharing the in-flight future, and the next
+ *     caller loads the effect again</li>
+ * </ul>
+ *
+ * @param <O> the type of the value produced by the effect
+ */
+final class Memo<O> implements Supplier<Future<O>> {
+
+    private final VIO<O> effect;
+    private final long ttl;
+    private final long refreshAfter;
+    private final AtomicReference<Entry<O>> entry = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final long refreshBackoff;
+    private volatile long refreshFailedAt;
+    private volatile boolean refreshFailed;
+
+    /**
+     * @param effect       the effect
+     * @param ttl          nanoseconds a result is served for, Long.MAX_VALUE to serve it forever
+     * @param refreshAfter nanoseconds after which a result is refreshed in the background, Long.MAX_VALUE to never do it
+     */
+    Memo(final VIO<O> effect,
+         final long ttl,
+         final long refreshAfter
+        ) {
+        this.effect = effect;
+        this.ttl = ttl;
+        this.refreshAfter = refreshAfter;
+        this.refreshBackoff = refreshAfter < ttl ? (ttl - refreshAfter) / 4 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public Future<O> get() {
+        while (true) {
+            Entry<O> current = entry.get();
+            if (current != null) {
+                if (!current.loaded) return Contexts.onCallerContext(current.future);
+                long age = System.nanoTime() - current.loadedAt;
+                if (age < ttl) {
+                    if (age >= refreshAfter) refresh(current);
+                    return Contexts.onCallerContext(current.future);
+                }
+            }
+            Promise<O> promise = Promise.promise();
+            Entry<O> loading = new Entry<>(promise.future(),
+                                           0,
+                                           false
+            );
+            // another caller could have started loading the effect in the meantime
+            if (entry.compareAndSet(current,
+                                    loading
+                                   )) {
+                load(loading,
+                     promise
+                    );
+                return Contexts.onCallerContext(promise.future());
+            }
+        }
+    }
+
+    private void load(final Entry<O> loading,
+                      final Promise<O> promise
+                     ) {
+        execute().onComplete(result -> {
+            // the entry is updated before completing the promise, so the callers that see the result see the entry
+            if (result.succeeded()) entry.compareAndSet(loading,
+                                                        new Entry<>(loading.future,
+                                                                    System.nanoTime(),
+                                                                    true
+                                                        )
+                                                       );
+            else entry.compareAndSet(loading,
+                                     null
+                                    );
+            promise.handle(result);
+        });
+    }
+
+    private void refresh(final Entry<O> stale) {
+        if (refreshFailed && System.nanoTime() - refreshFailedAt < refreshBackoff) return;
+        if (!refreshing.compareAndSet(false,
+                                      true
+                                     )) return;
+        execute().onComplete(result -> {
+            if (result.succeeded()) {
+                entry.compareAndSet(stale,
+                                    new Entry<>(Future.succeededFuture(result.result()),
+                                                System.nanoTime(),
+                                                true
+                                    )
+                                   );
+                refreshFailed = false;
+            } else {
+                // the time is written before the flag, so a caller that sees the flag sees the time
+                refreshFailedAt = System.nanoTime();
+                refreshFailed = true;
+            }
+            refreshing.set(false);
+        });
+    }
+
+    private Future<O> execute() {
+        try {
+            return effect.get();
+        } catch (Exception e) {
+            return Future.failedFuture(e);
+        }
+    }
+
+    private record Entry<O>(Future<O> future, long loadedAt, boolean loaded) {
+    }
+}
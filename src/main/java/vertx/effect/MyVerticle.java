@@ -1,14 +1,16 @@
 package vertx.effect;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
-import io.vertx.core.eventbus.ReplyException;
 
 import java.util.function.Consumer;
+import java.util.function.Function;
 
-import static io.vertx.core.eventbus.ReplyFailure.RECIPIENT_FAILURE;
 import static java.util.Objects.requireNonNull;
 import static vertx.effect.Event.EXCEPTION_PROCESSING_MESSAGE;
 import static vertx.effect.Event.EXCEPTION_STARTING_VERTICLE;
@@ -22,7 +24,12 @@ import static vertx.effect.Failures.*;
 class MyVerticle<I> extends AbstractVerticle {
     private final Consumer<Message<I>> consumer;
     private final String address;
+    private final LocalDispatcher<I, ?> dispatcher;
+    private final Function<Message<I>, Future<?>> processor;
+    private final MailboxPolicy policy;
+    private final MailboxMetrics metrics;
     private MessageConsumer<Object> messageConsumer;
+    private Mailbox<I> mailbox;
 
     /**
      * Creates a verticle instance that when deployed will process the messages sent to the given address
@@ -33,8 +40,53 @@ class MyVerticle<I> extends AbstractVerticle {
     public MyVerticle(final Consumer<Message<I>> consumer,
                       final String address
                      ) {
+        this(consumer,
+             address,
+             null
+            );
+    }
+
+    /**
+     * Creates a verticle instance that when deployed will process the messages sent to the given address, and that
+     * registers its context in the given dispatcher to process the messages sent locally
+     *
+     * @param consumer   consumer that takes and processes the messages sent to this verticle
+     * @param address    address where the verticle is listening on
+     * @param dispatcher the local dispatcher of the verticle, or null if messages are only sent through the event bus
+     */
+    public MyVerticle(final Consumer<Message<I>> consumer,
+                      final String address,
+                      final LocalDispatcher<I, ?> dispatcher
+                     ) {
         this.consumer = requireNonNull(consumer);
         this.address = requireNonNull(address);
+        this.dispatcher = dispatcher;
+        this.processor = null;
+        this.policy = null;
+        this.metrics = null;
+    }
+
+    /**
+     * Creates a verticle instance that when deployed will process the messages sent to the given address with the given
+     * processor, which returns a future that is completed when the message is processed. The messages are passed to
+     * the processor through a {@link Mailbox} that enforces the given policy.
+     *
+     * @param processor function that takes and processes the messages sent to this verticle
+     * @param address   address where the verticle is listening on
+     * @param policy    the policy of the mailbox
+     * @param metrics   the metrics of the mailbox, shared by all the instances of the verticle
+     */
+    public MyVerticle(final Function<Message<I>, Future<?>> processor,
+                      final String address,
+                      final MailboxPolicy policy,
+                      final MailboxMetrics metrics
+                     ) {
+        this.processor = requireNonNull(processor);
+        this.consumer = null;
+        this.address = requireNonNull(address);
+        this.dispatcher = null;
+        this.policy = requireNonNull(policy);
+        this.metrics = requireNonNull(metrics);
     }
 
     /**
@@ -54,32 +106,47 @@ class MyVerticle<I> extends AbstractVerticle {
                                              message ->
                                              {
                                                  try {
-                                                     this.consumer.accept((Message<I>) message);
+                                                     if (mailbox == null)
+                                                         this.consumer.accept((Message<I>) message);
+                                                     else mailbox.offer((Message<I>) message);
                                                  } catch (Exception exc) {
-                                                     message.reply(new ReplyException(RECIPIENT_FAILURE,
-                                                                                      INTERNAL_ERROR_CODE,
-                                                                                      Functions.getErrorMessage(exc)
-                                                     ));
+                                                     message.reply(ExceptionReply.of(INTERNAL_ERROR_CODE,
+                                                                                     exc));
                                                      promise.fail(exc);
-                                                     EventPublisher.PUBLISHER.publishException(EXCEPTION_PROCESSING_MESSAGE,
+                                                     EventPublisher.PUBLISHER.publishException(vertx,
+                                                                                               EXCEPTION_PROCESSING_MESSAGE,
                                                                                                address,
                                                                                                exc,
                                                                                                message.headers()
-                                                                                              ).accept(vertx);
+                                                                                              );
                                                  }
                                              }
                                             );
+            if (policy != null && policy.overflow == MailboxPolicy.Overflow.PAUSE)
+                messageConsumer.setMaxBufferedMessages(policy.maxBuffered);
+            if (policy != null)
+                mailbox = new Mailbox<>(address,
+                                        policy,
+                                        metrics,
+                                        processor,
+                                        messageConsumer,
+                                        Vertx.currentContext()
+                );
+            if (dispatcher != null) {
+                Context context = Vertx.currentContext();
+                promise.future()
+                       .onSuccess(it -> dispatcher.register(context));
+            }
             messageConsumer.completionHandler(promise);
         } catch (Exception exc) {
-            promise.fail(new ReplyException(RECIPIENT_FAILURE,
-                                            EXCEPTION_DEPLOYING_VERTICLE_CODE,
-                                            Functions.getErrorMessage(exc)
-                         )
+            promise.fail(ExceptionReply.of(EXCEPTION_DEPLOYING_VERTICLE_CODE,
+                                           exc)
                         );
-            EventPublisher.PUBLISHER.publishException(EXCEPTION_STARTING_VERTICLE,
+            EventPublisher.PUBLISHER.publishException(vertx,
+                                                      EXCEPTION_STARTING_VERTICLE,
                                                       address,
                                                       exc
-                                                     ).accept(vertx);
+                                                     );
         }
     }
 
@@ -91,15 +158,15 @@ class MyVerticle<I> extends AbstractVerticle {
      */
     @Override
     public void stop(final Promise<Void> promise) {
+        if (dispatcher != null) dispatcher.unregister(Vertx.currentContext());
+        if (mailbox != null) mailbox.close();
         try {
             if (messageConsumer.isRegistered())
                 messageConsumer.unregister(promise);
             else promise.complete();
         } catch (Exception e) {
-            promise.fail(new ReplyException(RECIPIENT_FAILURE,
-                                            EXCEPTION_UNDEPLOYING_VERTICLE_CODE,
-                                            Functions.getErrorMessage(e)
-                         )
+            promise.fail(ExceptionReply.of(EXCEPTION_UNDEPLOYING_VERTICLE_CODE,
+                                           e)
                         );
 
         }
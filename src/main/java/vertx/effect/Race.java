@@ -0,0 +1,120 @@
+package vertx.effect;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution of a race: the first effect that succeeds wins and the rest of them, the losers, are cancelled (see
+ * {@link VIO#cancelable(java.util.function.Function)} and {@link VIO#onCancel(Runnable)}). Every effect knows its
+ * index, so the winner is resolved in the handler of its own future, without scanning the results of the others. If
+ * the winner is known while the effects are being started, the remaining ones are not started at all. If all the
+ * effects fail, the race fails with the first failure.
+ *
+ * @param <O> the type of the value produced by the effects
+ */
+final class Race<O> implements Execution<O> {
+
+    private final Execution<?>[] executions;
+    private final Promise<O> promise = Promise.promise();
+    private static final int UNDECIDED = -1;
+    private static final int NO_WINNER = -2;
+
+    // the race is decided when the winner is set, so that nobody sees it decided without knowing who won
+    private final AtomicInteger winner = new AtomicInteger(UNDECIDED);
+    private final AtomicInteger failures = new AtomicInteger(0);
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+    private Race(final int size) {
+        this.executions = new Execution<?>[size];
+    }
+
+    static <O> Race<O> execute(final List<? extends VIO<O>> effects) {
+        Race<O> race = new Race<>(effects.size());
+        for (int i = 0; i < race.executions.length && !race.decided(); i++)
+            race.start(i,
+                       effects.get(i)
+                      );
+        // a loser that was still being started when the winner completed might have been missed
+        if (race.decided()) race.cancelLosers();
+        return race;
+    }
+
+    private void start(final int index,
+                       final VIO<O> effect
+                      ) {
+        Execution<O> execution;
+        try {
+            execution = Execution.of(effect);
+        } catch (Exception e) {
+            execution = Execution.of(Future.failedFuture(e));
+        }
+        executions[index] = execution;
+        execution.future()
+                 .onComplete(result -> complete(index,
+                                                result
+                                               ));
+    }
+
+    private void complete(final int index,
+                          final AsyncResult<O> result
+                         ) {
+        if (result.succeeded()) {
+            if (!winner.compareAndSet(UNDECIDED,
+                                      index
+                                     )) return;
+            cancelLosers();
+            promise.complete(result.result());
+        } else {
+            firstFailure.compareAndSet(null,
+                                       result.cause()
+                                      );
+            if (failures.incrementAndGet() == executions.length && winner.compareAndSet(UNDECIDED,
+                                                                                        NO_WINNER
+                                                                                       ))
+                promise.fail(firstFailure.get());
+        }
+    }
+
+    private boolean decided() {
+        return winner.get() != UNDECIDED;
+    }
+
+    private void cancelLosers() {
+        final int winner = this.winner.get();
+        for (int i = 0; i < executions.length; i++) {
+            Execution<?> execution = executions[i];
+            if (i != winner && execution != null) execution.cancel();
+        }
+    }
+
+    /**
+     * Returns the index of the effect that won the race, or -1 if there is no winner yet.
+     *
+     * @return the index of the winner or -1
+     */
+    int winner() {
+        return Math.max(winner.get(),
+                        UNDECIDED
+                       );
+    }
+
+    @Override
+    public Future<O> future() {
+        return promise.future();
+    }
+
+    @Override
+    public void cancel() {
+        if (!winner.compareAndSet(UNDECIDED,
+                                  NO_WINNER
+                                 )) return;
+        cancelLosers();
+        promise.fail(new CancellationException("effect cancelled"));
+    }
+}
@@ -0,0 +1,101 @@
+package vertx.effect;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel evaluation of boolean effects that completes as soon as the result is decided: when an effect returns the
+ * decisive value (false for {@link AllExp}, true for {@link AnyExp}) or fails. If the result is decided while the
+ * effects are being started, the remaining ones are not started at all, and the ones still running are either ignored
+ * or cancelled, depending on cancelRemaining. Cancelling the whole execution always cancels the running effects.
+ */
+final class ShortCircuit implements Execution<Boolean> {
+
+    private final Execution<?>[] executions;
+    private final Promise<Boolean> promise = Promise.promise();
+    private final AtomicInteger pending;
+    private final AtomicBoolean decided = new AtomicBoolean(false);
+    private final boolean decisive;
+    private final boolean cancelRemaining;
+
+    private ShortCircuit(final int size,
+                         final boolean decisive,
+                         final boolean cancelRemaining
+                        ) {
+        this.executions = new Execution<?>[size];
+        this.pending = new AtomicInteger(size);
+        this.decisive = decisive;
+        this.cancelRemaining = cancelRemaining;
+    }
+
+    static Execution<Boolean> execute(final List<VIO<Boolean>> exps,
+                                      final boolean decisive,
+                                      final boolean cancelRemaining
+                                     ) {
+        ShortCircuit execution = new ShortCircuit(exps.size(),
+                                                  decisive,
+                                                  cancelRemaining
+        );
+        execution.start(exps);
+        return execution;
+    }
+
+    private void start(final List<VIO<Boolean>> exps) {
+        for (int i = 0; i < executions.length && !decided.get(); i++) {
+            Execution<Boolean> execution;
+            try {
+                execution = Execution.of(exps.get(i));
+            } catch (Exception e) {
+                execution = Execution.of(Future.failedFuture(e));
+            }
+            executions[i] = execution;
+            execution.future()
+                     .onComplete(this::complete);
+        }
+        // effects that were still being started when a running one decided the result might have been missed
+        if (cancelRemaining && decided.get()) cancelAll();
+    }
+
+    private void complete(final AsyncResult<Boolean> result) {
+        if (result.failed()) decide(result);
+        else if (Boolean.TRUE.equals(result.result()) == decisive) decide(Future.succeededFuture(decisive));
+        else if (pending.decrementAndGet() == 0) decide(Future.succeededFuture(!decisive));
+    }
+
+    /**
+     * The first effect that decides the result wins. The remaining effects are cancelled before completing the
+     * promise, so that the observers of the result see them cancelled.
+     */
+    private void decide(final AsyncResult<Boolean> result) {
+        if (!decided.compareAndSet(false,
+                                   true
+                                  )) return;
+        if (cancelRemaining) cancelAll();
+        promise.handle(result);
+    }
+
+    private void cancelAll() {
+        for (final Execution<?> execution : executions)
+            if (execution != null) execution.cancel();
+    }
+
+    @Override
+    public Future<Boolean> future() {
+        return promise.future();
+    }
+
+    @Override
+    public void cancel() {
+        if (!decided.compareAndSet(false,
+                                   true
+                                  )) return;
+        cancelAll();
+        promise.fail(new CancellationException("effect cancelled"));
+    }
+}
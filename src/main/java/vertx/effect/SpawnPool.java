@@ -0,0 +1,206 @@
+package vertx.effect;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded and elastic pool of verticles deployed by {@link VertxRef} to spawn lambdas without deploying and undeploying
+ * a verticle per call (see {@link VertxRef#spawnPooled(String, Lambda, int, Duration)}):
+ * <ul>
+ *     <li>every call checks out an idle worker, or deploys a new one if there are less than maxWorkers</li>
+ *     <li>if all the workers are busy, the call waits for one of them to be returned</li>
+ *     <li>returned workers are handed to the waiting calls in order of arrival, or kept idle otherwise</li>
+ *     <li>the workers that are idle for longer than the ttl are undeployed. Idle workers are reused in LIFO order,
+ *     so that the pool shrinks when the traffic goes down</li>
+ * </ul>
+ * The state is guarded by the pool's lock, since calls can come from different event loops, and the promises are
+ * completed outside it. A call that is cancelled while waiting for a worker leaves the queue, and a worker checked out
+ * by a cancelled call is returned to the pool as soon as it's available again: right away if the message wasn't sent
+ * yet, or once the reply is received otherwise, since the worker is busy processing it until then.
+ *
+ * @param <I> the type of the message sent to the workers
+ * @param <O> the type of the reply
+ */
+final class SpawnPool<I, O> {
+
+    private final Vertx vertx;
+    private final int maxWorkers;
+    private final long idleTtl;
+    private final Supplier<VIO<VerticleRef<I, O>>> deployer;
+    private final Consumer<VerticleRef<I, O>> undeployer;
+    private final Deque<Worker<I, O>> idle = new ArrayDeque<>();
+    private final Deque<Promise<VerticleRef<I, O>>> waiting = new ArrayDeque<>();
+    // deployed workers plus the ones being deployed
+    private int workers;
+    private long reaper = -1;
+
+    /**
+     * @param vertx      the vertx instance to schedule the shrinking of the pool
+     * @param maxWorkers the max number of workers
+     * @param idleTtl    the time after which an idle worker is undeployed
+     * @param deployer   deploys a new worker
+     * @param undeployer undeploys an idle worker
+     */
+    SpawnPool(final Vertx vertx,
+              final int maxWorkers,
+              final Duration idleTtl,
+              final Supplier<VIO<VerticleRef<I, O>>> deployer,
+              final Consumer<VerticleRef<I, O>> undeployer
+             ) {
+        this.vertx = vertx;
+        this.maxWorkers = maxWorkers;
+        this.idleTtl = idleTtl.toNanos();
+        this.deployer = deployer;
+        this.undeployer = undeployer;
+    }
+
+    /**
+     * Checks out a worker, makes the call with it and returns it to the pool once the call completes.
+     *
+     * @param call the call to make with the worker
+     * @return the execution of the call, whose cancellation doesn't leave the worker checked out
+     */
+    Execution<O> execute(final Function<VerticleRef<I, O>, VIO<O>> call) {
+        Promise<O> promise = Promise.promise();
+        Promise<VerticleRef<I, O>> checkout = Promise.promise();
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        checkout.future()
+                .onComplete(result -> {
+                    if (result.failed()) {
+                        promise.tryFail(result.cause());
+                        return;
+                    }
+                    VerticleRef<I, O> ref = result.result();
+                    if (cancelled.get()) {
+                        release(ref);
+                        promise.tryFail(new CancellationException("effect cancelled"));
+                        return;
+                    }
+                    Future<O> reply;
+                    try {
+                        reply = call.apply(ref)
+                                    .get();
+                    } catch (Exception e) {
+                        reply = Future.failedFuture(e);
+                    }
+                    reply.onComplete(it -> {
+                        release(ref);
+                        if (it.succeeded()) promise.tryComplete(it.result());
+                        else promise.tryFail(it.cause());
+                    });
+                });
+        checkout(checkout);
+        return Execution.of(promise.future(),
+                            () -> {
+                                // set before leaving the queue, so a worker handed to the call meanwhile, or still
+                                // being deployed for it, is returned. The call completes now in any case, and if it
+                                // was already sent, the worker is returned when the reply arrives
+                                cancelled.set(true);
+                                leave(checkout);
+                                promise.tryFail(new CancellationException("effect cancelled"));
+                            }
+                           );
+    }
+
+    /**
+     * Completes the promise with an idle worker, or a new one if there are less than maxWorkers, or queues it
+     */
+    private void checkout(final Promise<VerticleRef<I, O>> promise) {
+        Worker<I, O> worker;
+        synchronized (this) {
+            worker = idle.pollFirst();
+            if (worker == null) {
+                if (workers == maxWorkers) {
+                    waiting.addLast(promise);
+                    return;
+                }
+                workers++;
+            }
+        }
+        if (worker != null) promise.complete(worker.ref);
+        else deploy(promise);
+    }
+
+    /**
+     * Removes a call from the queue of the calls waiting for a worker, if it's still there
+     */
+    private synchronized void leave(final Promise<VerticleRef<I, O>> promise) {
+        waiting.remove(promise);
+    }
+
+    private void release(final VerticleRef<I, O> ref) {
+        Promise<VerticleRef<I, O>> next;
+        synchronized (this) {
+            next = waiting.pollFirst();
+            if (next == null) idle.addFirst(new Worker<>(ref,
+                                                         System.nanoTime()
+                                         ));
+        }
+        if (next != null) next.complete(ref);
+    }
+
+    private void deploy(final Promise<VerticleRef<I, O>> promise) {
+        Future<VerticleRef<I, O>> deployment;
+        try {
+            deployment = deployer.get()
+                                 .get();
+        } catch (Exception e) {
+            deployment = Future.failedFuture(e);
+        }
+        deployment.onComplete(result -> {
+            if (result.succeeded()) {
+                startReaper();
+                promise.complete(result.result());
+                return;
+            }
+            // the slot is given to the next waiting call, that tries to deploy a worker too
+            Promise<VerticleRef<I, O>> next;
+            synchronized (this) {
+                next = waiting.pollFirst();
+                if (next == null) workers--;
+            }
+            promise.fail(result.cause());
+            if (next != null) deploy(next);
+        });
+    }
+
+    private synchronized void startReaper() {
+        if (reaper != -1) return;
+        reaper = vertx.setPeriodic(Math.max(1,
+                                            idleTtl / 2_000_000
+                                           ),
+                                   id -> reap()
+                                  );
+    }
+
+    private void reap() {
+        List<VerticleRef<I, O>> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            while (!idle.isEmpty() && now - idle.peekLast().idleSince >= idleTtl) {
+                expired.add(idle.pollLast().ref);
+                workers--;
+            }
+            if (workers == 0) {
+                vertx.cancelTimer(reaper);
+                reaper = -1;
+            }
+        }
+        for (VerticleRef<I, O> ref : expired) undeployer.accept(ref);
+    }
+
+    private record Worker<I, O>(VerticleRef<I, O> ref, long idleSince) {
+    }
+}
@@ -0,0 +1,131 @@
+package vertx.effect;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Execution of an effect bounded in time. The effect and a timer (see {@link Timers}) are started at the same time.
+ * If the effect completes first, the timer is cancelled right away, so that no timer entries are left behind under
+ * heavy traffic. If the timer fires first, the effect is cancelled and the execution either fails with a
+ * {@link TimeoutException} or, if there is a fallback, it's completed with the fallback's result.
+ *
+ * @param <O> the type of the value produced by the effect
+ */
+final class Timeout<O> implements Execution<O> {
+
+    private final Duration duration;
+    private final Lambda<TimeoutException, O> fallback;
+    private final Promise<O> promise = Promise.promise();
+    private final AtomicBoolean decided = new AtomicBoolean(false);
+    private volatile Execution<O> execution;
+    private volatile Execution<Void> timer;
+    private volatile Execution<O> fallbackExecution;
+
+    private Timeout(final Duration duration,
+                    final Lambda<TimeoutException, O> fallback
+                   ) {
+        this.duration = duration;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @param effect   the effect
+     * @param duration the max time the effect can take
+     * @param fallback the lambda that computes the result when the effect times out, or null to fail
+     */
+    static <O> Timeout<O> execute(final VIO<O> effect,
+                                  final Duration duration,
+                                  final Lambda<TimeoutException, O> fallback
+                                 ) {
+        Timeout<O> timeout = new Timeout<>(duration,
+                                           fallback
+        );
+        timeout.start(effect);
+        return timeout;
+    }
+
+    private void start(final VIO<O> effect) {
+        Execution<O> execution;
+        try {
+            execution = Execution.of(effect);
+        } catch (Exception e) {
+            execution = Execution.of(Future.failedFuture(e));
+        }
+        this.execution = execution;
+        execution.future()
+                 .onComplete(this::complete);
+        // the effect could have completed synchronously, in which case no timer is needed
+        if (decided.get()) return;
+        Execution<Void> timer = Timers.start(duration);
+        this.timer = timer;
+        timer.future()
+             .onSuccess(it -> expire());
+        // the effect could have completed while the timer was being scheduled
+        if (decided.get()) timer.cancel();
+    }
+
+    private void complete(final AsyncResult<O> result) {
+        if (!decided.compareAndSet(false,
+                                   true
+                                  )) return;
+        Execution<Void> timer = this.timer;
+        if (timer != null) timer.cancel();
+        if (result.succeeded()) promise.complete(result.result());
+        else promise.fail(result.cause());
+    }
+
+    private void expire() {
+        if (!decided.compareAndSet(false,
+                                   true
+                                  )) return;
+        execution.cancel();
+        TimeoutException failure = new TimeoutException("effect timed out after " + duration.toMillis() + " ms");
+        if (fallback == null) {
+            promise.fail(failure);
+            return;
+        }
+        Execution<O> fallbackExecution;
+        try {
+            fallbackExecution = Execution.of(fallback.apply(failure));
+        } catch (Exception e) {
+            fallbackExecution = Execution.of(Future.failedFuture(e));
+        }
+        this.fallbackExecution = fallbackExecution;
+        fallbackExecution.future()
+                         .onComplete(result -> {
+                             if (result.succeeded()) promise.tryComplete(result.result());
+                             else promise.tryFail(result.cause());
+                         });
+    }
+
+    @Override
+    public Future<O> future() {
+        return promise.future();
+    }
+
+    @Override
+    public void cancel() {
+        if (decided.compareAndSet(false,
+                                  true
+                                 )) {
+            Execution<Void> timer = this.timer;
+            if (timer != null) timer.cancel();
+            execution.cancel();
+            promise.fail(new CancellationException("effect cancelled"));
+            return;
+        }
+        // the effect timed out and the fallback is running
+        Execution<O> fallbackExecution = this.fallbackExecution;
+        if (fallbackExecution != null && !promise.future()
+                                                 .isComplete()) {
+            fallbackExecution.cancel();
+            promise.tryFail(new CancellationException("effect cancelled"));
+        }
+    }
+}
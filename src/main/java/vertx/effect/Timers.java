@@ -0,0 +1,64 @@
+package vertx.effect;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking timers for the effects that are not bound to a Vertx instance, like {@link VIO#sleep(Duration)}. When
+ * executed on a Vertx context, the timer is scheduled with the Vertx instance of the context, so that the effect
+ * resumes on the same context. Otherwise, a shared scheduler with one daemon thread is used, and the effect resumes
+ * on the common {@link ForkJoinPool}, so that the continuations of all the timers don't run one after the other on
+ * the thread of the scheduler. Timers are cancelable.
+ */
+final class Timers {
+
+    private Timers() {
+    }
+
+    static Execution<Void> start(final Duration duration) {
+        long millis = duration.toMillis();
+        if (millis <= 0) return Execution.of(Future.succeededFuture());
+        Promise<Void> promise = Promise.promise();
+        Context context = Vertx.currentContext();
+        if (context != null) {
+            Vertx vertx = context.owner();
+            long id = vertx.setTimer(millis,
+                                     it -> promise.complete()
+                                    );
+            return Execution.of(promise.future(),
+                                () -> vertx.cancelTimer(id)
+                               );
+        }
+        ScheduledFuture<?> timer = Shared.SCHEDULER.schedule(() -> ForkJoinPool.commonPool()
+                                                                               .execute(() -> promise.complete()),
+                                                             millis,
+                                                             TimeUnit.MILLISECONDS
+                                                            );
+        return Execution.of(promise.future(),
+                            () -> timer.cancel(false)
+                           );
+    }
+
+    /**
+     * the scheduler is created the first time it's used
+     */
+    private static final class Shared {
+        static final ScheduledExecutorService SCHEDULER =
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable,
+                                               "vertx-effect-timer"
+                    );
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
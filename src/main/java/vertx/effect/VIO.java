@@ -3,21 +3,25 @@ package vertx.effect;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * A Val is just an alias for a lazy Vertx future. Laziness makes your code more functional and pure. It allows us to
  * describe programs before executing them. The get method triggers the execution of the val and returns a future.
+ * <p>
+ * Operators like {@link #map(Function)} or {@link #then(Lambda)} don't wrap the previous effect into a new future
+ * supplier. They build a small instruction tree that is evaluated by a stack-safe run loop, which fuses consecutive
+ * maps and doesn't allocate intermediate futures for the steps that complete synchronously.
  *
  * @param <O> the type of the value produced by the future
  */
@@ -26,76 +30,172 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
     VIO<Boolean> TRUE = VIO.succeed(true);
     VIO<Boolean> FALSE = VIO.succeed(false);
 
+    /**
+     * Creates an effect that fails with the given exception. The failure is known up front, so it's propagated by the
+     * run loop without allocating any Vertx future.
+     *
+     * @param failure the exception
+     * @param <O>     the type of the value produced by the effect
+     * @return an effect that always fails
+     */
     static <O> VIO<O> fail(final Throwable failure) {
         if (failure == null) return fail(new NullPointerException("failure is null"));
-        return effect(() -> Future.failedFuture(failure));
+        return new Val.Failure<>(failure);
     }
 
     static <O> VIO<O> effect(final Supplier<Future<O>> effect) {
-        Objects.requireNonNull(effect);
-        return new Val<>(requireNonNull(effect));
+        return new Val.Async<>(requireNonNull(effect));
+    }
+
+    /**
+     * Creates an asynchronous effect that can be interrupted. Every time the effect is executed, the register function
+     * is called with a new promise that must be completed with the result, and returns the hook that interrupts that
+     * execution (for example, cancelling a timer or resetting an HTTP request). Combinators that abandon effects before
+     * they complete, like {@link AnyExp#par(VIO, VIO[])} with {@link AnyExp#cancelRemaining()}, invoke it.
+     *
+     * @param register function that starts the effect and returns its cancellation hook, which can be null
+     * @param <O>      the type of the value produced by the effect
+     * @return a cancelable effect
+     */
+    static <O> VIO<O> cancelable(final Function<Promise<O>, Runnable> register) {
+        requireNonNull(register);
+        return new Val.Cancelable<>(() -> Execution.start(register));
     }
 
+    /**
+     * Creates an effect that executes all the given effects in parallel and returns the result of the first one that
+     * succeeds. The losers are cancelled as soon as there is a winner, invoking their cancellation hooks (see
+     * {@link #cancelable(Function)} and {@link #onCancel(Runnable)}), so that they don't hold resources like timers,
+     * connections or reply handlers. If all the effects fail, the race fails with the first failure.
+     *
+     * @param first  the first effect
+     * @param others the rest of the effects
+     * @param <O>    the type of the value produced by the effects
+     * @return a new effect
+     */
     @SafeVarargs
-    @SuppressWarnings({"rawtypes", "varargs"})
     static <O> VIO<O> race(final VIO<O> first,
                            final VIO<O>... others
                           ) {
-        Objects.requireNonNull(first);
-        Objects.requireNonNull(others);
-        List<VIO<O>> list = new ArrayList<>();
+        requireNonNull(first);
+        requireNonNull(others);
+        List<VIO<O>> list = new ArrayList<>(others.length + 1);
         list.add(first);
-        if (others.length > 0) list.addAll(Arrays.stream(others)
-                                                 .toList()
-                                          );
-
-        return VIO.effect(() ->
-                          {
-                              List<Future<?>> futures = list.stream()
-                                                            .map(Supplier::get)
-                                                            .collect(Collectors.toList());
-                              return Future.any(futures)
-                                           .map(cf -> {
-                                                    int index = IntStream.range(0, futures.size())
-                                                                         .filter(cf::succeeded)
-                                                                         .findFirst()
-                                                                         .getAsInt();
-                                                    return cf.resultAt(index);
-                                                }
-                                               );
-                          });
+        for (final VIO<O> other : others) list.add(requireNonNull(other));
+        return race(list);
     }
 
+    /**
+     * Same as {@link #race(VIO, VIO[])} but taking the effects from a list, which can't be empty
+     *
+     * @param effects the effects
+     * @param <O>     the type of the value produced by the effects
+     * @return a new effect
+     */
+    static <O> VIO<O> race(final List<VIO<O>> effects) {
+        if (requireNonNull(effects).isEmpty()) throw new IllegalArgumentException("effects is empty");
+        List<VIO<O>> list = List.copyOf(effects);
+        return new Val.Cancelable<>(() -> Race.execute(list));
+    }
+
+    /**
+     * Creates an effect that succeeds with the given constant. The value is known up front, so operations like
+     * {@link #map(Function)}, {@link #then(Lambda)} or {@link #recover(Function)} on it are run in place without
+     * allocating any Vertx future.
+     *
+     * @param constant the value
+     * @param <O>      the type of the value
+     * @return an effect that always succeeds with the given value
+     */
     static <O> VIO<O> succeed(final O constant) {
-        return new Val<>(() -> Future.succeededFuture(constant));
+        return new Val.Pure<>(constant);
     }
 
     /**
      * Sleeps for the specified duration before evaluating this effect.
-     * <p>This method introduces a pause in the execution flow for the specified duration using the
-     * {@link Thread#sleep(long)} method. It can be useful for testing purposes, or when working with virtual threads.
-     * However, it should be used with caution, as introducing delays in a program's execution blocking threads can
-     * impact performance and behavior.
+     * <p>The sleep doesn't block any thread: a timer is scheduled and this effect is evaluated when it fires. If the
+     * effect is executed on a Vertx context, the timer of the context's Vertx instance is used and the effect resumes on
+     * the same context (so it's safe to use from event loops). Otherwise, a shared scheduler is used, and the effect
+     * resumes on the common ForkJoinPool. The timer is cancelled if the effect is cancelled while sleeping. To bind the timer to a specific Vertx instance, use
+     * {@link #sleep(Delay)}.
      *
      * @param duration The duration to sleep for.
      * @return An {@code IO<O>} representing the delayed operation.
      */
     default VIO<O> sleep(final Duration duration) {
         Objects.requireNonNull(duration);
-        return VIO.lazy(() -> {
-            try {
-                Thread.sleep(duration.toMillis());
-                return null;
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
+        return new Val.Cancelable<Void>(() -> Timers.start(duration))
+                .then(nill -> this);
+    }
 
-        }).then(nill -> this);
+    /**
+     * Waits for the given delay, without blocking any thread, before evaluating this effect.
+     *
+     * @param delay the delay, created with {@link VertxRef#delay(Duration)}
+     * @return An {@code IO<O>} representing the delayed operation.
+     */
+    default VIO<O> sleep(final Delay delay) {
+        Objects.requireNonNull(delay);
+        return delay.effect.then(id -> this);
+    }
 
+    /**
+     * Creates an effect that computes its value with the given blocking supplier, like JDBC or file system calls, every
+     * time it's executed. The supplier runs on a new virtual thread, so it's safe to use from event loops, workers and
+     * the virtual threads of the verticles deployed with {@link io.vertx.core.ThreadingModel#VIRTUAL_THREAD}: none of
+     * them is blocked and the worker pool is not used. The effect resumes on the Vertx context it was executed on, if
+     * any. Cancelling the effect interrupts the thread. If the supplier throws an exception, the effect fails with it.
+     *
+     * @param supplier the blocking supplier of the value
+     * @param <O>      the type of the value
+     * @return an effect
+     */
+    static <O> VIO<O> blocking(final Supplier<O> supplier) {
+        requireNonNull(supplier);
+        return cancelable(promise -> Blocking.start(supplier,
+                                                    promise
+                                                   ));
     }
 
+    /**
+     * Creates an effect that computes its value synchronously with the given supplier every time it's executed. If the
+     * supplier throws an exception, the effect fails with it.
+     *
+     * @param supplier the supplier of the value
+     * @param <O>      the type of the value
+     * @return an effect
+     */
     static <O> VIO<O> lazy(final Supplier<O> supplier){
-        return VIO.effect(()-> Future.succeededFuture(supplier.get()));
+        return new Val.Lazy<>(requireNonNull(supplier));
+    }
+
+    /**
+     * Applies the lambda to every element of the list and executes the returned effects in parallel, keeping at most
+     * maxConcurrency of them in flight. The lambda is applied to an element only when its effect is about to be
+     * started. The results keep the order of the list, and the first failure fails the whole traversal without
+     * starting the remaining effects.
+     *
+     * @param list           the input elements
+     * @param lambda         the lambda that maps every element into an effect
+     * @param maxConcurrency the max number of effects executed at the same time
+     * @param <I>            the type of the elements
+     * @param <O>            the type of the values produced by the effects
+     * @return a parallel ListExp with bounded concurrency
+     * @see ListExp#par(int, VIO[])
+     */
+    static <I, O> ListExp<O> traverse(final List<I> list,
+                                      final Lambda<I, O> lambda,
+                                      final int maxConcurrency
+                                     ) {
+        requireNonNull(list);
+        requireNonNull(lambda);
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency < 1");
+        List<VIO<? extends O>> effects = new ArrayList<>(list.size());
+        for (final I elem : list) effects.add(VIO.succeed(elem)
+                                                 .then(lambda));
+        return new ListExpPar<>(effects,
+                                maxConcurrency
+        );
     }
 
     static <E> VIO<E> NULL() {
@@ -112,9 +212,9 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
      */
     default <P> VIO<P> map(final Function<O, P> fn) {
         Objects.requireNonNull(fn);
-        return VIO.effect(() -> get()
-                                  .map(fn)
-                         );
+        return Val.map(this,
+                       fn
+                      );
     }
 
     /**
@@ -128,9 +228,9 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
      */
     default <Q> VIO<Q> then(final Lambda<O, Q> lambda) {
         Objects.requireNonNull(lambda);
-        return VIO.effect(() -> get().flatMap(o -> lambda.apply(o)
-                                                         .get())
-                         );
+        return new Val.FlatMap<>(this,
+                                 lambda
+        );
     }
 
     default <U> VIO<U> then(final Lambda<O, U> successMapper,
@@ -139,13 +239,10 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
         Objects.requireNonNull(successMapper);
         Objects.requireNonNull(failureMapper);
 
-        return VIO.effect(() -> get().compose(result -> successMapper.apply(result)
-                                                                     .get(),
-                                              failure -> failureMapper.apply(failure)
-                                                                      .get()
-                                             )
-                         );
-
+        return new Val.Attempt<>(this,
+                                 successMapper,
+                                 failureMapper
+        );
     }
 
 
@@ -177,6 +274,10 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
                                 Optional<Delay> delayOpt = policy.apply(rs);
                                 if (delayOpt.isEmpty()) return VIO.fail(exc);
                                 Delay delay = delayOpt.get();
+                                EventPublisher.PUBLISHER.publishRetryAttempt(exc,
+                                                                             rs,
+                                                                             delay
+                                                                            );
                                 return delay.effect.then(nill -> {
                                                              long delayDuration = delay.duration.toMillis();
                                                              return retry(exp,
@@ -256,10 +357,9 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
 
     default VIO<O> recover(final Function<Throwable, O> lambda) {
         Objects.requireNonNull(lambda);
-        return VIO.effect(() -> get().compose(Future::succeededFuture,
-                                              e -> Future.succeededFuture(lambda.apply(e))
-                                             )
-                         );
+        return new Val.Recover<>(this,
+                                 e -> VIO.succeed(lambda.apply(e))
+        );
     }
 
     /**
@@ -272,24 +372,17 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
 
     default VIO<O> recoverWith(final Lambda<Throwable, O> lambda) {
         Objects.requireNonNull(lambda);
-        return VIO.effect(() -> get().compose(Future::succeededFuture,
-                                              e -> lambda.apply(e)
-                                                         .get()
-                                             )
-                         );
+        return new Val.Recover<>(this,
+                                 lambda
+        );
     }
 
     default VIO<O> fallbackTo(final Lambda<Throwable, O> lambda) {
         Objects.requireNonNull(lambda);
-        return VIO.effect(() -> get().compose(Future::succeededFuture,
-                                              e -> lambda.apply(e)
-                                                         .get()
-                                                         .compose(Future::succeededFuture,
-                                                                  e1 -> Future.failedFuture(e)
-                                                                 )
-                                             )
-                         );
-
+        return new Val.Recover<>(this,
+                                 e -> lambda.apply(e)
+                                            .recoverWith(e1 -> VIO.fail(e))
+        );
     }
 
     /**
@@ -300,7 +393,11 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
      */
     default VIO<O> onSuccess(final Consumer<O> successConsumer) {
         Objects.requireNonNull(successConsumer);
-        return VIO.effect(() -> get().onSuccess(successConsumer::accept));
+        return new Val.Observe<>(this,
+                                 event -> {
+                                     if (event.succeeded()) successConsumer.accept(event.result());
+                                 }
+        );
     }
 
     /**
@@ -316,11 +413,12 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
         Objects.requireNonNull(successConsumer);
         Objects.requireNonNull(failureConsumer);
 
-        return VIO.effect(() -> get().onComplete(event -> {
-                              if (event.succeeded()) successConsumer.accept(event.result());
-                              else failureConsumer.accept(event.cause());
-                          })
-                         );
+        return new Val.Observe<>(this,
+                                 event -> {
+                                     if (event.succeeded()) successConsumer.accept(event.result());
+                                     else failureConsumer.accept(event.cause());
+                                 }
+        );
     }
 
     /**
@@ -331,10 +429,149 @@ public sealed interface VIO<O> extends Supplier<Future<O>> permits Exp, Val {
      */
     default VIO<O> onComplete(final Handler<AsyncResult<O>> handler) {
         Objects.requireNonNull(handler);
-        return VIO.effect(() -> get().onComplete(handler));
+        return new Val.Observe<>(this,
+                                 handler
+        );
+    }
+
+
+    /**
+     * Registers a hook that is invoked if the execution of this effect is cancelled before it completes. The hook is
+     * invoked at most once per execution, and the cancellation is propagated to this effect as well.
+     *
+     * @param hook the action that interrupts the effect
+     * @return a cancelable effect
+     * @see #cancelable(Function)
+     */
+    default VIO<O> onCancel(final Runnable hook) {
+        Objects.requireNonNull(hook);
+        return cancelable(promise -> {
+            Execution<O> execution = Execution.of(this);
+            execution.future()
+                     .onComplete(promise);
+            return () -> {
+                execution.cancel();
+                hook.run();
+            };
+        });
+    }
+
+    /**
+     * Hedges this effect to reduce tail latency: it's executed and, every time the given delay elapses without a
+     * result, a new copy of it is started, up to maxCopies copies in total (including the first one). The first copy
+     * that succeeds wins, and the rest of them and the pending timer are cancelled. If all the copies started so far
+     * fail, the effect fails with the first failure and no more copies are started. The events {@link Event#HEDGE_FIRED}
+     * and {@link Event#HEDGE_WON} are published when a copy is started because of the delay and when one of those
+     * copies wins.
+     *
+     * @param after     the delay after which a new copy is started, created with {@link VertxRef#delay(Duration)}
+     * @param maxCopies the max number of copies of the effect executed at the same time
+     * @return a new effect
+     */
+    default VIO<O> hedge(final Delay after,
+                         final int maxCopies
+                        ) {
+        Objects.requireNonNull(after);
+        if (maxCopies < 1) throw new IllegalArgumentException("maxCopies < 1");
+        if (maxCopies == 1) return this;
+        return new Val.Cancelable<>(() -> Hedge.execute(this,
+                                                        after,
+                                                        maxCopies
+                                                       ));
+    }
+
+    /**
+     * Bounds this effect in time: if it doesn't complete within the given duration, it's cancelled and the returned
+     * effect fails with a {@link TimeoutException}. The timer doesn't block any thread (see {@link #sleep(Duration)}),
+     * and it's cancelled as soon as this effect completes.
+     *
+     * @param duration the max time this effect can take
+     * @return a new effect
+     */
+    default VIO<O> timeout(final Duration duration) {
+        Objects.requireNonNull(duration);
+        return new Val.Cancelable<>(() -> Timeout.execute(this,
+                                                          duration,
+                                                          null
+                                                         ));
+    }
 
+    /**
+     * Bounds this effect in time: if it doesn't complete within the given duration, it's cancelled and the returned
+     * effect is computed by the fallback from the {@link TimeoutException}. Failures of this effect that happen before
+     * the timeout are not handled by the fallback.
+     *
+     * @param duration the max time this effect can take
+     * @param fallback the lambda that computes the result when this effect times out
+     * @return a new effect
+     */
+    default VIO<O> timeout(final Duration duration,
+                           final Lambda<TimeoutException, O> fallback
+                          ) {
+        Objects.requireNonNull(duration);
+        Objects.requireNonNull(fallback);
+        return new Val.Cancelable<>(() -> Timeout.execute(this,
+                                                          duration,
+                                                          fallback
+                                                         ));
+    }
+
+    /**
+     * Returns an effect that executes this one only once and caches its result. Concurrent executions share the same
+     * in-flight future, and the following ones get the cached result. Failures are not cached: the next execution after
+     * a failure executes this effect again. The returned effect holds the cache, so it must be created once and shared.
+     *
+     * @return a memoized effect
+     * @see #cached(Duration)
+     */
+    default VIO<O> memoize() {
+        return VIO.effect(new Memo<>(this,
+                                     Long.MAX_VALUE,
+                                     Long.MAX_VALUE
+        ));
     }
 
+    /**
+     * Like {@link #memoize()}, but the result is cached for the given ttl. The first execution after the ttl executes
+     * this effect again, sharing the in-flight future with the concurrent ones. Useful for expensive lookups like
+     * configuration or reference data.
+     *
+     * @param ttl the time a result is cached for
+     * @return a cached effect
+     * @see #refreshAhead(Duration, Duration)
+     */
+    default VIO<O> cached(final Duration ttl) {
+        Objects.requireNonNull(ttl);
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl <= 0");
+        return VIO.effect(new Memo<>(this,
+                                     ttl.toNanos(),
+                                     Long.MAX_VALUE
+        ));
+    }
+
+    /**
+     * Like {@link #cached(Duration)}, but once the result is older than refreshAfter, it's still returned while this
+     * effect is executed in the background to refresh it, so that callers don't wait for a reload. Only one refresh is
+     * in flight at a time. If it fails, the stale result is still served, but it's not refreshed again until a quarter
+     * of the time between refreshAfter and the ttl has passed. A result is never served past the ttl.
+     *
+     * @param ttl          the time a result is cached for
+     * @param refreshAfter the age of a result after which it's refreshed in the background, less than the ttl
+     * @return a cached effect
+     */
+    default VIO<O> refreshAhead(final Duration ttl,
+                                final Duration refreshAfter
+                               ) {
+        Objects.requireNonNull(ttl);
+        Objects.requireNonNull(refreshAfter);
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl <= 0");
+        if (refreshAfter.isNegative() || refreshAfter.compareTo(ttl) >= 0)
+            throw new IllegalArgumentException("refreshAfter not in [0, ttl)");
+        return VIO.effect(new Memo<>(this,
+                                     ttl.toNanos(),
+                                     refreshAfter.toNanos()
+        ));
+    }
 
     default O result() {
         return get().result();
@@ -1,22 +1,236 @@
 package vertx.effect;
 
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 
+import java.util.Arrays;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+/**
+ * A Val is a node of the instruction tree that describes a {@link VIO} program. Every operator ({@link VIO#map},
+ * {@link VIO#then}, {@link VIO#recoverWith}, {@link VIO#onComplete(Handler)} etc.) just creates a node pointing to the
+ * previous effect, and nothing is executed until {@link #get()} is called, when the tree is evaluated by the
+ * {@link Interpreter} run loop.
+ *
+ * @param <O> the type of the value produced by the future
+ */
+abstract sealed class Val<O> implements VIO<O> permits Val.Pure, Val.Failure, Val.Lazy, Val.Async, Val.Cancelable, Val.Map, Val.FlatMap, Val.Attempt, Val.Recover, Val.Observe {
 
-final class Val<O> implements VIO<O> {
-    private final Supplier<Future<O>> futureSupplier;
-
-    Val(final Supplier<Future<O>> futureSupplier) {
-        this.futureSupplier = futureSupplier;
+    private Val() {
     }
 
+    /**
+     * Maximum number of functions fused into a single map node. Fusing copies the functions of the previous node, so
+     * the bound keeps a long chain of maps linear.
+     */
+    static final int MAX_FUSED_MAPS = 16;
+
+    @SuppressWarnings("unchecked")
+    static <I, O> Val<O> map(final VIO<I> source,
+                             final Function<I, O> fn
+                            ) {
+        // consecutive maps are fused into one node, whose functions the run loop applies in a loop
+        if (source instanceof Map<?> map && map.fns.length < MAX_FUSED_MAPS) {
+            final Function<Object, Object>[] fns = Arrays.copyOf(map.fns,
+                                                                 map.fns.length + 1
+                                                                );
+            fns[map.fns.length] = (Function<Object, Object>) fn;
+            return new Map<>(map.source,
+                             fns
+            );
+        }
+        return new Map<>(source,
+                         new Function[]{fn}
+        );
+    }
 
     @Override
     public Future<O> get() {
-        return futureSupplier.get();
+        return Interpreter.run(this);
+    }
+
+    /**
+     * Leaf of the tree: an effect whose result is already known. The run loop consumes it in place without allocating
+     * any future.
+     */
+    static final class Pure<O> extends Val<O> {
+        final O value;
+
+        Pure(final O value) {
+            this.value = value;
+        }
+
+        @Override
+        public Future<O> get() {
+            return Future.succeededFuture(value);
+        }
+    }
+
+    /**
+     * Leaf of the tree: an effect whose failure is already known. The run loop consumes it in place without allocating
+     * any future.
+     */
+    static final class Failure<O> extends Val<O> {
+        final Throwable failure;
+
+        Failure(final Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public Future<O> get() {
+            return Future.failedFuture(failure);
+        }
+    }
+
+    /**
+     * Leaf of the tree: an effect that computes its result synchronously every time it's executed. The run loop
+     * consumes it in place without allocating any future.
+     */
+    static final class Lazy<O> extends Val<O> {
+        final Supplier<O> supplier;
+
+        Lazy(final Supplier<O> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public Future<O> get() {
+            try {
+                return Future.succeededFuture(supplier.get());
+            } catch (Exception e) {
+                return Future.failedFuture(e);
+            }
+        }
     }
 
+    /**
+     * Leaf of the tree: an effect that returns a Vertx future when executed
+     */
+    static final class Async<O> extends Val<O> {
+        final Supplier<Future<O>> effect;
+
+        Async(final Supplier<Future<O>> effect) {
+            this.effect = effect;
+        }
+
+        @Override
+        public Future<O> get() {
+            return effect.get();
+        }
+    }
+
+    /**
+     * Leaf of the tree: an asynchronous effect that can be cancelled. Every time it's executed, the supplier starts a
+     * new {@link Execution}, which the run loop keeps while it's running so that it can be cancelled.
+     */
+    static final class Cancelable<O> extends Val<O> {
+        final Supplier<Execution<O>> start;
+
+        Cancelable(final Supplier<Execution<O>> start) {
+            this.start = start;
+        }
+
+        Execution<O> execute() {
+            try {
+                return start.get();
+            } catch (Exception e) {
+                return Execution.of(Future.failedFuture(e));
+            }
+        }
+
+        @Override
+        public Future<O> get() {
+            return execute().future();
+        }
+    }
+
+    /**
+     * Applies a sequence of pure functions to the successful result of the source
+     */
+    static final class Map<O> extends Val<O> {
+        final VIO<?> source;
+        final Function<Object, Object>[] fns;
+
+        Map(final VIO<?> source,
+            final Function<Object, Object>[] fns
+           ) {
+            this.source = source;
+            this.fns = fns;
+        }
+
+        /**
+         * Applies the fused functions in order to the given value.
+         */
+        Object apply(Object value) {
+            for (final Function<Object, Object> fn : fns) value = fn.apply(value);
+            return value;
+        }
+    }
+
+    /**
+     * Continues with the effect returned by the lambda when the source succeeds
+     */
+    static final class FlatMap<I, O> extends Val<O> {
+        final VIO<I> source;
+        final Lambda<I, O> lambda;
+
+        FlatMap(final VIO<I> source,
+                final Lambda<I, O> lambda
+               ) {
+            this.source = source;
+            this.lambda = lambda;
+        }
+    }
+
+    /**
+     * Continues with the effect returned by one of the lambdas, depending on whether the source succeeds or fails
+     */
+    static final class Attempt<I, O> extends Val<O> {
+        final VIO<I> source;
+        final Lambda<I, O> success;
+        final Lambda<Throwable, O> failure;
+
+        Attempt(final VIO<I> source,
+                final Lambda<I, O> success,
+                final Lambda<Throwable, O> failure
+               ) {
+            this.source = source;
+            this.success = success;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Continues with the effect returned by the lambda when the source fails
+     */
+    static final class Recover<O> extends Val<O> {
+        final VIO<O> source;
+        final Lambda<Throwable, O> lambda;
+
+        Recover(final VIO<O> source,
+                final Lambda<Throwable, O> lambda
+               ) {
+            this.source = source;
+            this.lambda = lambda;
+        }
+    }
+
+    /**
+     * Notifies the handler of the result of the source, which is passed through unchanged
+     */
+    static final class Observe<O> extends Val<O> {
+        final VIO<O> source;
+        final Handler<AsyncResult<O>> handler;
+
+        Observe(final VIO<O> source,
+                final Handler<AsyncResult<O>> handler
+               ) {
+            this.source = source;
+            this.handler = handler;
+        }
+    }
 
 }
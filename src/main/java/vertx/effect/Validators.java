@@ -52,7 +52,8 @@ public final class Validators {
     /**
      * returns a λ that validates the input against a predicate, returning the same input if the validation
      * succeeds, or returning an error otherwise. In case of error it returns a ReplyFailure with the code
-     * {@link Failures#BAD_MESSAGE_CODE}
+     * {@link Failures#BAD_MESSAGE_CODE}. Since the message of the error is fixed, the failure is created once and
+     * returned for every invalid input.
      *
      * @param predicate    the predicate on which the input will be tested on
      * @param errorMessage the message of the error returned
@@ -63,9 +64,10 @@ public final class Validators {
     public static <I> Lambda<I, I> validate(final Predicate<I> predicate,
                                             final String errorMessage
                                            ) {
+        final VIO<I> failure = VIO.fail(Failures.GET_BAD_MESSAGE_EXCEPTION.apply(errorMessage));
         return message -> predicate.test(message) ?
                 VIO.succeed(message) :
-                VIO.fail(Failures.GET_BAD_MESSAGE_EXCEPTION.apply(errorMessage));
+                failure;
     }
 
 
@@ -1,16 +1,25 @@
 package vertx.effect;
 
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -43,6 +52,23 @@ public final class VerticleRef<I, O> {
      */
     public final Set<String> ids;
     private final Vertx vertx;
+    /**
+     * the codec of the messages sent to this verticle, or null to use the default one
+     */
+    private final String codecName;
+    /**
+     * the dispatcher to send messages without the event bus, or null if the verticle is not deployed by a VertxRef
+     */
+    private final LocalDispatcher<I, O> dispatcher;
+    private final boolean local;
+    /**
+     * the metrics of the mailbox, or null if the verticle is not deployed with a {@link MailboxPolicy}
+     */
+    private final MailboxMetrics mailbox;
+    /**
+     * the round-trip time of the asks, or null if the verticle is not deployed by a {@link VertxRef}
+     */
+    private final LatencyHistogram roundTrip;
 
     public VerticleRef(final Vertx vertx,
                        final String address
@@ -50,18 +76,179 @@ public final class VerticleRef<I, O> {
         this.vertx = requireNonNull(vertx);
         this.address = requireNonNull(address);
         ids = Set.of();
+        codecName = null;
+        dispatcher = null;
+        local = false;
+        mailbox = null;
+        roundTrip = null;
     }
 
     VerticleRef(final Vertx vertx,
                 final Set<String> ids,
                 final String address
                ) {
+        this(vertx,
+             ids,
+             address,
+             null
+            );
+    }
+
+    VerticleRef(final Vertx vertx,
+                final Set<String> ids,
+                final String address,
+                final String codecName
+               ) {
+        this(vertx,
+             ids,
+             address,
+             codecName,
+             null,
+             false
+            );
+    }
+
+    VerticleRef(final Vertx vertx,
+                final Set<String> ids,
+                final String address,
+                final String codecName,
+                final LocalDispatcher<I, O> dispatcher,
+                final boolean local
+               ) {
+        this(vertx,
+             ids,
+             address,
+             codecName,
+             dispatcher,
+             local,
+             null,
+             null
+            );
+    }
+
+    VerticleRef(final Vertx vertx,
+                final Set<String> ids,
+                final String address,
+                final String codecName,
+                final LocalDispatcher<I, O> dispatcher,
+                final boolean local,
+                final MailboxMetrics mailbox,
+                final LatencyHistogram roundTrip
+               ) {
         this.vertx = requireNonNull(vertx);
         this.ids = requireNonNull(ids);
         this.address = requireNonNull(address);
+        this.codecName = codecName;
+        this.dispatcher = dispatcher;
+        this.local = local && dispatcher != null;
+        this.mailbox = mailbox;
+        this.roundTrip = roundTrip;
         if (ids.isEmpty()) throw new IllegalArgumentException("ids is empty");
     }
 
+    /**
+     * Returns a reference to this verticle in local mode, if it was deployed from a lambda by {@link VertxRef} in this
+     * process. In local mode, the lambdas returned by {@link #ask()}, {@link #trace()} and {@link #tell()} don't send
+     * messages through the event bus: the deployed lambda is invoked directly on the context of one of the verticle
+     * instances, so it's still executed by one thread at a time, and the reply is handed back on the context of the
+     * caller. No message, reply handler or codec is involved. The headers passed to {@link #trace()} reach the lambda,
+     * the send timeout of the delivery options is honored, and the same events and failures as with the event bus are
+     * produced. Otherwise, this same reference is returned.
+     *
+     * @return a VerticleRef in local mode, or this VerticleRef if local mode is not available
+     */
+    public VerticleRef<I, O> local() {
+        if (local || dispatcher == null) return this;
+        return new VerticleRef<>(vertx,
+                                 ids,
+                                 address,
+                                 codecName,
+                                 dispatcher,
+                                 true,
+                                 mailbox,
+                                 roundTrip
+        );
+    }
+
+    /**
+     * Returns true if this reference is in local mode.
+     *
+     * @return true if this reference is in local mode
+     * @see #local()
+     */
+    public boolean isLocal() {
+        return local;
+    }
+
+    /**
+     * Returns the metrics of the mailbox of this verticle, like the number of messages queued or rejected, if it was
+     * deployed with a {@link MailboxPolicy}.
+     *
+     * @return the metrics of the mailbox, or empty if the verticle was deployed without a policy
+     */
+    public Optional<MailboxMetrics> mailbox() {
+        return Optional.ofNullable(mailbox);
+    }
+
+    /**
+     * processes the message with the local dispatcher, completing the reply on the context of the caller
+     */
+    private Future<O> request(final MultiMap headers,
+                              final I body,
+                              final DeliveryOptions options
+                             ) {
+        Context target = dispatcher.next();
+        if (target == null) return Future.failedFuture(new ReplyException(ReplyFailure.NO_HANDLERS,
+                                                                          "No handlers for address " + address
+                                                       ));
+        Context caller = Vertx.currentContext();
+        Promise<O> promise = Promise.promise();
+        long timeout = options.getSendTimeout();
+        long timerId = timeout > 0 ?
+                       vertx.setTimer(timeout,
+                                      id -> promise.tryFail(new ReplyException(ReplyFailure.TIMEOUT,
+                                                                               String.format("Timed out after waiting %d(ms) for a reply. address: %s",
+                                                                                             timeout,
+                                                                                             address
+                                                                                            )
+                                      ))
+                                     ) :
+                       -1;
+        dispatcher.dispatch(target,
+                            headers,
+                            body
+                           )
+                  .onComplete(reply -> {
+                      if (timerId != -1) vertx.cancelTimer(timerId);
+                      if (caller == null || caller == target) complete(promise,
+                                                                       reply
+                                                                      );
+                      else caller.runOnContext(it -> complete(promise,
+                                                              reply
+                                                             ));
+                  });
+        return promise.future();
+    }
+
+    private static <O> void complete(final Promise<O> promise,
+                                     final AsyncResult<O> reply
+                                    ) {
+        if (reply.succeeded()) promise.tryComplete(reply.result());
+        else promise.tryFail(reply.cause());
+    }
+
+    /**
+     * the lists of a batch are passed by reference and can't be serialized, so they are only delivered to the consumers
+     * of this node. In a cluster, the ask fails with NO_HANDLERS instead of with an error of the codec when the batch
+     * verticle is not deployed locally
+     */
+    private DeliveryOptions withCodec(final DeliveryOptions options) {
+        return codecName == null || options.getCodecName() != null ?
+               options :
+               new DeliveryOptions(options).setCodecName(codecName)
+                                           .setLocalOnly(ListMessageCodec.NAME.equals(codecName));
+    }
+
     /**
      * returns a lambda to establish a bidirectional conversation with this verticle
      *
@@ -71,29 +258,40 @@ public final class VerticleRef<I, O> {
 
     public Lambda<I, O> ask(final DeliveryOptions options) {
         requireNonNull(options);
+        DeliveryOptions deliveryOptions = withCodec(options);
+        LocalCodecs.Selector selector = LocalCodecs.selector(deliveryOptions);
         return body -> VIO.effect(() -> {
+                                      final long sent = System.nanoTime();
                                       try {
-                                          PUBLISHER.publishMessageSent(address, body)
-                                                   .accept(vertx);
-                                          return vertx.eventBus().<O>request(address,
-                                                                             body,
-                                                                             options
-                                                                            )
-                                                      .onComplete(event -> {
-                                                          if (event.succeeded()) {
-                                                              PUBLISHER.publishResponseReceived(address,
-                                                                                                EMPTY_HEADERS.get()
-                                                                                               )
-                                                                       .accept(vertx);
-                                                          } else {
-                                                              PUBLISHER.publishFailureReceived(
-                                                                               address,
-                                                                               event.cause()
-                                                                                              )
-                                                                       .accept(vertx);
-                                                          }
-                                                      })
-                                                      .map(Message::body);
+                                          PUBLISHER.publishMessageSent(vertx,
+                                                                       address,
+                                                                       body
+                                                                      );
+                                          Future<O> reply = local ?
+                                                            request(EMPTY_HEADERS.get(),
+                                                                    body,
+                                                                    deliveryOptions
+                                                                   ) :
+                                                            vertx.eventBus().<O>request(address,
+                                                                                        body,
+                                                                                        selector.of(body)
+                                                                                       )
+                                                                 .map(Message::body);
+                                          return reply.onComplete(event -> {
+                                              if (roundTrip != null) roundTrip.record(System.nanoTime() - sent,
+                                                                                      event.failed()
+                                                                                     );
+                                              if (event.succeeded()) {
+                                                  PUBLISHER.publishResponseReceived(vertx,
+                                                                                    address
+                                                                                   );
+                                              } else {
+                                                  PUBLISHER.publishFailureReceived(vertx,
+                                                                                   address,
+                                                                                   event.cause()
+                                                                                  );
+                                              }
+                                          });
 
                                       } catch (Exception e) {
                                           return Future.failedFuture(e);
@@ -113,31 +311,42 @@ public final class VerticleRef<I, O> {
     public Lambdac<I, O> trace(final DeliveryOptions options) {
         requireNonNull(options);
         return (context, body) -> VIO.effect(() -> {
+                                                 final long sent = System.nanoTime();
                                                  try {
-                                                     PUBLISHER.publishMessageSent(address,
+                                                     PUBLISHER.publishMessageSent(vertx,
+                                                                                  address,
                                                                                   body,
                                                                                   context
-                                                                                 )
-                                                              .accept(vertx);
-                                                     return vertx.eventBus().<O>request(address,
-                                                                                        body,
-                                                                                        options.setHeaders(context)
-                                                                                       )
-                                                                 .onComplete(event -> {
-                                                                     if (event.succeeded()) {
-                                                                         PUBLISHER.publishResponseReceived(address,
-                                                                                                           context
-                                                                                                          )
-                                                                                  .accept(vertx);
-                                                                     } else {
-                                                                         PUBLISHER.publishFailureReceived(address,
-                                                                                                          event.cause(),
-                                                                                                          context
-                                                                                                         )
-                                                                                  .accept(vertx);
-                                                                     }
-                                                                 })
-                                                                 .map(Message::body);
+                                                                                 );
+                                                     Future<O> reply = local ?
+                                                                       request(context,
+                                                                               body,
+                                                                               options
+                                                                              ) :
+                                                                       vertx.eventBus().<O>request(address,
+                                                                                                   body,
+                                                                                                   LocalCodecs.withCodec(withCodec(options.setHeaders(context)),
+                                                                                                                         body
+                                                                                                                        )
+                                                                                                  )
+                                                                            .map(Message::body);
+                                                     return reply.onComplete(event -> {
+                                                         if (roundTrip != null) roundTrip.record(System.nanoTime() - sent,
+                                                                                                 event.failed()
+                                                                                                );
+                                                         if (event.succeeded()) {
+                                                             PUBLISHER.publishResponseReceived(vertx,
+                                                                                               address,
+                                                                                               context
+                                                                                              );
+                                                         } else {
+                                                             PUBLISHER.publishFailureReceived(vertx,
+                                                                                              address,
+                                                                                              event.cause(),
+                                                                                              context
+                                                                                             );
+                                                         }
+                                                     });
 
                                                  } catch (Exception e) {
                                                      return Future.failedFuture(e);
@@ -156,6 +365,62 @@ public final class VerticleRef<I, O> {
         return ask(DEFAULT);
     }
 
+    /**
+     * returns a lambda to establish a bidirectional conversation with this verticle that coalesces concurrent requests:
+     * while a request is in flight, the asks with an equal body don't send a new message and get the reply of the
+     * in-flight one. Failures and send timeouts are propagated to every waiter as well, and the next ask after the
+     * reply sends a new message. The returned lambda keeps track of the in-flight requests, so it must be created once
+     * and shared.
+     *
+     * @return a lambda
+     * @see #askCoalesced(DeliveryOptions, Function)
+     */
+    public Lambda<I, O> askCoalesced() {
+        return askCoalesced(DEFAULT,
+                            Function.identity()
+                           );
+    }
+
+    /**
+     * returns a lambda to establish a bidirectional conversation with this verticle that coalesces the concurrent
+     * requests with the same key: while a request is in flight, the asks with the same key don't send a new message and
+     * get the reply of the in-flight one, resuming on their own context. Failures and send timeouts are propagated to
+     * every waiter as well, and the next ask after the reply sends a new message. The returned lambda keeps track of
+     * the in-flight requests, so it must be created once and shared.
+     *
+     * @param options the delivery options
+     * @param key     the function that computes the key of a message. Messages with the same key must get the same
+     *                reply
+     * @param <K>     the type of the key
+     * @return a lambda
+     */
+    public <K> Lambda<I, O> askCoalesced(final DeliveryOptions options,
+                                         final Function<I, K> key
+                                        ) {
+        requireNonNull(options);
+        requireNonNull(key);
+        Lambda<I, O> ask = ask(options);
+        Map<K, Future<O>> inFlight = new ConcurrentHashMap<>();
+        return body -> VIO.effect(() -> {
+            K k = requireNonNull(key.apply(body));
+            Promise<O> promise = Promise.promise();
+            Future<O> current = inFlight.putIfAbsent(k,
+                                                     promise.future()
+                                                    );
+            if (current != null) return Contexts.onCallerContext(current);
+            ask.apply(body)
+               .get()
+               .onComplete(reply -> {
+                   // removed before completing, so that the asks that see the reply send a new message
+                   inFlight.remove(k,
+                                   promise.future()
+                                  );
+                   promise.handle(reply);
+               });
+            return Contexts.onCallerContext(promise.future());
+        });
+    }
+
     /**
      * returns a lambda with context to establish a bidirectional conversation with this verticle. A lambda with context
      * takes two parameters, the message to be sent and and the context, which is represented with message headers
@@ -176,11 +441,19 @@ public final class VerticleRef<I, O> {
      */
     public Consumer<I> tell(final DeliveryOptions options) {
         requireNonNull(options);
-        return body -> vertx.eventBus()
-                            .send(address,
-                                  body,
-                                  options
-                                 );
+        LocalCodecs.Selector selector = LocalCodecs.selector(withCodec(options));
+        return body -> {
+            Context target = local ? dispatcher.next() : null;
+            if (target != null) dispatcher.dispatch(target,
+                                                    EMPTY_HEADERS.get(),
+                                                    body
+                                                   );
+            else vertx.eventBus()
+                      .send(address,
+                            body,
+                            selector.of(body)
+                           );
+        };
     }
 
     /**
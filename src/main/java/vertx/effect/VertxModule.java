@@ -5,12 +5,10 @@ import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Promise;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
-import io.vertx.core.eventbus.ReplyException;
 
 import java.util.Map;
 import java.util.function.Consumer;
 
-import static io.vertx.core.eventbus.ReplyFailure.RECIPIENT_FAILURE;
 import static java.util.Objects.requireNonNull;
 import static vertx.effect.Failures.EXCEPTION_DEPLOYING_MODULE_CODE;
 
@@ -105,19 +103,15 @@ public abstract class VertxModule extends AbstractVerticle {
                                initialize();
                                start.complete();
                            } catch (Exception e) {
-                               start.fail(new ReplyException(RECIPIENT_FAILURE,
-                                                             EXCEPTION_DEPLOYING_MODULE_CODE,
-                                                             Functions.getErrorMessage(e)
-                               ));
+                               start.fail(ExceptionReply.of(EXCEPTION_DEPLOYING_MODULE_CODE,
+                                                            e));
                            }
                        }
                    }).get();
 
         } catch (Exception e) {
-            start.fail(new ReplyException(RECIPIENT_FAILURE,
-                                          EXCEPTION_DEPLOYING_MODULE_CODE,
-                                          Functions.getErrorMessage(e)
-            ));
+            start.fail(ExceptionReply.of(EXCEPTION_DEPLOYING_MODULE_CODE,
+                                         e));
         }
     }
 
@@ -8,10 +8,12 @@ import io.vertx.core.eventbus.ReplyException;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import static io.vertx.core.eventbus.ReplyFailure.RECIPIENT_FAILURE;
 import static java.util.Objects.requireNonNull;
 import static vertx.effect.Failures.INTERNAL_ERROR_CODE;
 import static vertx.effect.Failures.UNKNOWN_ERROR_CODE;
@@ -22,7 +24,7 @@ import static vertx.effect.Failures.UNKNOWN_ERROR_CODE;
  * <li>deploy verticles from instances of {@link AbstractVerticle}, {@link Lambda } lambdas and consumers. You get a {@link VerticleRef} wrapped in a Val.
  * A VerticleRef is a wrapper around a verticle to interact with it using functions. </li>
  * <li>spawn lambdas {@link Lambda }.  When a lambda receives a message, it deploys a verticle, do a computation and then
- * undeploy the verticle after returning the response.</li>
+ * undeploy the verticle after returning the response, or reuses a verticle from a pool.</li>
  * <li>register a consumer that listen on an address. There is a special address {@link #EVENTS_ADDRESS} where logging
  * events are published.
  * </li>
@@ -37,8 +39,17 @@ public final class VertxRef {
     public static final String EVENTS_ADDRESS = "vertx-effect-log-events";
     private static final DeploymentOptions DEFAULT_OPTIONS = new DeploymentOptions();
     private static final AtomicLong processSeq = new AtomicLong(0);
+    private static final String SPAWNED_PREFIX = "spawned.";
     private final Vertx vertx;
     private final DeploymentOptions deploymentOptions;
+    /**
+     * the service time of the lambdas deployed by this instance, per address, or per prefix for the spawned ones
+     */
+    private final Map<String, LatencyHistogram> serviceTimes = new ConcurrentHashMap<>();
+    /**
+     * the round-trip time of the asks made through the VerticleRefs returned by the deployments, per address
+     */
+    private final Map<String, LatencyHistogram> roundTrips = new ConcurrentHashMap<>();
 
     /**
      * @param vertx the vertx instance
@@ -59,14 +70,97 @@ public final class VertxRef {
                    ) {
         this.vertx = requireNonNull(vertx);
         this.deploymentOptions = requireNonNull(deploymentOptions);
+        LocalCodecs.register(vertx);
+    }
+
+    /**
+     * Registers a codec that passes the messages of the given type by reference to local consumers, instead of copying
+     * them. Use it for immutable types, like records whose components are immutable, sent with
+     * {@link VerticleRef#ask()} or {@link VerticleRef#tell()}. Since the messages are not serialized, they can't be sent
+     * to other nodes of a cluster: the VerticleRefs only send them to local consumers. JsObj and JsArray don't need to
+     * be registered: they are passed by reference locally and serialized only when sent to other nodes.
+     *
+     * @param type the class of the messages, that must be immutable
+     * @param <T>  the type of the messages
+     * @return this VertxRef
+     * @throws IllegalStateException if there is already a default codec for the type
+     */
+    public <T> VertxRef registerLocalCodec(final Class<T> type) {
+        LocalCodecs.registerByReference(vertx,
+                                        requireNonNull(type)
+                                       );
+        return this;
+    }
+
+    /**
+     * Sends every JsObj and JsArray to other nodes of the cluster with the {@link JsonBinaryCodec} instead of as JSON
+     * text: messages, replies and events. It only applies when the system property vertx.effect.codecs.json.local is
+     * true, since otherwise JsObj and JsArray are sent with the default codecs of vertx-json-values. Every node reads
+     * both formats, so it can be enabled node by node. To use the binary codec just for some messages, set
+     * {@link JsonBinaryCodec#NAME} as the codec name of their {@link DeliveryOptions} instead.
+     *
+     * @return this VertxRef
+     */
+    public VertxRef useBinaryJsonCodec() {
+        LocalCodecs.useBinaryJson(vertx);
+        return this;
     }
 
     private static DeliveryOptions createDeliveryOpt(MultiMap multiMap) {
         return new DeliveryOptions().setHeaders(multiMap);
     }
 
+    private static DeliveryOptions createDeliveryOpt(MultiMap multiMap,
+                                                     String codecName,
+                                                     Object reply
+                                                    ) {
+        DeliveryOptions options = createDeliveryOpt(multiMap);
+        if (codecName == null) codecName = LocalCodecs.codecName(reply);
+        return codecName == null ? options : options.setCodecName(codecName);
+    }
+
+    private LatencyHistogram serviceTime(final String address) {
+        return serviceTimes.computeIfAbsent(address,
+                                            it -> new LatencyHistogram()
+                                           );
+    }
+
+    private LatencyHistogram roundTrip(final String address) {
+        return roundTrips.computeIfAbsent(address,
+                                          it -> new LatencyHistogram()
+                                         );
+    }
+
+    /**
+     * Returns a snapshot of the latencies of the lambdas deployed by this instance, per address. The service time is
+     * recorded for every message processed by a lambda deployed with any of the methods {@code deploy}, {@code spawn}
+     * and {@code spawnPooled}, and the round-trip time for every {@link VerticleRef#ask()} and
+     * {@link VerticleRef#trace()} made through the VerticleRef returned by a {@code deploy} method. The spawned lambdas
+     * are grouped by the prefix of their addresses, for example spawned.get_client. The latencies are recorded in
+     * histograms of fixed size, without locks, so that the p99 of every address can be monitored in production.
+     *
+     * @return an immutable map of the metrics sorted by address
+     * @see HttpServerBuilder#withMetrics(String, VertxRef)
+     */
+    public SortedMap<String, AddressMetrics> metrics() {
+        final SortedMap<String, AddressMetrics> metrics = new TreeMap<>();
+        final Set<String> addresses = new HashSet<>(serviceTimes.keySet());
+        addresses.addAll(roundTrips.keySet());
+        for (String address : addresses) {
+            final LatencyHistogram serviceTime = serviceTimes.get(address);
+            final LatencyHistogram roundTrip = roundTrips.get(address);
+            metrics.put(address,
+                        new AddressMetrics(address,
+                                           serviceTime == null ? LatencySnapshot.EMPTY : serviceTime.snapshot(),
+                                           roundTrip == null ? LatencySnapshot.EMPTY : roundTrip.snapshot()
+                        )
+                       );
+        }
+        return Collections.unmodifiableSortedMap(metrics);
+    }
+
     private static String generateProcessAddress(final String address) {
-        return String.format("spawned.%s.%s",
+        return String.format(SPAWNED_PREFIX + "%s.%s",
                              address,
                              processSeq.getAndIncrement()
                             );
@@ -116,37 +210,16 @@ public final class VertxRef {
         Objects.requireNonNull(consumer);
         Objects.requireNonNull(options);
 
-        final int instances = options.getInstances();
-        final Set<String> ids = new HashSet<>();
-        final List<Future<?>> futures = new ArrayList<>();
-        final MyVerticle<I> verticle = new MyVerticle<>(consumer,
-                                                        address
-        );
-
-        return VIO.effect(() -> {
-                              for (int i = 0; i < instances; i++) {
-                                  final Future<String> future = vertx.deployVerticle(verticle,
-                                                                                     options.setInstances(1)
-                                                                                    );
-                                  futures.add(future.onSuccess(id -> {
-                                                                   ids.add(id);
-                                                                   EventPublisher.PUBLISHER.publishVerticleDeployed(address,
-                                                                                                                    id
-                                                                                                                   )
-                                                                                           .accept(vertx);
-                                                               }
-                                                              ));
-                              }
-
-
-                              return Future.all(futures)
-                                           .flatMap(cf -> Future.succeededFuture(new VerticleRef<>(vertx,
-                                                                                                   ids,
-                                                                                                   address
-                                                                                 )
-                                                                                )
-                                                   );
-                          }
+        return VIO.effect(() -> deployInstances(address,
+                                                () -> new MyVerticle<>(consumer,
+                                                                       address
+                                                ),
+                                                options
+                                               )
+                                   .map(ids -> new VerticleRef<>(vertx,
+                                                                 ids,
+                                                                 address
+                                   ))
                          );
     }
 
@@ -190,36 +263,31 @@ public final class VertxRef {
         Objects.requireNonNull(lambda);
         Objects.requireNonNull(options);
         return VIO.effect(() -> {
-                              final int instances = options.getInstances();
-                              final Set<String> ids = new HashSet<>();
-                              final List<Future<?>> futures = new ArrayList<>();
-                              final MyVerticle<I> verticle = new MyVerticle<>(message -> wrapLambda(address,
-                                                                                                    message,
-                                                                                                    lambda
-                                                                                                   ),
-                                                                              address
+                              final LatencyHistogram latency = serviceTime(address);
+                              final LocalDispatcher<I, O> dispatcher = new LocalDispatcher<>(address,
+                                                                                             (headers, body) -> lambda.apply(body),
+                                                                                             latency
                               );
-
-                              for (int i = 0; i < instances; i++) {
-                                  final Future<String> future = vertx.deployVerticle(verticle,
-                                                                                     options.setInstances(1)
-                                                                                    );
-                                  futures.add(future.onSuccess(id -> {
-                                                                   ids.add(id);
-                                                                   EventPublisher.PUBLISHER.publishVerticleDeployed(address,
-                                                                                                                    id
-                                                                                                                   )
-                                                                                           .accept(vertx);
-                                                               }
-                                                              ));
-                              }
-                              return Future.all(futures)
-                                           .flatMap(cf -> Future.succeededFuture(new VerticleRef<>(vertx,
-                                                                                                   ids,
-                                                                                                   address
-                                                                                 )
-                                                                                )
-                                                   );
+                              return deployInstances(address,
+                                                     () -> new MyVerticle<>(message -> wrapLambda(address,
+                                                                                                  message,
+                                                                                                  lambda,
+                                                                                                  latency
+                                                                                                 ),
+                                                                            address,
+                                                                            dispatcher
+                                                     ),
+                                                     options
+                                                    )
+                                      .map(ids -> new VerticleRef<>(vertx,
+                                                                    ids,
+                                                                    address,
+                                                                    null,
+                                                                    dispatcher,
+                                                                    false,
+                                                                    null,
+                                                                    roundTrip(address)
+                                      ));
                           }
                          );
     }
@@ -267,36 +335,348 @@ public final class VertxRef {
         Objects.requireNonNull(options);
 
         return VIO.effect(() -> {
-                              final int instances = options.getInstances();
-                              final Set<String> ids = new HashSet<>();
-                              final List<Future<?>> futures = new ArrayList<>();
-                              final MyVerticle<I> verticle = new MyVerticle<>(message -> wrapLambda(address,
-                                                                                                    message,
-                                                                                                    lambda
-                                                                                                   ),
-                                                                              address
+                              final LatencyHistogram latency = serviceTime(address);
+                              final LocalDispatcher<I, O> dispatcher = new LocalDispatcher<>(address,
+                                                                                             lambda,
+                                                                                             latency
                               );
+                              return deployInstances(address,
+                                                     () -> new MyVerticle<>(message -> wrapLambda(address,
+                                                                                                  message,
+                                                                                                  lambda,
+                                                                                                  latency
+                                                                                                 ),
+                                                                            address,
+                                                                            dispatcher
+                                                     ),
+                                                     options
+                                                    )
+                                      .map(ids -> new VerticleRef<>(vertx,
+                                                                    ids,
+                                                                    address,
+                                                                    null,
+                                                                    dispatcher,
+                                                                    false,
+                                                                    null,
+                                                                    roundTrip(address)
+                                      ));
+                          }
+                         );
+    }
 
-                              for (int i = 0; i < instances; i++) {
-                                  final Future<String> future = vertx.deployVerticle(verticle,
-                                                                                     options.setInstances(1)
-                                                                                    );
-                                  futures.add(future.onSuccess(id -> {
-                                                                   ids.add(id);
-                                                                   EventPublisher.PUBLISHER.publishVerticleDeployed(address,
-                                                                                                                    id
-                                                                                                                   )
-                                                                                           .accept(vertx);
-                                                               }
-                                                              ));
-                              }
-                              return Future.all(futures)
-                                           .flatMap(cf -> Future.succeededFuture(new VerticleRef<>(vertx,
-                                                                                                   ids,
-                                                                                                   address
-                                                                                 )
-                                                                                )
-                                                   );
+    /**
+     * Returns a val that, when executed, deploys a verticle on the specified address with the given threading model and
+     * the rest of the default deployment options. With {@link ThreadingModel#VIRTUAL_THREAD}, the messages are
+     * processed on virtual threads, where the lambda can wait for futures with {@link Future#await(Future)} and call
+     * blocking code, like JDBC or file system calls, without holding a thread of the worker pool. Blocking code can be
+     * run from any threading model with {@link VIO#blocking(Supplier)}.
+     *
+     * @param address        the address of the verticle
+     * @param lambda         the lambda that takes a message of type I and produces an output of type O
+     * @param threadingModel the threading model of the verticle
+     * @param <I>            the type of the message sent to the verticle
+     * @param <O>            the type of the reply
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<I, O>> deploy(final String address,
+                                                final Lambda<I, O> lambda,
+                                                final ThreadingModel threadingModel
+                                               ) {
+        Objects.requireNonNull(threadingModel);
+        return deploy(address,
+                      lambda,
+                      new DeploymentOptions(deploymentOptions).setThreadingModel(threadingModel)
+                     );
+    }
+
+    /**
+     * Same as {@link #deploy(String, Lambda, ThreadingModel)} but for lambdas that take the context of the
+     * computation.
+     *
+     * @param address        the address of the verticle
+     * @param lambda         the lambda that takes a message of type I and the context of the computation and produces
+     *                       an output of type O
+     * @param threadingModel the threading model of the verticle
+     * @param <I>            the type of the message sent to the verticle
+     * @param <O>            the type of the reply
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<I, O>> deploy(final String address,
+                                                final Lambdac<I, O> lambda,
+                                                final ThreadingModel threadingModel
+                                               ) {
+        Objects.requireNonNull(threadingModel);
+        return deploy(address,
+                      lambda,
+                      new DeploymentOptions(deploymentOptions).setThreadingModel(threadingModel)
+                     );
+    }
+
+    /**
+     * Returns a val that, when executed, deploys a verticle on the specified address with a mailbox bounded by the given
+     * policy. The lambda is executed at most {@link MailboxPolicy#maxInFlight} times at the same time, and at most
+     * {@link MailboxPolicy#maxQueued} messages wait for one of the executions to complete. When both limits are
+     * reached, the verticle pauses its consumer or replies with {@link Failures#MAILBOX_FULL_CODE}, depending on the
+     * policy. The queue depth and the rejections are available in {@link VerticleRef#mailbox()}. Since the limits are
+     * enforced by the consumer, the returned VerticleRef can't be turned into local mode.
+     *
+     * @param address the address of the verticle
+     * @param lambda  the lambda that takes a message of type I and produces an output of type O
+     * @param policy  the policy of the mailbox
+     * @param <I>     the type of the message sent to the verticle
+     * @param <O>     the type of the reply
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<I, O>> deploy(final String address,
+                                                final Lambda<I, O> lambda,
+                                                final MailboxPolicy policy
+                                               ) {
+        return deploy(address,
+                      lambda,
+                      deploymentOptions,
+                      policy
+                     );
+    }
+
+    /**
+     * Same as {@link #deploy(String, Lambda, MailboxPolicy)} but with the given deployment options. The limits of the
+     * policy apply to every instance of the verticle, and the metrics are aggregated over all of them.
+     *
+     * @param address the address of the verticle
+     * @param lambda  the lambda that takes a message of type I and produces an output of type O
+     * @param options options for configuring the verticle deployment
+     * @param policy  the policy of the mailbox
+     * @param <I>     the type of the message sent to the verticle
+     * @param <O>     the type of the reply
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<I, O>> deploy(final String address,
+                                                final Lambda<I, O> lambda,
+                                                final DeploymentOptions options,
+                                                final MailboxPolicy policy
+                                               ) {
+        Objects.requireNonNull(address);
+        Objects.requireNonNull(lambda);
+        Objects.requireNonNull(options);
+        Objects.requireNonNull(policy);
+        return VIO.effect(() -> {
+                              final MailboxMetrics metrics = new MailboxMetrics();
+                              final LatencyHistogram latency = serviceTime(address);
+                              return deployInstances(address,
+                                                     () -> new MyVerticle<I>(message -> wrapLambda(address,
+                                                                                                   message,
+                                                                                                   lambda,
+                                                                                                   latency
+                                                                                                  ),
+                                                                             address,
+                                                                             policy,
+                                                                             metrics
+                                                     ),
+                                                     options
+                                                    )
+                                      .map(ids -> new VerticleRef<>(vertx,
+                                                                    ids,
+                                                                    address,
+                                                                    null,
+                                                                    null,
+                                                                    false,
+                                                                    metrics,
+                                                                    roundTrip(address)
+                                      ));
+                          }
+                         );
+    }
+
+    /**
+     * Same as {@link #deploy(String, Lambda, MailboxPolicy)} but for lambdas that take the context of the computation.
+     *
+     * @param address the address of the verticle
+     * @param lambda  the lambda that takes a message of type I and the context of the computation and produces an
+     *                output of type O
+     * @param policy  the policy of the mailbox
+     * @param <I>     the type of the message sent to the verticle
+     * @param <O>     the type of the reply
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<I, O>> deploy(final String address,
+                                                final Lambdac<I, O> lambda,
+                                                final MailboxPolicy policy
+                                               ) {
+        return deploy(address,
+                      lambda,
+                      deploymentOptions,
+                      policy
+                     );
+    }
+
+    /**
+     * Same as {@link #deploy(String, Lambda, DeploymentOptions, MailboxPolicy)} but for lambdas that take the context
+     * of the computation.
+     *
+     * @param address the address of the verticle
+     * @param lambda  the lambda that takes a message of type I and the context of the computation and produces an
+     *                output of type O
+     * @param options options for configuring the verticle deployment
+     * @param policy  the policy of the mailbox
+     * @param <I>     the type of the message sent to the verticle
+     * @param <O>     the type of the reply
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<I, O>> deploy(final String address,
+                                                final Lambdac<I, O> lambda,
+                                                final DeploymentOptions options,
+                                                final MailboxPolicy policy
+                                               ) {
+        Objects.requireNonNull(address);
+        Objects.requireNonNull(lambda);
+        Objects.requireNonNull(options);
+        Objects.requireNonNull(policy);
+        return VIO.effect(() -> {
+                              final MailboxMetrics metrics = new MailboxMetrics();
+                              final LatencyHistogram latency = serviceTime(address);
+                              return deployInstances(address,
+                                                     () -> new MyVerticle<I>(message -> wrapLambda(address,
+                                                                                                   message,
+                                                                                                   lambda,
+                                                                                                   latency
+                                                                                                  ),
+                                                                             address,
+                                                                             policy,
+                                                                             metrics
+                                                     ),
+                                                     options
+                                                    )
+                                      .map(ids -> new VerticleRef<I, O>(vertx,
+                                                                        ids,
+                                                                        address,
+                                                                        null,
+                                                                        null,
+                                                                        false,
+                                                                        metrics,
+                                                                        roundTrip(address)
+                                      ));
+                          }
+                         );
+    }
+
+    /**
+     * Deploys as many verticles as instances in the options, all of them at the same time and every one created by the
+     * given supplier, so that no state is shared between instances. The caller's options are not modified. The ids are
+     * collected once every deployment is completed. If any of them fails, the instances that were deployed are
+     * undeployed and the returned future fails.
+     */
+    private <I> Future<Set<String>> deployInstances(final String address,
+                                                   final Supplier<MyVerticle<I>> verticle,
+                                                   final DeploymentOptions options
+                                                  ) {
+        final int instances = options.getInstances();
+        if (instances < 1) return Future.failedFuture(new IllegalArgumentException("instances < 1"));
+        final DeploymentOptions instanceOptions = new DeploymentOptions(options).setInstances(1);
+        final List<Future<String>> futures = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++)
+            futures.add(vertx.deployVerticle(verticle.get(),
+                                             instanceOptions
+                                            )
+                             .onSuccess(id -> EventPublisher.PUBLISHER.publishVerticleDeployed(vertx,
+                                                                                               address,
+                                                                                               id
+                                                                                              )));
+        return Future.join(futures)
+                     .transform(result -> {
+                         final Set<String> ids = new HashSet<>(instances);
+                         for (Future<String> future : futures)
+                             if (future.succeeded()) ids.add(future.result());
+                         if (result.succeeded()) return Future.succeededFuture(Collections.unmodifiableSet(ids));
+                         final List<Future<Void>> undeployments = new ArrayList<>(ids.size());
+                         for (String id : ids) undeployments.add(vertx.undeploy(id));
+                         return Future.join(undeployments)
+                                      .transform(it -> Future.failedFuture(result.cause()));
+                     });
+    }
+
+    /**
+     * Returns the number of event loop threads that vertx creates by default,
+     * {@link VertxOptions#DEFAULT_EVENT_LOOP_POOL_SIZE} (twice the number of cores), which is the number of instances
+     * to deploy to process messages on every event loop:
+     *
+     * <pre>{@code
+     * vertxRef.deploy(address, lambda, new DeploymentOptions().setInstances(vertxRef.eventLoops()))
+     * }</pre>
+     * <p>
+     * Vertx doesn't expose the size of the event loop pool of an instance, so if it was created with
+     * {@link VertxOptions#setEventLoopPoolSize(int)}, deploy {@link VertxOptions#getEventLoopPoolSize()} instances
+     * instead.
+     *
+     * @return the default number of event loops
+     */
+    public int eventLoops() {
+        return VertxOptions.DEFAULT_EVENT_LOOP_POOL_SIZE;
+    }
+
+    /**
+     * Returns a val that, when executed, deploys a verticle on the specified address that processes batches of
+     * messages. Every message is a list of inputs, and the lambda must return a list with an output per input, in the
+     * same order. The lists are sent to and from the verticle by reference, with a local codec (registered by this
+     * method) that the returned VerticleRef uses, so batches can't be sent to other nodes of a cluster. Use
+     * {@link Lambdas#batched(Lambda, int, Duration)} on the ask of the returned VerticleRef to send many small requests
+     * as one message.
+     *
+     * @param address the address of the verticle
+     * @param lambda  the lambda that takes a batch of inputs of type I and produces an output of type O per input
+     * @param <I>     the type of the inputs of a batch
+     * @param <O>     the type of the outputs of a batch
+     * @return an VerticleRef wrapped in a val
+     */
+    public <I, O> VIO<VerticleRef<List<I>, List<O>>> deployBatch(final String address,
+                                                                 final Lambda<List<I>, List<O>> lambda
+                                                                ) {
+        return deployBatch(address,
+                           lambda,
+                           deploymentOptions
+                          );
+    }
+
+    /**
+     * Returns a val that, when executed, deploys a verticle on the specified address that processes batches of
+     * messages.
+     *
+     * @param address the address of the verticle
+     * @param lambda  the lambda that takes a batch of inputs of type I and produces an output of type O per input
+     * @param options options for configuring the verticle deployment
+     * @param <I>     the type of the inputs of a batch
+     * @param <O>     the type of the outputs of a batch
+     * @return an VerticleRef wrapped in a val
+     * @see #deployBatch(String, Lambda)
+     */
+    public <I, O> VIO<VerticleRef<List<I>, List<O>>> deployBatch(final String address,
+                                                                 final Lambda<List<I>, List<O>> lambda,
+                                                                 final DeploymentOptions options
+                                                                ) {
+        Objects.requireNonNull(address);
+        Objects.requireNonNull(lambda);
+        Objects.requireNonNull(options);
+        return VIO.effect(() -> {
+                              final LatencyHistogram latency = serviceTime(address);
+                              final Consumer<Message<List<I>>> consumer = message -> wrapLambda(address,
+                                                                                                message,
+                                                                                                lambda,
+                                                                                                ListMessageCodec.NAME,
+                                                                                                latency
+                                                                                               );
+                              return this.<List<I>, List<O>>deployConsumer(address,
+                                                                            consumer,
+                                                                            options
+                                                                           )
+                                         .map(ref -> new VerticleRef<List<I>, List<O>>(vertx,
+                                                                                       ref.ids,
+                                                                                       address,
+                                                                                       ListMessageCodec.NAME,
+                                                                                       null,
+                                                                                       false,
+                                                                                       null,
+                                                                                       roundTrip(address)
+                                         ))
+                                         .get();
                           }
                          );
     }
@@ -367,13 +747,15 @@ public final class VertxRef {
         requireNonNull(options);
         requireNonNull(lambda);
 
+        LatencyHistogram latency = serviceTime(SPAWNED_PREFIX + address);
         return (context, input) ->
         {
             String generatedAddress = generateProcessAddress(address);
 
             Consumer<Message<I>> consumer = message -> wrapLambda(generatedAddress,
                                                                   message,
-                                                                  lambda
+                                                                  lambda,
+                                                                  latency
                                                                  );
             VIO<VerticleRef<I, O>> future = deployConsumer(generatedAddress,
                                                            consumer,
@@ -384,19 +766,7 @@ public final class VertxRef {
                                      .apply(context,
                                             input
                                            )
-                                     .onComplete(__ -> r.undeploy()
-                                                        .onComplete(event -> {
-                                                            if (event.succeeded())
-                                                                EventPublisher.PUBLISHER.publishVerticleUndeployed(generatedAddress)
-                                                                                        .accept(vertx);
-                                                            else
-                                                                EventPublisher.PUBLISHER.publishException(Event.EXCEPTION_UNDEPLOYING_VERTICLE,
-                                                                                                          generatedAddress,
-                                                                                                          event.cause()
-                                                                                                         )
-                                                                                        .accept(vertx);
-                                                        })
-                                                )
+                                     .onComplete(__ -> undeploySpawned(r))
                               );
         };
 
@@ -425,12 +795,14 @@ public final class VertxRef {
         requireNonNull(options);
         requireNonNull(lambda);
 
+        LatencyHistogram latency = serviceTime(SPAWNED_PREFIX + address);
         return input ->
         {
             String generatedAddress = generateProcessAddress(address);
             Consumer<Message<I>> consumer = message -> wrapLambda(generatedAddress,
                                                                   message,
-                                                                  lambda
+                                                                  lambda,
+                                                                  latency
                                                                  );
             VIO<VerticleRef<I, O>> future = deployConsumer(generatedAddress,
                                                            consumer,
@@ -439,25 +811,181 @@ public final class VertxRef {
 
             return future.then(r -> r.ask()
                                      .apply(input)
-                                     .onComplete(__ -> r.undeploy()
-                                                        .onComplete(event -> {
-                                                            if (event.succeeded())
-                                                                EventPublisher.PUBLISHER.publishVerticleUndeployed(generatedAddress)
-                                                                                        .accept(vertx);
-                                                            else
-                                                                EventPublisher.PUBLISHER.publishException(Event.EXCEPTION_UNDEPLOYING_VERTICLE,
-                                                                                                          generatedAddress,
-                                                                                                          event.cause()
-                                                                                                         )
-                                                                                        .accept(vertx);
-                                                        })
-                                                )
+                                     .onComplete(__ -> undeploySpawned(r))
                               );
         };
 
 
     }
 
+    /**
+     * Returns a lambda that, like {@link #spawn(String, Lambda)}, processes every input on a verticle deployed on a
+     * generated address, but the verticles are kept in a pool and reused instead of being deployed and undeployed per
+     * call. Every call checks out an idle verticle, or deploys a new one if there are less than maxWorkers, and returns
+     * it to the pool once the reply is received. If all of them are busy, the call waits for one to be returned. The
+     * verticles that are idle for longer than idleTtl are undeployed, so the pool shrinks when the traffic goes down.
+     *
+     * @param addressPrefix the prefix of the auto generated addresses
+     * @param lambda        the function that takes a message of type I and produces an output of type O
+     * @param maxWorkers    the max number of verticles deployed at the same time
+     * @param idleTtl       the time after which an idle verticle is undeployed
+     * @param <I>           the type of the message sent to the verticle
+     * @param <O>           the type of the reply
+     * @return a lambda
+     */
+    public <I, O> Lambda<I, O> spawnPooled(final String addressPrefix,
+                                           final Lambda<I, O> lambda,
+                                           final int maxWorkers,
+                                           final Duration idleTtl
+                                          ) {
+        return spawnPooled(addressPrefix,
+                           lambda,
+                           maxWorkers,
+                           idleTtl,
+                           deploymentOptions
+                          );
+    }
+
+    /**
+     * Same as {@link #spawnPooled(String, Lambda, int, Duration)} but deploying the verticles with the given options
+     *
+     * @param addressPrefix the prefix of the auto generated addresses
+     * @param lambda        the function that takes a message of type I and produces an output of type O
+     * @param maxWorkers    the max number of verticles deployed at the same time
+     * @param idleTtl       the time after which an idle verticle is undeployed
+     * @param options       the deployment options
+     * @param <I>           the type of the message sent to the verticle
+     * @param <O>           the type of the reply
+     * @return a lambda
+     */
+    public <I, O> Lambda<I, O> spawnPooled(final String addressPrefix,
+                                           final Lambda<I, O> lambda,
+                                           final int maxWorkers,
+                                           final Duration idleTtl,
+                                           final DeploymentOptions options
+                                          ) {
+        requireNonNull(lambda);
+        requireNonNull(addressPrefix);
+        LatencyHistogram latency = serviceTime(SPAWNED_PREFIX + addressPrefix);
+        SpawnPool<I, O> pool = spawnPool(addressPrefix,
+                                         address -> message -> wrapLambda(address,
+                                                                          message,
+                                                                          lambda,
+                                                                          latency
+                                                                         ),
+                                         maxWorkers,
+                                         idleTtl,
+                                         options
+                                        );
+        return input -> new Val.Cancelable<>(() -> pool.execute(ref -> ref.ask()
+                                                                          .apply(input)));
+    }
+
+    /**
+     * Same as {@link #spawnPooled(String, Lambda, int, Duration)} but for lambdas that take the context of the
+     * computation.
+     *
+     * @param addressPrefix the prefix of the auto generated addresses
+     * @param lambda        the lambda that takes a message of type I and the context of the computation and produces
+     *                      an output of type O
+     * @param maxWorkers    the max number of verticles deployed at the same time
+     * @param idleTtl       the time after which an idle verticle is undeployed
+     * @param <I>           the type of the message sent to the verticle
+     * @param <O>           the type of the reply
+     * @return a lambda
+     */
+    public <I, O> Lambdac<I, O> spawnPooled(final String addressPrefix,
+                                            final Lambdac<I, O> lambda,
+                                            final int maxWorkers,
+                                            final Duration idleTtl
+                                           ) {
+        return spawnPooled(addressPrefix,
+                           lambda,
+                           maxWorkers,
+                           idleTtl,
+                           deploymentOptions
+                          );
+    }
+
+    /**
+     * Same as {@link #spawnPooled(String, Lambdac, int, Duration)} but deploying the verticles with the given options
+     *
+     * @param addressPrefix the prefix of the auto generated addresses
+     * @param lambda        the lambda that takes a message of type I and the context of the computation and produces
+     *                      an output of type O
+     * @param maxWorkers    the max number of verticles deployed at the same time
+     * @param idleTtl       the time after which an idle verticle is undeployed
+     * @param options       the deployment options
+     * @param <I>           the type of the message sent to the verticle
+     * @param <O>           the type of the reply
+     * @return a lambda
+     */
+    public <I, O> Lambdac<I, O> spawnPooled(final String addressPrefix,
+                                            final Lambdac<I, O> lambda,
+                                            final int maxWorkers,
+                                            final Duration idleTtl,
+                                            final DeploymentOptions options
+                                           ) {
+        requireNonNull(lambda);
+        requireNonNull(addressPrefix);
+        LatencyHistogram latency = serviceTime(SPAWNED_PREFIX + addressPrefix);
+        SpawnPool<I, O> pool = spawnPool(addressPrefix,
+                                         address -> message -> wrapLambda(address,
+                                                                          message,
+                                                                          lambda,
+                                                                          latency
+                                                                         ),
+                                         maxWorkers,
+                                         idleTtl,
+                                         options
+                                        );
+        return (context, input) -> new Val.Cancelable<>(() -> pool.execute(ref -> ref.trace()
+                                                                                     .apply(context,
+                                                                                            input
+                                                                                           )));
+    }
+
+    private <I, O> SpawnPool<I, O> spawnPool(final String addressPrefix,
+                                             final Function<String, Consumer<Message<I>>> consumer,
+                                             final int maxWorkers,
+                                             final Duration idleTtl,
+                                             final DeploymentOptions options
+                                            ) {
+        requireNonNull(addressPrefix);
+        requireNonNull(idleTtl);
+        requireNonNull(options);
+        if (maxWorkers < 1) throw new IllegalArgumentException("maxWorkers < 1");
+        if (idleTtl.isNegative() || idleTtl.isZero()) throw new IllegalArgumentException("idleTtl <= 0");
+        return new SpawnPool<>(vertx,
+                               maxWorkers,
+                               idleTtl,
+                               () -> {
+                                   String address = generateProcessAddress(addressPrefix);
+                                   return deployConsumer(address,
+                                                         consumer.apply(address),
+                                                         options
+                                                        );
+                               },
+                               this::undeploySpawned
+        );
+    }
+
+    private void undeploySpawned(final VerticleRef<?, ?> ref) {
+        ref.undeploy()
+           .onComplete(event -> {
+               if (event.succeeded())
+                   EventPublisher.PUBLISHER.publishVerticleUndeployed(vertx,
+                                                                      ref.address
+                                                                     );
+               else
+                   EventPublisher.PUBLISHER.publishException(vertx,
+                                                             Event.EXCEPTION_UNDEPLOYING_VERTICLE,
+                                                             ref.address,
+                                                             event.cause()
+                                                            );
+           });
+    }
+
     /**
      * returns a val that, when executes, deploys the given verticle and returns the deployment id
      *
@@ -476,16 +1004,16 @@ public final class VertxRef {
                                                     )
                                      .onComplete(event -> {
                                                      if (event.succeeded())
-                                                         EventPublisher.PUBLISHER.publishVerticleDeployed(verticle.getClass(),
+                                                         EventPublisher.PUBLISHER.publishVerticleDeployed(vertx,
+                                                                                                          verticle.getClass(),
                                                                                                           event.result()
-                                                                                                         )
-                                                                                 .accept(vertx);
+                                                                                                         );
                                                      else
-                                                         EventPublisher.PUBLISHER.publishException(Event.EXCEPTION_DEPLOYING_VERTICLE,
+                                                         EventPublisher.PUBLISHER.publishException(vertx,
+                                                                                                   Event.EXCEPTION_DEPLOYING_VERTICLE,
                                                                                                    verticle.getClass(),
                                                                                                    event.cause()
-                                                                                                  )
-                                                                                 .accept(vertx);
+                                                                                                  );
                                                  }
                                                 )
                          );
@@ -521,10 +1049,10 @@ public final class VertxRef {
                                            );
         else
             return message -> {
-                EventPublisher.PUBLISHER.publishMessageSent(address,
+                EventPublisher.PUBLISHER.publishMessageSent(vertx,
+                                                            address,
                                                             message
-                                                           )
-                                        .accept(vertx);
+                                                           );
                 vertx.eventBus()
                      .publish(address,
                               message
@@ -557,22 +1085,22 @@ public final class VertxRef {
                     .consumer(address,
                               message -> {
                                   try {
-                                      EventPublisher.PUBLISHER.publishMessageReceived(address, message.headers())
-                                                              .accept(vertx);
+                                      EventPublisher.PUBLISHER.publishMessageReceived(vertx,
+                                                                                      address,
+                                                                                      message.headers()
+                                                                                     );
                                       O body = message.body();
                                       consumer.accept(body);
                                       message.reply(null);
                                   } catch (Exception exc) {
-                                      EventPublisher.PUBLISHER.publishException(
-                                              Event.EXCEPTION_PROCESSING_MESSAGE,
-                                              address,
-                                              exc,
-                                              message.headers()
-                                                                               ).accept(vertx);
-                                      message.reply(new ReplyException(RECIPIENT_FAILURE,
-                                                                       INTERNAL_ERROR_CODE,
-                                                                       Functions.getErrorMessage(exc)
-                                      ));
+                                      EventPublisher.PUBLISHER.publishException(vertx,
+                                                                                Event.EXCEPTION_PROCESSING_MESSAGE,
+                                                                                address,
+                                                                                exc,
+                                                                                message.headers()
+                                                                               );
+                                      message.reply(ExceptionReply.of(INTERNAL_ERROR_CODE,
+                                                                      exc));
                                   }
                               }
                              );
@@ -582,10 +1110,8 @@ public final class VertxRef {
                                                         consumer.accept(body);
                                                         message.reply(null);
                                                     } catch (Exception exc) {
-                                                        message.reply(new ReplyException(RECIPIENT_FAILURE,
-                                                                                         INTERNAL_ERROR_CODE,
-                                                                                         Functions.getErrorMessage(exc)
-                                                        ));
+                                                        message.reply(ExceptionReply.of(INTERNAL_ERROR_CODE,
+                                                                                        exc));
                                                     }
                                                 }
                                                );
@@ -600,142 +1126,181 @@ public final class VertxRef {
      */
     public Delay delay(final Duration duration) {
         return new Delay(duration,
-                         VIO.effect(() -> {
-                             EventPublisher.PUBLISHER.publishTimerStarted().accept(vertx);
-                             Promise<Long> promise = Promise.promise();
-                             vertx.setTimer(
+                         VIO.cancelable(promise -> {
+                             EventPublisher.PUBLISHER.publishTimerStarted(vertx,
+                                                                          duration
+                                                                         );
+                             long timerId = vertx.setTimer(
                                      duration.toMillis(),
                                      id -> {
                                          promise.complete(id);
-                                         EventPublisher.PUBLISHER.publishTimerEnded().accept(vertx);
+                                         EventPublisher.PUBLISHER.publishTimerEnded(vertx,
+                                                                                       duration
+                                                                                      );
                                      }
-                                           );
-                             return promise.future();
+                                                          );
+                             return () -> vertx.cancelTimer(timerId);
                          })
         );
     }
 
+
+    private <I, O> Future<?> wrapLambda(final String address,
+                                        final Message<I> message,
+                                        final Lambda<I, O> fn,
+                                        final LatencyHistogram latency
+                                       ) {
+        return wrapLambda(address,
+                          message,
+                          fn,
+                          null,
+                          latency
+                         );
+    }
+
     @SuppressWarnings("ReturnValueIgnored")
-    private <I, O> void wrapLambda(final String address,
-                                   final Message<I> message,
-                                   final Lambda<I, O> fn
-                                  ) {
+    private <I, O> Future<?> wrapLambda(final String address,
+                                        final Message<I> message,
+                                        final Lambda<I, O> fn,
+                                        final String codecName,
+                                        final LatencyHistogram latency
+                                       ) {
         MultiMap headers = message.headers();
+        final long received = System.nanoTime();
         try {
-            EventPublisher.PUBLISHER.publishMessageReceived(address,
+            EventPublisher.PUBLISHER.publishMessageReceived(vertx,
+                                                            address,
                                                             headers
-                                                           )
-                                    .accept(vertx);
-            fn.apply(message.body())
-              .onComplete(event -> {
-                  if (event.succeeded()) {
-                      message.reply(event.result(),
-                                    createDeliveryOpt(headers)
-                                   );
-                      EventPublisher.PUBLISHER.publishMessageReplied(address,
-                                                                     event.result(),
-                                                                     headers
-                                                                    )
-                                              .accept(vertx);
-                  } else {
-
-                      ReplyException error = Failures.REPLY_EXCEPTION_PRISM
-                              .getOptional.apply(event.cause())
-                                          .orElse(new ReplyException(RECIPIENT_FAILURE,
-                                                                     UNKNOWN_ERROR_CODE,
-                                                                     Functions.getErrorMessage(event.cause())
-                                          ));
-                      message.reply(error,
-                                    createDeliveryOpt(headers)
-                                   );
-                      EventPublisher.PUBLISHER.publishFailureReplied(address,
-                                                                     error,
-                                                                     headers
-                                                                    )
-                                              .accept(vertx);
-                  }
-
-
-              })
-              .get();
+                                                           );
+            return fn.apply(message.body())
+                     .onComplete(event -> {
+                         latency.record(System.nanoTime() - received,
+                                        event.failed()
+                                       );
+                         if (event.succeeded()) {
+                             message.reply(event.result(),
+                                           createDeliveryOpt(headers,
+                                                             codecName,
+                                                             event.result()
+                                                            )
+                                          );
+                             EventPublisher.PUBLISHER.publishMessageReplied(vertx,
+                                                                            address,
+                                                                            event.result(),
+                                                                            headers,
+                                                                            received
+                                                                           );
+                         } else {
+
+                             ReplyException error = Failures.REPLY_EXCEPTION_PRISM
+                                     .getOptional.apply(event.cause())
+                                                 .orElseGet(() -> ExceptionReply.of(UNKNOWN_ERROR_CODE,
+                                                                                    event.cause()
+                                                 ));
+                             message.reply(error,
+                                           createDeliveryOpt(headers)
+                                          );
+                             EventPublisher.PUBLISHER.publishFailureReplied(vertx,
+                                                                            address,
+                                                                            error,
+                                                                            headers,
+                                                                            received
+                                                                           );
+                         }
+
+
+                     })
+                     .get();
         } catch (Exception exc) {
-            message.reply(new ReplyException(RECIPIENT_FAILURE,
-                                             INTERNAL_ERROR_CODE,
-                                             Functions.getErrorMessage(exc)
-                          ),
+            latency.record(System.nanoTime() - received,
+                           true
+                          );
+            message.reply(ExceptionReply.of(INTERNAL_ERROR_CODE,
+                                            exc),
                           createDeliveryOpt(headers)
                          );
-            EventPublisher.PUBLISHER.publishException(Event.EXCEPTION_PROCESSING_MESSAGE,
+            EventPublisher.PUBLISHER.publishException(vertx,
+                                                      Event.EXCEPTION_PROCESSING_MESSAGE,
                                                       address,
                                                       exc,
                                                       headers
-                                                     )
-                                    .accept(vertx);
+                                                     );
+            return Future.succeededFuture();
         }
     }
 
     @SuppressWarnings("ReturnValueIgnored")
-    private <I, O> void wrapLambda(final String address,
-                                   final Message<I> message,
-                                   final Lambdac<I, O> fn
-                                  ) {
+    private <I, O> Future<?> wrapLambda(final String address,
+                                        final Message<I> message,
+                                        final Lambdac<I, O> fn,
+                                        final LatencyHistogram latency
+                                       ) {
         MultiMap headers = message.headers();
+        final long received = System.nanoTime();
         try {
-            EventPublisher.PUBLISHER.publishMessageReceived(address,
+            EventPublisher.PUBLISHER.publishMessageReceived(vertx,
+                                                            address,
                                                             message.headers()
-                                                           )
-                                    .accept(vertx);
-
-            fn.apply(headers,
-                     message.body()
-                    )
-              .onComplete(event -> {
-                  if (event.succeeded()) {
-                      message.reply(event.result(),
-                                    createDeliveryOpt(headers)
-                                   );
-                      EventPublisher.PUBLISHER.publishMessageReplied(address,
-                                                                     event.result(),
-                                                                     headers
-                                                                    )
-                                              .accept(vertx);
-                  } else {
-
-                      ReplyException error = Failures
-                              .REPLY_EXCEPTION_PRISM
-                              .getOptional.apply(event.cause())
-                                          .orElse(new ReplyException(RECIPIENT_FAILURE,
-                                                                     UNKNOWN_ERROR_CODE,
-                                                                     Functions.getErrorMessage(event.cause())
-                                          ));
-                      message.reply(error,
-                                    createDeliveryOpt(headers)
-                                   );
-                      EventPublisher.PUBLISHER.publishFailureReplied(address,
-                                                                     error,
-                                                                     headers
-                                                                    )
-                                              .accept(vertx);
-                  }
-
-
-              })
-              .get();
+                                                           );
+
+            return fn.apply(headers,
+                            message.body()
+                           )
+                     .onComplete(event -> {
+                         latency.record(System.nanoTime() - received,
+                                        event.failed()
+                                       );
+                         if (event.succeeded()) {
+                             message.reply(event.result(),
+                                           createDeliveryOpt(headers,
+                                                             null,
+                                                             event.result()
+                                                            )
+                                          );
+                             EventPublisher.PUBLISHER.publishMessageReplied(vertx,
+                                                                            address,
+                                                                            event.result(),
+                                                                            headers,
+                                                                            received
+                                                                           );
+                         } else {
+
+                             ReplyException error = Failures
+                                     .REPLY_EXCEPTION_PRISM
+                                     .getOptional.apply(event.cause())
+                                                 .orElseGet(() -> ExceptionReply.of(UNKNOWN_ERROR_CODE,
+                                                                                    event.cause()
+                                                 ));
+                             message.reply(error,
+                                           createDeliveryOpt(headers)
+                                          );
+                             EventPublisher.PUBLISHER.publishFailureReplied(vertx,
+                                                                            address,
+                                                                            error,
+                                                                            headers,
+                                                                            received
+                                                                           );
+                         }
+
+
+                     })
+                     .get();
 
         } catch (Exception exc) {
-            message.reply(new ReplyException(RECIPIENT_FAILURE,
-                                             INTERNAL_ERROR_CODE,
-                                             Functions.getErrorMessage(exc)
-                          ),
+            latency.record(System.nanoTime() - received,
+                           true
+                          );
+            message.reply(ExceptionReply.of(INTERNAL_ERROR_CODE,
+                                            exc),
                           createDeliveryOpt(headers)
                          );
-            EventPublisher.PUBLISHER.publishException(Event.EXCEPTION_PROCESSING_MESSAGE,
+            EventPublisher.PUBLISHER.publishException(vertx,
+                                                      Event.EXCEPTION_PROCESSING_MESSAGE,
                                                       address,
                                                       exc,
                                                       message.headers()
-
-                                                     )
-                                    .accept(vertx);
+                                                     );
+            return Future.succeededFuture();
         }
     }
 
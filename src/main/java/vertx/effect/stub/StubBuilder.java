@@ -62,7 +62,8 @@ public final class StubBuilder<O> {
 
 
     /**
-     * Sets the generator of delays
+     * Sets the generator of delays. Stubs wait for the delays with timers (see {@link VIO#sleep(Duration)}), without
+     * blocking the event loops, so that thousands of concurrent delayed stubs can run on a few threads.
      *
      * @param delaysGen the generator of delays
      * @return this stub builder with a delay generator
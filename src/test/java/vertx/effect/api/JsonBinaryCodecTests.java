@@ -0,0 +1,240 @@
+package vertx.effect.api;
+
+import fun.gen.Combinators;
+import fun.gen.Gen;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import jsonvalues.*;
+import jsonvalues.gen.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.JsonBinaryCodec;
+import vertx.effect.VIO;
+import vertx.effect.VerticleRef;
+import vertx.effect.VertxRef;
+import vertx.values.codecs.JsArrayMessageCodec;
+import vertx.values.codecs.JsObjMessageCodec;
+import vertx.values.codecs.RegisterJsValuesCodecs;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+@SuppressWarnings("ReturnValueIgnored")
+@ExtendWith(VertxExtension.class)
+public class JsonBinaryCodecTests {
+
+    private static final int SAMPLES = 1000;
+
+    private static final Gen<JsValue> LEAF = Combinators.oneOf(JsStrGen.biased(0,
+                                                                               20
+                                                                              ),
+                                                               JsStrGen.alphabetic(),
+                                                               JsIntGen.biased(),
+                                                               JsLongGen.biased(),
+                                                               JsDoubleGen.biased(),
+                                                               JsBigDecGen.biased(),
+                                                               JsBigIntGen.biased(),
+                                                               JsBoolGen.arbitrary(),
+                                                               JsInstantGen.biased(),
+                                                               JsBinaryGen.biased(0,
+                                                                                  16
+                                                                                 ),
+                                                               Gen.cons(JsNull.NULL)
+                                                              );
+
+    /**
+     * random json with up to the given depth, whose keys are taken from a small set, so that they are repeated
+     */
+    private static JsValue json(final RandomGenerator random,
+                                final Supplier<JsValue> leaf,
+                                final int depth
+                               ) {
+        int kind = random.nextInt(depth == 0 ? 1 : 4);
+        if (kind == 0) return leaf.get();
+        int size = random.nextInt(6);
+        if (kind == 1) {
+            List<JsValue> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) values.add(json(random,
+                                                          leaf,
+                                                          depth - 1
+                                                         ));
+            return JsArray.ofIterable(values);
+        }
+        JsObj obj = JsObj.empty();
+        for (int i = 0; i < size; i++) obj = obj.set("key" + random.nextInt(10),
+                                                     json(random,
+                                                          leaf,
+                                                          depth - 1
+                                                         )
+                                                    );
+        return obj;
+    }
+
+    private static Json<?> roundTrip(final Json<?> json) {
+        Buffer buffer = Buffer.buffer();
+        JsonBinaryCodec.INSTANCE.encodeToWire(buffer,
+                                              json
+                                             );
+        return JsonBinaryCodec.INSTANCE.decodeFromWire(0,
+                                                       buffer
+                                                      );
+    }
+
+    @Test
+    public void test_random_json_round_trips() {
+        long seed = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        Supplier<JsValue> leaf = LEAF.apply(random);
+        for (int i = 0; i < SAMPLES; i++) {
+            JsValue value = json(random,
+                                 leaf,
+                                 4
+                                );
+            Json<?> json = value.isJson() ? value.toJson() : JsArray.of(value);
+            Json<?> decoded = roundTrip(json);
+            Assertions.assertEquals(json,
+                                    decoded,
+                                    "seed " + seed
+                                   );
+            // the types are preserved, unlike with JSON text where instants and binary data become strings
+            Assertions.assertEquals(json.toString(),
+                                    decoded.toString(),
+                                    "seed " + seed
+                                   );
+        }
+    }
+
+    @Test
+    public void test_every_type_keeps_its_type() {
+        JsObj obj = JsObj.of("int",
+                             JsInt.of(Integer.MIN_VALUE),
+                             "long",
+                             JsLong.of(Long.MAX_VALUE),
+                             "double",
+                             JsDouble.of(-0.5),
+                             "bigdec",
+                             JsBigDec.of(new BigDecimal("-12345678901234567890.000100")),
+                             "bigint",
+                             JsBigInt.of(BigInteger.TWO.pow(100)
+                                                       .negate()),
+                             "instant",
+                             JsInstant.of(Instant.parse("1969-12-31T23:59:59.999999999Z")),
+                             "binary",
+                             JsBinary.of(new byte[]{0, -1, 127}),
+                             "str",
+                             JsStr.of("ñandú 😀")
+                            )
+                         .set("array",
+                              JsArray.of(JsNull.NULL,
+                                         JsBool.TRUE,
+                                         JsBool.FALSE,
+                                         JsObj.empty(),
+                                         JsArray.empty()
+                                        )
+                             );
+
+        JsObj decoded = (JsObj) roundTrip(obj);
+
+        Assertions.assertEquals(obj,
+                                decoded
+                               );
+        Assertions.assertTrue(decoded.get("int")
+                                     .isInt());
+        Assertions.assertTrue(decoded.get("long")
+                                     .isLong());
+        Assertions.assertEquals(new BigDecimal("-12345678901234567890.000100"),
+                                decoded.getBigDec("bigdec")
+                               );
+        Assertions.assertTrue(decoded.get("instant")
+                                     .isInstant());
+        Assertions.assertTrue(decoded.get("binary")
+                                     .isBinary());
+    }
+
+    @Test
+    public void test_repeated_keys_are_interned() {
+        List<JsValue> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) users.add(JsObj.of("identifier",
+                                                         JsInt.of(i),
+                                                         "description",
+                                                         JsStr.of("user"),
+                                                         "active",
+                                                         JsBool.TRUE
+                                                        ));
+        JsArray array = JsArray.ofIterable(users);
+        Buffer binary = Buffer.buffer();
+        JsonBinaryCodec.INSTANCE.encodeToWire(binary,
+                                              array
+                                             );
+        Buffer text = Buffer.buffer();
+        JsArrayMessageCodec.INSTANCE.encodeToWire(text,
+                                                  array
+                                                 );
+
+        Assertions.assertEquals(array,
+                                JsonBinaryCodec.INSTANCE.decodeFromWire(0,
+                                                                        binary
+                                                                       )
+                               );
+        Assertions.assertTrue(binary.length() * 3 < text.length(),
+                              binary.length() + " bytes vs " + text.length()
+                             );
+    }
+
+    @Test
+    public void test_decoding_starts_at_the_given_position() {
+        JsObj obj = JsObj.of("a",
+                             JsInt.of(1)
+                            );
+        Buffer buffer = Buffer.buffer()
+                              .appendString("header");
+        int pos = buffer.length();
+        JsonBinaryCodec.INSTANCE.encodeToWire(buffer,
+                                              obj
+                                             );
+        JsObjMessageCodec.INSTANCE.encodeToWire(buffer,
+                                                obj
+                                               );
+
+        Assertions.assertEquals(obj,
+                                JsonBinaryCodec.INSTANCE.decodeFromWire(pos,
+                                                                        buffer
+                                                                       )
+                               );
+    }
+
+    @Test
+    public void test_local_messages_are_passed_by_reference_with_the_binary_codec(final Vertx vertx,
+                                                                                   final VertxTestContext context
+                                                                                  ) {
+        JsObj message = JsObj.of("a",
+                                 JsStr.of("b")
+                                );
+        VertxRef vertxRef = new VertxRef(vertx).useBinaryJsonCodec();
+        // the reply is sent with the default codec of JsObj
+        vertxRef.deployVerticle(new RegisterJsValuesCodecs())
+                .then(id -> vertxRef.<JsObj, JsObj>deploy("binary-json-identity",
+                                                          VIO::succeed
+                                                         ))
+                .then(ref -> ref.ask(new DeliveryOptions().setCodecName(JsonBinaryCodec.NAME))
+                                .apply(message))
+                .onComplete(it -> context.verify(() -> {
+                    Assertions.assertTrue(it.succeeded());
+                    Assertions.assertSame(message,
+                                          it.result()
+                                         );
+                    context.completeNow();
+                }))
+                .get();
+    }
+}
@@ -0,0 +1,182 @@
+package vertx.effect.api;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.ListExp;
+import vertx.effect.VIO;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("ReturnValueIgnored")
+@ExtendWith(VertxExtension.class)
+public class TestCached {
+
+    /**
+     * an effect that returns the number of times it's been executed after the given millis
+     */
+    private static VIO<Integer> counter(final Vertx vertx,
+                                        final AtomicInteger executions,
+                                        final long millis
+                                       ) {
+        return VIO.cancelable(promise -> {
+            int n = executions.incrementAndGet();
+            vertx.setTimer(millis,
+                           it -> promise.complete(n)
+                          );
+            return null;
+        });
+    }
+
+    private static Future<Context> newContext(final Vertx vertx) {
+        Promise<Context> promise = Promise.promise();
+        vertx.deployVerticle(new AbstractVerticle() {
+            @Override
+            public void start() {
+                promise.complete(context);
+            }
+        });
+        return promise.future();
+    }
+
+    @Test
+    public void test_memoize_shares_the_in_flight_future(final Vertx vertx,
+                                                         final VertxTestContext context
+                                                        ) {
+        AtomicInteger executions = new AtomicInteger(0);
+        VIO<Integer> memo = counter(vertx,
+                                    executions,
+                                    50
+                                   ).memoize();
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(List.of(1, 1, 1, 1)) && executions.get() == 1)
+                 .accept(ListExp.par(memo,
+                                     memo,
+                                     memo
+                                    )
+                                .then(list -> memo.map(n -> List.of(list.get(0),
+                                                                    list.get(1),
+                                                                    list.get(2),
+                                                                    n
+                                                                   ))),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_memoize_doesnt_cache_failures(final VertxTestContext context) {
+        AtomicInteger executions = new AtomicInteger(0);
+        VIO<Integer> memo = VIO.lazy(() -> {
+            if (executions.incrementAndGet() == 1) throw new RuntimeException("first");
+            return executions.get();
+        }).memoize();
+        Verifiers.<Integer>verifySuccess(n -> n == 2 && executions.get() == 2)
+                 .accept(memo.recoverWith(e -> memo)
+                             .then(n -> memo),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_cached_expires_after_the_ttl(final Vertx vertx,
+                                                  final VertxTestContext context
+                                                 ) {
+        AtomicInteger executions = new AtomicInteger(0);
+        VIO<Integer> cached = counter(vertx,
+                                      executions,
+                                      1
+                                     ).cached(Duration.ofMillis(100));
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(List.of(1, 1, 2)))
+                 .accept(ListExp.seq(cached,
+                                     cached,
+                                     cached.sleep(Duration.ofMillis(200))
+                                    ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_refresh_ahead_serves_stale_results_while_refreshing(final Vertx vertx,
+                                                                         final VertxTestContext context
+                                                                        ) {
+        AtomicInteger executions = new AtomicInteger(0);
+        VIO<Integer> cached = counter(vertx,
+                                      executions,
+                                      50
+                                     ).refreshAhead(Duration.ofSeconds(10),
+                                                    Duration.ofMillis(100)
+                                                   );
+        // the third execution triggers the refresh but gets the stale value, the fourth one the refreshed value
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(List.of(1, 1, 1, 2)) && executions.get() == 2)
+                 .accept(ListExp.seq(cached,
+                                     cached,
+                                     cached.sleep(Duration.ofMillis(150)),
+                                     cached.sleep(Duration.ofMillis(80))
+                                    ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_failed_refresh_is_not_retried_on_every_hit(final VertxTestContext context) {
+        AtomicInteger executions = new AtomicInteger(0);
+        VIO<Integer> cached = VIO.lazy(() -> {
+                                     if (executions.incrementAndGet() > 1) throw new IllegalStateException("down");
+                                     return 1;
+                                 })
+                                 .refreshAhead(Duration.ofSeconds(10),
+                                               Duration.ofMillis(100)
+                                              );
+        // the second execution triggers a refresh that fails, the next ones serve the stale value without retrying
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(List.of(1, 1, 1, 1)) && executions.get() == 2)
+                 .accept(ListExp.seq(cached,
+                                     cached.sleep(Duration.ofMillis(150)),
+                                     cached,
+                                     cached
+                                    ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_memoize_resumes_every_caller_on_its_own_context(final Vertx vertx,
+                                                                      final VertxTestContext context
+                                                                     ) {
+        AtomicInteger executions = new AtomicInteger(0);
+        VIO<Integer> memo = counter(vertx,
+                                    executions,
+                                    50
+                                   ).memoize();
+        // every verticle gets its own event-loop context
+        Future.all(newContext(vertx),
+                   newContext(vertx)
+                  )
+              .onSuccess(contexts -> {
+                  Context first = contexts.resultAt(0);
+                  Context second = contexts.resultAt(1);
+                  // the first caller loads the effect, which completes on its context, and the second one waits for it
+                  first.runOnContext(it -> {
+                      memo.get();
+                      second.runOnContext(nil -> memo.onComplete(result -> context.verify(() -> {
+                                                         Assertions.assertTrue(result.succeeded());
+                                                         Assertions.assertEquals(1,
+                                                                                 executions.get()
+                                                                                );
+                                                         Assertions.assertSame(second,
+                                                                               Vertx.currentContext()
+                                                                              );
+                                                         context.completeNow();
+                                                     }))
+                                                     .get());
+                  });
+              });
+    }
+}
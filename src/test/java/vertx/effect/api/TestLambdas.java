@@ -1,14 +1,23 @@
 package vertx.effect.api;
 
 import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.CachedLambda;
+import vertx.effect.ListExp;
 import vertx.effect.VIO;
 import vertx.effect.Lambda;
 import vertx.effect.Lambdac;
+import vertx.effect.Lambdas;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @SuppressWarnings("ReturnValueIgnored")
 @ExtendWith(VertxExtension.class)
 public class TestLambdas {
@@ -56,4 +65,81 @@ public class TestLambdas {
               .get();
 
     }
+
+    @Test
+    public void test_cached_lambda_dedupes_concurrent_calls(final Vertx vertx,
+                                                            final VertxTestContext context
+                                                           ) {
+        AtomicInteger executions = new AtomicInteger(0);
+        CachedLambda<String, Integer> length = Lambdas.cached(str -> VIO.cancelable(promise -> {
+                                                                  executions.incrementAndGet();
+                                                                  vertx.setTimer(20,
+                                                                                 id -> promise.complete(str.length())
+                                                                                );
+                                                                  return null;
+                                                              }),
+                                                              100,
+                                                              Duration.ofMinutes(1)
+                                                             );
+
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(List.of(2, 2, 3, 2))
+                                                       && executions.get() == 2
+                                                       && length.misses() == 2
+                                                       && length.hits() == 2
+                 )
+                 .accept(ListExp.par(length.apply("hi"),
+                                     length.apply("hi"),
+                                     length.apply("bye")
+                                    )
+                                .then(list -> length.apply("hi")
+                                                    .map(n -> List.of(list.get(0),
+                                                                      list.get(1),
+                                                                      list.get(2),
+                                                                      n
+                                                                     ))),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_cached_lambda_doesnt_cache_failures_and_evicts(final VertxTestContext context) {
+        AtomicInteger executions = new AtomicInteger(0);
+        CachedLambda<Integer, Integer> inc = Lambdas.cached(n -> VIO.lazy(() -> {
+                                                                if (executions.incrementAndGet() == 1)
+                                                                    throw new RuntimeException("first");
+                                                                return n + 1;
+                                                            }),
+                                                            1,
+                                                            Duration.ofMinutes(1)
+                                                           );
+
+        Verifiers.<Integer>verifySuccess(n -> n == 2
+                                              && inc.misses() == 4
+                                              && inc.evictions() == 2
+                                              && inc.size() == 1
+                 )
+                 .accept(inc.apply(1)
+                            .recoverWith(e -> inc.apply(1))
+                            .then(n -> inc.apply(2))
+                            .then(n -> inc.apply(1)),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_batched_lambda_fails_every_caller_if_the_reply_doesnt_match(final VertxTestContext context) {
+        Lambda<Integer, Integer> batched = Lambdas.batched(list -> VIO.succeed(List.of(1)),
+                                                           2,
+                                                           Duration.ofSeconds(5)
+                                                          );
+
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(List.of(-1, -1)))
+                 .accept(ListExp.par(batched.apply(1)
+                                            .recover(e -> -1),
+                                     batched.apply(2)
+                                            .recover(e -> -1)
+                                    ),
+                         context
+                        );
+    }
 }
@@ -0,0 +1,355 @@
+package vertx.effect.api;
+
+import fun.gen.Gen;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.AnyExp;
+import vertx.effect.Delay;
+import vertx.effect.VIO;
+import vertx.effect.stub.StubBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SuppressWarnings("ReturnValueIgnored")
+@ExtendWith(VertxExtension.class)
+public class TestVIO {
+
+    private static VIO<Integer> countDown(final int n) {
+        if (n == 0) return VIO.succeed(0);
+        return VIO.succeed(n)
+                  .then(i -> countDown(i - 1));
+    }
+
+    private static <O> VIO<O> after(final Vertx vertx,
+                                    final long millis,
+                                    final O value
+                                   ) {
+        return VIO.effect(() -> {
+            Promise<O> promise = Promise.promise();
+            vertx.setTimer(millis,
+                           id -> promise.complete(value)
+                          );
+            return promise.future();
+        });
+    }
+
+    @Test
+    public void long_chains_dont_overflow_the_stack(final VertxTestContext context) {
+        VIO<Integer> program = VIO.succeed(0);
+        for (int i = 0; i < 100_000; i++)
+            program = program.map(n -> n + 1)
+                             .then(VIO::succeed);
+
+        Verifiers.<Integer>verifySuccess(n -> n == 100_000)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void long_chains_of_maps_dont_overflow_the_stack(final VertxTestContext context) {
+        VIO<Integer> program = VIO.succeed(0);
+        for (int i = 0; i < 100_000; i++)
+            program = program.map(n -> n + 1);
+
+        Verifiers.<Integer>verifySuccess(n -> n == 100_000)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void recursive_programs_dont_overflow_the_stack(final VertxTestContext context) {
+        Verifiers.<Integer>verifySuccess(n -> n == 0)
+                 .accept(countDown(1_000_000),
+                         context
+                        );
+    }
+
+    @Test
+    public void recursive_programs_with_async_steps(final Vertx vertx,
+                                                   final VertxTestContext context
+                                                  ) {
+        AtomicInteger counter = new AtomicInteger(0);
+        VIO<Integer> program = after(vertx,
+                                     1,
+                                     0
+                                    ).map(n -> counter.incrementAndGet())
+                                   .repeat(n -> n < 100,
+                                           rs -> Optional.of(Delay.ZERO)
+                                          );
+
+        Verifiers.<Integer>verifySuccess(n -> n == 100)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void maps_are_lazy_and_failures_skip_them(final VertxTestContext context) {
+        AtomicInteger counter = new AtomicInteger(0);
+        VIO<Integer> program = VIO.<Integer>fail(new RuntimeException("boom"))
+                                  .map(n -> counter.incrementAndGet())
+                                  .map(n -> counter.incrementAndGet());
+
+        Assertions.assertEquals(0,
+                                counter.get()
+                               );
+        Verifiers.<Integer>verifyFailure(e -> e.getMessage().equals("boom") && counter.get() == 0)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void exceptions_thrown_by_functions_fail_the_effect(final VertxTestContext context) {
+        VIO<Integer> program = VIO.succeed(1)
+                                  .map(n -> {
+                                      throw new IllegalStateException("bad map");
+                                  });
+
+        Verifiers.<Integer>verifyFailure(e -> e instanceof IllegalStateException)
+                 .accept(program.map(n -> n + 1),
+                         context
+                        );
+    }
+
+    @Test
+    public void failing_observers_dont_change_the_result(final VertxTestContext context) {
+        VIO<Integer> program = VIO.succeed(1)
+                                  .onSuccess(n -> {
+                                      throw new IllegalStateException("bad observer");
+                                  })
+                                  .map(n -> n + 1);
+
+        Verifiers.<Integer>verifySuccess(n -> n == 2)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void fallback_returns_the_original_failure(final VertxTestContext context) {
+        VIO<Integer> program = VIO.<Integer>fail(new RuntimeException("first"))
+                                  .fallbackTo(e -> VIO.fail(new RuntimeException("second")));
+
+        Verifiers.<Integer>verifyFailure(e -> e.getMessage().equals("first"))
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void recover_after_async_failure(final Vertx vertx,
+                                            final VertxTestContext context
+                                           ) {
+        VIO<Integer> program = after(vertx,
+                                     10,
+                                     0
+                                    ).then(n -> VIO.<Integer>fail(new RuntimeException("boom")))
+                                     .recover(e -> 1)
+                                     .map(n -> n * 10);
+
+        Verifiers.<Integer>verifySuccess(n -> n == 10)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void known_values_are_evaluated_synchronously() {
+        Future<Integer> future = VIO.succeed(1)
+                                    .map(n -> n + 1)
+                                    .then(n -> VIO.succeed(n * 10))
+                                    .then(n -> VIO.<Integer>fail(new RuntimeException("boom")))
+                                    .recover(e -> 30)
+                                    .get();
+
+        Assertions.assertTrue(future.isComplete());
+        Assertions.assertEquals(30,
+                                future.result()
+                               );
+    }
+
+    @Test
+    public void lazy_is_evaluated_every_time(final VertxTestContext context) {
+        AtomicInteger counter = new AtomicInteger(0);
+        VIO<Integer> program = VIO.lazy(counter::incrementAndGet);
+        program.get();
+        program.get();
+
+        Verifiers.<Integer>verifySuccess(n -> n == 3)
+                 .accept(program,
+                         context
+                        );
+    }
+
+    @Test
+    public void lazy_fails_if_the_supplier_throws(final VertxTestContext context) {
+        VIO<Integer> program = VIO.lazy(() -> {
+            throw new IllegalStateException("bad supplier");
+        });
+
+        Verifiers.<Integer>verifyFailure(e -> e instanceof IllegalStateException)
+                 .accept(program.map(n -> n + 1),
+                         context
+                        );
+    }
+
+    @Test
+    public void cancellation_reaches_the_running_step_of_a_program(final Vertx vertx,
+                                                                   final VertxTestContext context
+                                                                  ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        VIO<Boolean> slow = VIO.<Integer>cancelable(promise -> {
+                                   long id = vertx.setTimer(10_000,
+                                                            it -> promise.complete(1)
+                                                           );
+                                   return () -> vertx.cancelTimer(id);
+                               })
+                               .onCancel(cancellations::incrementAndGet)
+                               .map(n -> n + 1)
+                               .then(n -> VIO.succeed(n > 0));
+
+        Verifiers.<Boolean>verifySuccess(result -> result && cancellations.get() == 1)
+                 .accept(AnyExp.par(after(vertx,
+                                          1,
+                                          0
+                                         ).then(n -> slow),
+                                    after(vertx,
+                                          50,
+                                          true
+                                         )
+                                   )
+                               .cancelRemaining(),
+                         context
+                        );
+    }
+
+    @Test
+    public void observers_are_notified_when_the_effect_times_out(final Vertx vertx,
+                                                                 final VertxTestContext context
+                                                                ) {
+        AtomicInteger completions = new AtomicInteger(0);
+        AtomicInteger maps = new AtomicInteger(0);
+        VIO<Integer> timedOut = after(vertx,
+                                      200,
+                                      1
+                                     ).map(n -> maps.incrementAndGet())
+                                      .onComplete(result -> {
+                                          if (result.cause() instanceof CancellationException)
+                                              completions.incrementAndGet();
+                                      })
+                                      .timeout(Duration.ofMillis(50));
+
+        timedOut.get()
+                .onComplete(result -> vertx.setTimer(300,
+                                                     it -> context.verify(() -> {
+                                                         Assertions.assertTrue(result.cause() instanceof TimeoutException);
+                                                         Assertions.assertEquals(1,
+                                                                                 completions.get()
+                                                                                );
+                                                         Assertions.assertEquals(0,
+                                                                                 maps.get()
+                                                                                );
+                                                         context.completeNow();
+                                                     })
+                                                    ));
+    }
+
+    @Test
+    public void sleeping_doesnt_block_the_event_loop(final Vertx vertx,
+                                                     final VertxTestContext context
+                                                    ) {
+        StubBuilder<Integer> stub = StubBuilder.ofSucGen(Gen.cons(1))
+                                               .withDelays(Gen.cons(Duration.ofMillis(100)));
+        List<Integer> input = IntStream.range(0, 1000)
+                                       .boxed()
+                                       .collect(Collectors.toList());
+        vertx.runOnContext(it -> {
+            long start = System.nanoTime();
+            Verifiers.<List<Integer>>verifySuccess(list -> list.size() == 1000
+                                                           && Duration.ofNanos(System.nanoTime() - start)
+                                                                      .toMillis() < 5_000
+                                                           && Vertx.currentContext() != null
+                     )
+                     .accept(VIO.traverse(input,
+                                          n -> stub.build(),
+                                          1000
+                                         ),
+                             context
+                            );
+        });
+    }
+
+    @Test
+    public void sleeping_outside_vertx_uses_a_shared_scheduler(final VertxTestContext context) {
+        long start = System.nanoTime();
+        Verifiers.<Integer>verifySuccess(n -> n == 1 && Duration.ofNanos(System.nanoTime() - start)
+                                                               .toMillis() >= 50)
+                 .accept(VIO.succeed(1)
+                            .sleep(Duration.ofMillis(50)),
+                         context
+                        );
+    }
+
+    @Test
+    public void sleeping_outside_vertx_doesnt_resume_on_the_scheduler_thread(final VertxTestContext context) {
+        Verifiers.<String>verifySuccess(thread -> !thread.equals("vertx-effect-timer"))
+                 .accept(VIO.lazy(() -> Thread.currentThread()
+                                              .getName())
+                            .sleep(Duration.ofMillis(10)),
+                         context
+                        );
+    }
+
+    @Test
+    public void blocking_runs_on_a_virtual_thread_and_resumes_on_the_context(final Vertx vertx,
+                                                                             final VertxTestContext context
+                                                                            ) {
+        vertx.runOnContext(it -> {
+            Context eventLoop = Vertx.currentContext();
+            Verifiers.<Boolean>verifySuccess(isVirtual -> isVirtual && Vertx.currentContext() == eventLoop)
+                     .accept(VIO.blocking(() -> Thread.currentThread()
+                                                      .isVirtual()),
+                             context
+                            );
+        });
+    }
+
+    @Test
+    public void blocking_fails_if_the_supplier_throws(final VertxTestContext context) {
+        Verifiers.<Integer>verifyFailure(e -> e.getMessage()
+                                               .equals("boom"))
+                 .accept(VIO.blocking(() -> {
+                             throw new IllegalStateException("boom");
+                         }),
+                         context
+                        );
+    }
+
+    @Test
+    public void blocking_fails_if_the_supplier_throws_an_error(final VertxTestContext context) {
+        Verifiers.<Integer>verifyFailure(e -> e instanceof AssertionError && e.getMessage()
+                                                                              .equals("boom"))
+                 .accept(VIO.blocking(() -> {
+                             throw new AssertionError("boom");
+                         }),
+                         context
+                        );
+    }
+}
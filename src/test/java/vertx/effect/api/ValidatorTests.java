@@ -6,6 +6,7 @@ import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import jsonvalues.JsArray;
 import jsonvalues.spec.JsSpecs;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -65,6 +66,23 @@ public class ValidatorTests {
                 .get();
     }
 
+    @Test
+    public void test_validator_failure_is_created_once(VertxTestContext context) {
+        Lambda<Integer, Integer> validate = Validators.validate(i -> i > 0,
+                                                                "lower than zero"
+                                                               );
+        validate.apply(-1)
+                .get()
+                .onComplete(first -> validate.apply(-2)
+                                             .get()
+                                             .onComplete(second -> context.verify(() -> {
+                                                 Assertions.assertSame(first.cause(),
+                                                                       second.cause()
+                                                                      );
+                                                 context.completeNow();
+                                             })));
+    }
+
     @Test
     public void test_array_validator_failure(VertxTestContext context) {
         Lambda<JsArray, JsArray> fn = Validators.validateJsArray(JsSpecs.arrayOfStr());
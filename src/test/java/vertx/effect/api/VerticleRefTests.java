@@ -1,19 +1,31 @@
 package vertx.effect.api;
 
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.Failures;
+import vertx.effect.ListExp;
 import vertx.effect.VIO;
 import vertx.effect.Lambda;
+import vertx.effect.Lambdac;
+import vertx.effect.Lambdas;
 import vertx.effect.VertxRef;
 import vertx.values.codecs.RegisterJsValuesCodecs;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @SuppressWarnings("ReturnValueIgnored")
 @ExtendWith(VertxExtension.class)
 public class VerticleRefTests {
@@ -73,5 +85,205 @@ public class VerticleRefTests {
 
     }
 
+    @Test
+    public void test_ask_coalesced_sends_one_message_per_key(final VertxTestContext context) {
+        AtomicInteger received = new AtomicInteger(0);
+        Lambda<Integer, Integer> slowDouble = i -> VIO.lazy(received::incrementAndGet)
+                                                      .then(n -> VIO.succeed(i * 2)
+                                                                    .sleep(Duration.ofMillis(50)));
+
+        vertxRef.<Integer, Integer>deploy("coalesced-double",
+                                          slowDouble
+                                         )
+                .then(ref -> {
+                    Lambda<Integer, Integer> ask = ref.askCoalesced();
+                    return ListExp.par(ask.apply(1),
+                                       ask.apply(1),
+                                       ask.apply(1),
+                                       ask.apply(2)
+                                      )
+                                  .then(list -> ask.apply(1)
+                                                   .map(n -> List.of(list.get(0),
+                                                                     list.get(1),
+                                                                     list.get(2),
+                                                                     list.get(3),
+                                                                     n
+                                                                    )));
+                })
+                .onComplete(result -> context.verify(() -> {
+                    Assertions.assertEquals(List.of(2, 2, 2, 4, 2),
+                                            result.result()
+                                           );
+                    Assertions.assertEquals(3,
+                                            received.get()
+                                           );
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_ask_coalesced_propagates_timeouts_to_every_waiter(final VertxTestContext context) {
+        AtomicInteger received = new AtomicInteger(0);
+        Lambda<Integer, Integer> slow = i -> VIO.lazy(received::incrementAndGet)
+                                                .then(n -> VIO.succeed(n)
+                                                              .sleep(Duration.ofMillis(500)));
+
+        vertxRef.<Integer, Integer>deploy("coalesced-slow",
+                                          slow
+                                         )
+                .then(ref -> {
+                    Lambda<Integer, Integer> ask = ref.askCoalesced(new DeliveryOptions().setSendTimeout(50),
+                                                                    i -> i
+                                                                   );
+                    return ListExp.par(ask.apply(1)
+                                          .recover(e -> Failures.VERTICLE_TIMEOUT_PRISM.getOptional.apply(e)
+                                                                                              .isPresent() ? -1 : 0),
+                                       ask.apply(1)
+                                          .recover(e -> Failures.VERTICLE_TIMEOUT_PRISM.getOptional.apply(e)
+                                                                                              .isPresent() ? -1 : 0)
+                                      );
+                })
+                .onComplete(result -> context.verify(() -> {
+                    Assertions.assertEquals(List.of(-1, -1),
+                                            result.result()
+                                           );
+                    Assertions.assertEquals(1,
+                                            received.get()
+                                           );
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_batched_ask_sends_one_message_per_batch(final VertxTestContext context) {
+        AtomicInteger batches = new AtomicInteger(0);
+        Lambda<List<Integer>, List<Integer>> doubleAll = list -> VIO.lazy(() -> {
+            batches.incrementAndGet();
+            List<Integer> result = new ArrayList<>();
+            for (Integer n : list) result.add(n * 2);
+            return result;
+        });
 
+        vertxRef.deployBatch("batch-double",
+                             doubleAll
+                            )
+                .then(ref -> {
+                    Lambda<Integer, Integer> ask = Lambdas.batched(ref.ask(),
+                                                                   10,
+                                                                   Duration.ofMillis(5)
+                                                                  );
+                    List<Integer> input = new ArrayList<>();
+                    for (int i = 0; i < 25; i++) input.add(i);
+                    return VIO.traverse(input,
+                                        ask,
+                                        25
+                                       );
+                })
+                .onComplete(result -> context.verify(() -> {
+                    List<Integer> expected = new ArrayList<>();
+                    for (int i = 0; i < 25; i++) expected.add(i * 2);
+                    Assertions.assertEquals(expected,
+                                            result.result()
+                                           );
+                    Assertions.assertEquals(3,
+                                            batches.get()
+                                           );
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_local_ask_invokes_the_lambda_on_an_instance_context(final VertxTestContext context) {
+        Lambda<Integer, String> thread = i -> VIO.lazy(() -> Thread.currentThread()
+                                                                   .getName() + ":" + i);
+
+        vertxRef.deploy("local-thread",
+                        thread,
+                        new DeploymentOptions().setInstances(2)
+                       )
+                .then(ref -> {
+                    Assertions.assertFalse(ref.isLocal());
+                    Assertions.assertTrue(ref.local()
+                                             .isLocal());
+                    return ListExp.par(ref.local()
+                                          .ask()
+                                          .apply(1),
+                                       ref.ask()
+                                          .apply(1)
+                                      );
+                })
+                .onComplete(result -> context.verify(() -> {
+                    Assertions.assertTrue(result.succeeded());
+                    Assertions.assertTrue(result.result()
+                                                .get(0)
+                                                .startsWith("vert.x-eventloop-thread"));
+                    Assertions.assertTrue(result.result()
+                                                .get(0)
+                                                .endsWith(":1"));
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_local_trace_honors_headers_and_failures(final VertxTestContext context) {
+        Lambdac<String, String> header = (headers, name) -> headers.contains(name) ?
+                                                            VIO.succeed(headers.get(name)) :
+                                                            VIO.fail(new RuntimeException("no header " + name));
+
+        vertxRef.deploy("local-header",
+                        header
+                       )
+                .then(ref -> {
+                    Lambdac<String, String> trace = ref.<String, String>local()
+                                                       .trace();
+                    MultiMap headers = MultiMap.caseInsensitiveMultiMap()
+                                               .add("trace-id",
+                                                    "123"
+                                                   );
+                    return ListExp.par(trace.apply(headers,
+                                                   "trace-id"
+                                                  ),
+                                       trace.apply(headers,
+                                                   "user"
+                                                  )
+                                            .recover(e -> e instanceof ReplyException reply ?
+                                                          "failure code " + reply.failureCode() :
+                                                          "unexpected failure")
+                                      );
+                })
+                .onComplete(result -> context.verify(() -> {
+                    Assertions.assertEquals(List.of("123",
+                                                    "failure code " + Failures.UNKNOWN_ERROR_CODE
+                                                   ),
+                                            result.result()
+                                           );
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_local_ask_honors_the_send_timeout(final VertxTestContext context) {
+        Lambda<Integer, Integer> slow = i -> VIO.succeed(i)
+                                                .sleep(Duration.ofMillis(500));
+
+        vertxRef.deploy("local-slow",
+                        slow
+                       )
+                .then(ref -> ref.local()
+                                .ask(new DeliveryOptions().setSendTimeout(50))
+                                .apply(1)
+                                .map(n -> false)
+                                .recover(e -> Failures.VERTICLE_TIMEOUT_PRISM.getOptional.apply(e)
+                                                                                .isPresent()))
+                .onComplete(result -> context.verify(() -> {
+                    Assertions.assertTrue(result.result());
+                    context.completeNow();
+                }))
+                .get();
+    }
 }
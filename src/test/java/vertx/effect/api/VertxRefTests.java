@@ -1,23 +1,43 @@
 package vertx.effect.api;
 
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.junit5.Checkpoint;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import jsonvalues.JsArray;
+import jsonvalues.JsInt;
 import jsonvalues.JsObj;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import vertx.effect.*;
-import vertx.effect.PairExp;
 import vertx.values.codecs.RegisterJsValuesCodecs;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 @SuppressWarnings("ReturnValueIgnored")
 @ExtendWith(VertxExtension.class)
@@ -169,5 +189,700 @@ public class VertxRefTests {
 
     }
 
+    record Point(int x, int y) {
+    }
+
+    @Test
+    public void test_json_values_are_passed_by_reference(VertxTestContext context) {
+        // the default codecs of vertx-json-values pass them by reference to local consumers
+        Vertx vertx = Vertx.vertx();
+        VertxRef ref = new VertxRef(vertx);
+        JsObj obj = JsObj.of("a",
+                             JsInt.of(1)
+                            );
+        JsArray array = JsArray.of(1,
+                                   2
+                                  );
+        ref.deployVerticle(new RegisterJsValuesCodecs())
+           .then(id -> PairExp.seq(ref.deploy("identity-obj",
+                                              Lambda.<JsObj>identity()
+                                             )
+                                      .then(r -> r.ask()
+                                                  .apply(obj)),
+                                   ref.deploy("identity-array",
+                                              Lambda.<JsArray>identity()
+                                             )
+                                      .then(r -> r.ask()
+                                                  .apply(array))
+                                  ))
+               .onComplete(result -> context.verify(() -> {
+                   assertTrue(result.succeeded());
+                   assertSame(obj,
+                              result.result()
+                                    .first()
+                             );
+                   assertSame(array,
+                              result.result()
+                                    .second()
+                             );
+                   vertx.close()
+                        .onComplete(it -> context.completeNow());
+               }))
+               .get();
+    }
+
+    @Test
+    public void test_records_are_passed_by_reference_with_local_codec(VertxTestContext context) {
+        Point point = new Point(1,
+                                2
+        );
+        vertxRef.registerLocalCodec(Point.class)
+                .deploy("identity-point",
+                        Lambda.<Point>identity()
+                       )
+                .then(r -> r.ask()
+                            .apply(point))
+                .onComplete(result -> context.verify(() -> {
+                    assertSame(point,
+                               result.result()
+                              );
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_pooled_spawn_reuses_the_verticles(VertxTestContext context) {
+        // a new vertx instance to count the deployments
+        Vertx vertx = Vertx.vertx();
+        AtomicInteger inFlight = new AtomicInteger(0);
+        AtomicInteger maxInFlight = new AtomicInteger(0);
+        Lambda<Integer, Integer> inc = new VertxRef(vertx).spawnPooled("pooled-inc",
+                                                                       (Integer n) -> VIO.lazy(() -> {
+                                                                                             maxInFlight.accumulateAndGet(inFlight.incrementAndGet(),
+                                                                                                                          Math::max
+                                                                                                                         );
+                                                                                             return n;
+                                                                                         })
+                                                                                         .then(m -> VIO.succeed(m + 1)
+                                                                                                       .sleep(Duration.ofMillis(10)))
+                                                                                         .onComplete(it -> inFlight.decrementAndGet()),
+                                                                       2,
+                                                                       Duration.ofMinutes(1)
+                                                                      );
+        VIO.traverse(IntStream.range(0,
+                                     20
+                                    )
+                              .boxed()
+                              .toList(),
+                     inc,
+                     10
+                    )
+           .onComplete(result -> context.verify(() -> {
+               assertTrue(result.succeeded());
+               assertEquals(IntStream.range(1,
+                                            21
+                                           )
+                                     .boxed()
+                                     .toList(),
+                            result.result()
+                           );
+               assertEquals(2,
+                            vertx.deploymentIDs()
+                                 .size()
+                           );
+               assertTrue(maxInFlight.get() <= 2);
+               vertx.close()
+                    .onComplete(it -> context.completeNow());
+           }))
+           .get();
+    }
+
+    @Test
+    public void test_pooled_spawn_undeploys_idle_verticles(VertxTestContext context) {
+        Vertx vertx = Vertx.vertx();
+        Lambda<Integer, Integer> inc = new VertxRef(vertx).spawnPooled("pooled-idle",
+                                                                       (Integer n) -> VIO.succeed(n + 1),
+                                                                       4,
+                                                                       Duration.ofMillis(50)
+                                                                      );
+        inc.apply(1)
+           .onSuccess(n -> context.verify(() -> assertEquals(1,
+                                                             vertx.deploymentIDs()
+                                                                  .size()
+                                                            )))
+           .then(n -> VIO.succeed(n)
+                         .sleep(Duration.ofMillis(300)))
+           .onComplete(result -> context.verify(() -> {
+               assertEquals(2,
+                            result.result()
+                           );
+               assertTrue(vertx.deploymentIDs()
+                               .isEmpty());
+               vertx.close()
+                    .onComplete(it -> context.completeNow());
+           }))
+           .get();
+    }
+
+    @Test
+    public void test_pooled_spawn_gets_the_workers_back_from_timed_out_calls(VertxTestContext context) {
+        Vertx vertx = Vertx.vertx();
+        Lambda<Integer, Integer> inc = new VertxRef(vertx).spawnPooled("pooled-timeout",
+                                                                       (Integer n) -> VIO.succeed(n + 1)
+                                                                                         .sleep(Duration.ofMillis(200)),
+                                                                       1,
+                                                                       Duration.ofMinutes(1)
+                                                                      );
+        // the second call times out while waiting for the worker, and the first one while the worker processes it
+        PairExp.par(inc.apply(1)
+                       .timeout(Duration.ofMillis(150),
+                                e -> VIO.succeed(-1)
+                               ),
+                    inc.apply(2)
+                       .timeout(Duration.ofMillis(50),
+                                e -> VIO.succeed(-1)
+                               )
+                   )
+               .then(timedOut -> inc.apply(3)
+                                    .timeout(Duration.ofMillis(1500)))
+               .onComplete(result -> context.verify(() -> {
+                   assertTrue(result.succeeded());
+                   assertEquals(4,
+                                result.result()
+                               );
+                   assertEquals(1,
+                                vertx.deploymentIDs()
+                                     .size()
+                               );
+                   vertx.close()
+                        .onComplete(it -> context.completeNow());
+               }))
+               .get();
+    }
 
+    @Test
+    public void test_every_instance_is_a_new_verticle(VertxTestContext context) {
+        DeploymentOptions options = new DeploymentOptions().setInstances(4);
+        vertxRef.deploy("instances-inc",
+                        (Integer n) -> VIO.succeed(n + 1),
+                        options
+                       )
+                .then(ref -> {
+                    assertEquals(4,
+                                 ref.ids.size()
+                                );
+                    // every instance unregisters its own consumer, so none of them is left after undeploying
+                    return VIO.effect(ref::undeploy)
+                              .then(it -> ref.ask()
+                                             .apply(1));
+                })
+                .onComplete(result -> context.verify(() -> {
+                    assertTrue(result.failed());
+                    assertEquals(ReplyFailure.NO_HANDLERS,
+                                 ((ReplyException) result.cause()).failureType()
+                                );
+                    assertEquals(4,
+                                 options.getInstances()
+                                );
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_deploy_an_instance_per_event_loop(VertxTestContext context) {
+        int eventLoops = vertxRef.eventLoops();
+        assertTrue(eventLoops > 0);
+        vertxRef.deploy("per-event-loop-inc",
+                        (Integer n) -> VIO.succeed(n + 1),
+                        new DeploymentOptions().setInstances(eventLoops)
+                       )
+                .onComplete(result -> context.verify(() -> {
+                    assertEquals(eventLoops,
+                                 result.result().ids.size()
+                                );
+                    result.result()
+                          .undeploy()
+                          .onComplete(it -> context.completeNow());
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_blocking_asks_on_virtual_threads_dont_wait_for_each_other(VertxTestContext context) {
+        Lambda<Integer, Boolean> isVirtual = n -> VIO.blocking(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return Thread.currentThread()
+                         .isVirtual();
+        });
+        long start = System.nanoTime();
+        vertxRef.deploy("virtual-thread-blocking",
+                        isVirtual,
+                        ThreadingModel.VIRTUAL_THREAD
+                       )
+                .then(ref -> VIO.traverse(IntStream.range(0,
+                                                          100
+                                                         )
+                                                   .boxed()
+                                                   .toList(),
+                                          ref.ask(),
+                                          100
+                                         ))
+                .onComplete(result -> context.verify(() -> {
+                    assertTrue(result.succeeded());
+                    assertTrue(result.result()
+                                     .stream()
+                                     .allMatch(it -> it));
+                    // one after the other, they would take ten seconds
+                    assertTrue(Duration.ofNanos(System.nanoTime() - start)
+                                       .toMillis() < 5_000);
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_mailbox_rejects_messages_when_full(VertxTestContext context) {
+        Promise<Void> release = Promise.promise();
+        vertxRef.deploy("bounded-mailbox-reject",
+                        (Integer n) -> VIO.effect(() -> release.future()
+                                                              .map(it -> n + 1)),
+                        MailboxPolicy.reject(1,
+                                             1
+                                            )
+                       )
+                .onSuccess(ref -> {
+                    Lambda<Integer, Integer> ask = ref.ask();
+                    MailboxMetrics metrics = ref.mailbox()
+                                                .orElseThrow();
+                    Future<Integer> inFlight = ask.apply(1)
+                                                  .get();
+                    Future<Integer> queued = ask.apply(2)
+                                                .get();
+                    ask.apply(3)
+                       .onComplete(rejected -> context.verify(() -> {
+                           assertTrue(Failures.anyOf(Failures.MAILBOX_FULL_CODE)
+                                              .test(rejected.cause()));
+                           assertEquals(1,
+                                        metrics.inFlight()
+                                       );
+                           assertEquals(1,
+                                        metrics.queued()
+                                       );
+                           release.complete();
+                       }))
+                       .get();
+                    Future.all(inFlight,
+                               queued
+                              )
+                          .onComplete(result -> context.verify(() -> {
+                              assertTrue(result.succeeded());
+                              assertEquals(3,
+                                           queued.result()
+                                          );
+                              assertEquals(1,
+                                           metrics.rejected()
+                                          );
+                              assertEquals(0,
+                                           metrics.queued()
+                                          );
+                              ref.undeploy()
+                                 .onComplete(it -> context.completeNow());
+                          }));
+                })
+                .get();
+    }
+
+    @Test
+    public void test_paused_mailbox_discards_the_messages_beyond_max_buffered(Vertx vertx,
+                                                                              VertxTestContext context
+                                                                             ) {
+        Promise<Void> release = Promise.promise();
+        vertxRef.deploy("bounded-mailbox-buffer",
+                        (Integer n) -> VIO.effect(() -> release.future()
+                                                              .map(it -> n + 1)),
+                        MailboxPolicy.pause(1,
+                                            0,
+                                            1
+                                           )
+                       )
+                .onSuccess(ref -> {
+                    // the first message is processed, the second one buffered and the rest discarded
+                    Lambda<Integer, Integer> ask = n -> ref.ask(new DeliveryOptions().setSendTimeout(1000))
+                                                           .apply(n)
+                                                           .recover(e -> -1);
+                    ListExp.par(ask.apply(1),
+                                ask.apply(2),
+                                ask.apply(3),
+                                ask.apply(4)
+                               )
+                           .onComplete(result -> context.verify(() -> {
+                               assertEquals(List.of(2,
+                                                    3,
+                                                    -1,
+                                                    -1
+                                                   ),
+                                            result.result()
+                                           );
+                               ref.undeploy()
+                                  .onComplete(nil -> context.completeNow());
+                           }))
+                           .get();
+                    vertx.setTimer(200,
+                                   it -> release.complete()
+                                  );
+                })
+                .get();
+    }
+
+    @Test
+    public void test_mailbox_pauses_the_consumer_when_full(Vertx vertx,
+                                                           VertxTestContext context
+                                                          ) {
+        Promise<Void> release = Promise.promise();
+        vertxRef.deploy("bounded-mailbox-pause",
+                        (Integer n) -> VIO.effect(() -> release.future()
+                                                              .map(it -> n + 1)),
+                        MailboxPolicy.pause(1,
+                                            0
+                                           )
+                       )
+                .onSuccess(ref -> {
+                    MailboxMetrics metrics = ref.mailbox()
+                                                .orElseThrow();
+                    VIO.traverse(List.of(1,
+                                         2,
+                                         3
+                                        ),
+                                 ref.ask(),
+                                 3
+                                )
+                       .onComplete(result -> context.verify(() -> {
+                           assertEquals(List.of(2,
+                                                3,
+                                                4
+                                               ),
+                                        result.result()
+                                       );
+                           assertEquals(0,
+                                        metrics.rejected()
+                                       );
+                           // the slot of the last execution is released after its reply is sent
+                           vertx.setTimer(100,
+                                          it -> context.verify(() -> {
+                                              assertEquals(0,
+                                                           metrics.inFlight()
+                                                          );
+                                              ref.undeploy()
+                                                 .onComplete(nil -> context.completeNow());
+                                          })
+                                         );
+                       }))
+                       .get();
+                    vertx.setTimer(100,
+                                   it -> context.verify(() -> {
+                                       // the other two messages are buffered by the paused consumer
+                                       assertEquals(1,
+                                                    metrics.inFlight()
+                                                   );
+                                       assertEquals(1,
+                                                    metrics.pauses()
+                                                   );
+                                       release.complete();
+                                   })
+                                  );
+                })
+                .get();
+    }
+
+    @Test
+    public void test_the_events_of_an_ask_are_published(VertxTestContext context) {
+        String address = "published-events-inc";
+        Set<String> events = ConcurrentHashMap.newKeySet();
+        vertxRef.registerConsumer(VertxRef.EVENTS_ADDRESS,
+                                  (JsObj event) -> {
+                                      String target = Event.addressOpt.get.apply(event)
+                                                                      .or(() -> Event.toOpt.get.apply(event))
+                                                                      .or(() -> Event.fromOpt.get.apply(event))
+                                                                      .orElse("");
+                                      if (!target.equals(address)) return;
+                                      context.verify(() -> {
+                                          assertTrue(Event.threadNameLens.get.apply(event)
+                                                                                  .isPresent());
+                                          if (Event.REPLIED_RESP_EVENT.equals(Event.eventLens.get.apply(event)))
+                                              assertEquals(JsInt.of(2),
+                                                           Event.messageLens.get.apply(event)
+                                                          );
+                                      });
+                                      events.add(Event.eventLens.get.apply(event));
+                                      if (events.containsAll(Set.of(Event.SENT_MESSAGE_EVENT,
+                                                                    Event.RECEIVED_MESSAGE_EVENT,
+                                                                    Event.REPLIED_RESP_EVENT,
+                                                                    Event.RECEIVED_RESP_EVENT
+                                                                   )))
+                                          context.completeNow();
+                                  }
+                                 );
+        vertxRef.deploy(address,
+                        (Integer n) -> VIO.succeed(n + 1)
+                       )
+                .then(ref -> ref.ask()
+                                .apply(1))
+                .onComplete(result -> context.verify(() -> assertEquals(2,
+                                                                        result.result()
+                                                                       )))
+                .get();
+    }
+
+    @Test
+    public void test_the_events_keep_the_headers_as_they_were_sent(VertxTestContext context) {
+        String address = "published-headers-inc";
+        vertxRef.registerConsumer(VertxRef.EVENTS_ADDRESS,
+                                  (JsObj event) -> {
+                                      if (!Event.SENT_MESSAGE_EVENT.equals(Event.eventLens.get.apply(event))
+                                          || !address.equals(Event.toOpt.get.apply(event)
+                                                                            .orElse(""))) return;
+                                      context.verify(() -> {
+                                          assertEquals(JsObj.of("trace-id",
+                                                                JsArray.of("1")
+                                                               ),
+                                                       Event.contextLens.get.apply(event)
+                                                      );
+                                          context.completeNow();
+                                      });
+                                  }
+                                 );
+        vertxRef.deploy(address,
+                        (Integer n) -> VIO.succeed(n + 1)
+                       )
+                .onSuccess(ref -> {
+                    MultiMap headers = MultiMap.caseInsensitiveMultiMap()
+                                               .add("trace-id",
+                                                    "1"
+                                                   );
+                    ref.trace()
+                       .apply(headers,
+                              1
+                             )
+                       .get();
+                    // the event is built by the drainer after the headers are modified
+                    headers.set("trace-id",
+                                "2"
+                               );
+                })
+                .get();
+    }
+
+    record Unprintable(int n) {
+        @Override
+        public String toString() {
+            throw new IllegalStateException("unprintable");
+        }
+    }
+
+    @Test
+    public void test_an_event_that_cant_be_built_doesnt_stop_the_next_ones(VertxTestContext context) {
+        String address = "unprintable-events";
+        vertxRef.registerLocalCodec(Unprintable.class);
+        vertxRef.registerConsumer(VertxRef.EVENTS_ADDRESS,
+                                  (JsObj event) -> {
+                                      if (Event.SENT_MESSAGE_EVENT.equals(Event.eventLens.get.apply(event))
+                                          && address.equals(Event.toOpt.get.apply(event)
+                                                                       .orElse(""))
+                                          && JsInt.of(2)
+                                                  .equals(Event.messageLens.get.apply(event)))
+                                          context.completeNow();
+                                  }
+                                 );
+        vertxRef.deploy(address,
+                        (Object message) -> VIO.succeed(message)
+                       )
+                .onSuccess(ref -> {
+                    // the events of the first ask can't be built, since the toString of the message throws
+                    ref.ask()
+                       .apply(new Unprintable(1))
+                       .then(it -> ref.ask()
+                                      .apply(2))
+                       .get();
+                })
+                .get();
+    }
+
+    @Test
+    public void test_the_service_time_of_a_reply_is_recorded_with_jfr() throws Exception {
+        String address = "jfr-events-inc";
+        CompletableFuture<RecordedEvent> replied = new CompletableFuture<>();
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("vertx.effect.MessageReplied");
+            stream.onEvent("vertx.effect.MessageReplied",
+                           event -> {
+                               if (address.equals(event.getString("address"))) replied.complete(event);
+                           }
+                          );
+            stream.startAsync();
+            Integer result = vertxRef.deploy(address,
+                                             (Integer n) -> VIO.succeed(n + 1)
+                                                               .sleep(Duration.ofMillis(10))
+                                            )
+                                     .then(ref -> ref.ask()
+                                                     .apply(1))
+                                     .get()
+                                     .toCompletionStage()
+                                     .toCompletableFuture()
+                                     .get(10,
+                                          TimeUnit.SECONDS
+                                         );
+            assertEquals(2,
+                         result
+                        );
+            RecordedEvent event = replied.get(10,
+                                              TimeUnit.SECONDS
+                                             );
+            assertTrue(event.getDuration("serviceTime")
+                            .compareTo(Duration.ofMillis(10)) >= 0);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_the_latencies_of_a_deployed_lambda_are_recorded(VertxTestContext context) {
+        String address = "latency-inc";
+        int asks = 10;
+        vertxRef.deploy(address,
+                        (Integer n) -> n < 0 ?
+                                       VIO.fail(new IllegalArgumentException("negative")) :
+                                       VIO.succeed(n + 1)
+                                          .sleep(Duration.ofMillis(20))
+                       )
+                .then(ref -> ListExp.seq(IntStream.range(0,
+                                                         asks
+                                                        )
+                                                  .mapToObj(i -> ref.ask()
+                                                                    .apply(i == 0 ? -1 : i)
+                                                                    .recover(e -> 0))
+                                                  .toArray(VIO[]::new)))
+                .onComplete(result -> context.verify(() -> {
+                    AddressMetrics metrics = vertxRef.metrics()
+                                                     .get(address);
+                    assertEquals(asks,
+                                 metrics.serviceTime()
+                                        .count()
+                                );
+                    assertEquals(1,
+                                 metrics.serviceTime()
+                                        .failures()
+                                );
+                    assertEquals(asks,
+                                 metrics.roundTrip()
+                                        .count()
+                                );
+                    assertEquals(1,
+                                 metrics.roundTrip()
+                                        .failures()
+                                );
+                    assertTrue(metrics.serviceTime()
+                                      .percentile(0.99)
+                                      .compareTo(Duration.ofMillis(19)) >= 0);
+                    assertTrue(metrics.roundTrip()
+                                      .max()
+                                      .compareTo(metrics.serviceTime()
+                                                        .max()) >= 0);
+                    context.completeNow();
+                }))
+                .get();
+    }
+
+    @Test
+    public void test_the_latencies_are_served_to_prometheus(Vertx vertx,
+                                                           VertxTestContext context
+                                                          ) {
+        String address = "prometheus-inc";
+        int port = Port.number.incrementAndGet();
+        HttpServerBuilder server = new HttpServerBuilder(vertx,
+                                                         req -> req.response()
+                                                                   .setStatusCode(404)
+                                                                   .end()
+        ).withMetrics("/metrics",
+                      vertxRef
+                     );
+        vertxRef.deploy(address,
+                        (Integer n) -> VIO.succeed(n + 1)
+                       )
+                .then(ref -> ref.ask()
+                                .apply(1))
+                .then(n -> server.create(port))
+                .get()
+                .compose(it -> vertx.createHttpClient()
+                                    .request(HttpMethod.GET,
+                                             port,
+                                             "localhost",
+                                             "/metrics"
+                                            ))
+                .compose(req -> req.send()
+                                   .compose(HttpClientResponse::body))
+                .onComplete(result -> context.verify(() -> {
+                    String text = result.result()
+                                        .toString();
+                    assertTrue(text.contains("# TYPE vertx_effect_service_time_seconds histogram"));
+                    assertTrue(text.contains("vertx_effect_service_time_seconds_count{address=\"prometheus-inc\"} 1"));
+                    assertTrue(text.contains("vertx_effect_service_time_seconds_bucket{address=\"prometheus-inc\",le=\"+Inf\"} 1"));
+                    assertTrue(text.contains("vertx_effect_round_trip_seconds_bucket{address=\"prometheus-inc\",le=\"68.719476736\"} 1"));
+                    assertTrue(text.contains("vertx_effect_service_failures_total{address=\"prometheus-inc\"} 0"));
+                    context.completeNow();
+                }));
+    }
+
+    @Test
+    public void test_failures_are_replied_without_stack_trace(VertxTestContext context) {
+        String address = "exception-reply-inc";
+        Checkpoint checkpoint = context.checkpoint(2);
+        vertxRef.deploy(address,
+                        (Integer n) -> {
+                            if (n == 0) throw new IllegalStateException("zero");
+                            return n < 0 ?
+                                   VIO.fail(new IllegalArgumentException("negative")) :
+                                   VIO.succeed(n + 1);
+                        }
+                       )
+                .onSuccess(ref -> {
+                    ref.ask()
+                       .apply(-1)
+                       .onComplete(result -> context.verify(() -> {
+                           ExceptionReply reply = (ExceptionReply) result.cause();
+                           assertEquals(Failures.UNKNOWN_ERROR_CODE,
+                                        reply.failureCode()
+                                       );
+                           assertEquals("java.lang.IllegalArgumentException: negative",
+                                        reply.getMessage()
+                                       );
+                           assertEquals(IllegalArgumentException.class.getName(),
+                                        reply.exceptionClass
+                                       );
+                           assertTrue(reply.stackTrace()
+                                           .contains("VertxRefTests"));
+                           checkpoint.flag();
+                       }))
+                       .get();
+                    ref.ask()
+                       .apply(0)
+                       .onComplete(result -> context.verify(() -> {
+                           ReplyException reply = (ReplyException) result.cause();
+                           assertEquals(Failures.INTERNAL_ERROR_CODE,
+                                        reply.failureCode()
+                                       );
+                           assertEquals("java.lang.IllegalStateException: zero",
+                                        reply.getMessage()
+                                       );
+                           checkpoint.flag();
+                       }))
+                       .get();
+                })
+                .get();
+    }
 }
+
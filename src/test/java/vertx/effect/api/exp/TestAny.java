@@ -9,10 +9,12 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import vertx.effect.*;
+import vertx.effect.api.Verifiers;
 import vertx.effect.stub.StubBuilder;
 import vertx.values.codecs.RegisterJsValuesCodecs;
 
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static vertx.effect.RetryPolicies.limitRetries;
@@ -36,6 +38,22 @@ public class TestAny {
                                                          );
     static VertxRef vertxRef;
 
+    private static VIO<Boolean> after(final Vertx vertx,
+                                      final long millis,
+                                      final boolean value,
+                                      final AtomicInteger cancellations
+                                     ) {
+        return VIO.cancelable(promise -> {
+            long id = vertx.setTimer(millis,
+                                     it -> promise.complete(value)
+                                    );
+            return () -> {
+                vertx.cancelTimer(id);
+                cancellations.incrementAndGet();
+            };
+        });
+    }
+
     @BeforeAll
     public static void prepare(final Vertx vertx,
                                final VertxTestContext testContext
@@ -338,5 +356,86 @@ public class TestAny {
 
     }
 
+    @Test
+    public void test_par_completes_as_soon_as_the_result_is_decided(final Vertx vertx,
+                                                                     final VertxTestContext context
+                                                                    ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        long start = System.nanoTime();
+        Verifiers.<Boolean>verifySuccess(result -> result == true
+                                                   && NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000
+                                                   && cancellations.get() == 0
+                                        )
+                 .accept(AnyExp.par(after(vertx,
+                                        10_000,
+                                        false,
+                                        cancellations
+                                       ),
+                                  after(vertx,
+                                        10,
+                                        true,
+                                        cancellations
+                                       )
+                                 ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_par_cancels_the_remaining_effects(final Vertx vertx,
+                                                        final VertxTestContext context
+                                                       ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<Boolean>verifySuccess(result -> result == true && cancellations.get() == 2)
+                 .accept(AnyExp.par(after(vertx,
+                                        10_000,
+                                        false,
+                                        cancellations
+                                       ),
+                                  after(vertx,
+                                        10,
+                                        true,
+                                        cancellations
+                                       ),
+                                  after(vertx,
+                                        10_000,
+                                        false,
+                                        cancellations
+                                       )
+                                 )
+                             .cancelRemaining(),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_par_fails_as_soon_as_an_effect_fails(final Vertx vertx,
+                                                         final VertxTestContext context
+                                                        ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<Boolean>verifyFailure(e -> e.getMessage()
+                                               .equals("boom") && cancellations.get() == 1)
+                 .accept(AnyExp.par(after(vertx,
+                                        10_000,
+                                        false,
+                                        cancellations
+                                       ),
+                                  VIO.fail(new RuntimeException("boom"))
+                                 )
+                             .cancelRemaining(),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_par_doesnt_start_effects_once_decided(final VertxTestContext context) {
+        AtomicInteger started = new AtomicInteger(0);
+        Verifiers.<Boolean>verifySuccess(result -> result == true && started.get() == 0)
+                 .accept(AnyExp.par(VIO.succeed(true),
+                                  VIO.lazy(() -> started.incrementAndGet() > 0)
+                                 ),
+                         context
+                        );
+    }
 
 }
@@ -1,6 +1,7 @@
 package vertx.effect.api.exp;
 
 import fun.gen.Gen;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.Lambda;
 import vertx.effect.ListExp;
 import vertx.effect.RetryPolicies;
 import vertx.effect.VIO;
@@ -20,7 +22,9 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static vertx.effect.RetryPolicies.limitRetries;
@@ -331,4 +335,79 @@ public class TestParallelSeq {
         context.completeNow();
     }
 
+
+    @Test
+    public void test_bounded_par_keeps_order_and_concurrency(final Vertx vertx,
+                                                             final VertxTestContext context
+                                                            ) {
+        AtomicInteger inFlight = new AtomicInteger(0);
+        AtomicInteger maxInFlight = new AtomicInteger(0);
+        Lambda<Integer, Integer> lambda = n -> VIO.effect(() -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(),
+                                         Math::max
+                                        );
+            Promise<Integer> promise = Promise.promise();
+            // the first elements take longer, so that they complete out of order
+            vertx.setTimer(20 - n,
+                           id -> {
+                               inFlight.decrementAndGet();
+                               promise.complete(n * 10);
+                           }
+                          );
+            return promise.future();
+        });
+        List<Integer> input = IntStream.range(0, 20)
+                                       .boxed()
+                                       .collect(Collectors.toList());
+
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(input.stream()
+                                                                        .map(n -> n * 10)
+                                                                        .collect(Collectors.toList()))
+                                                       && maxInFlight.get() == 3
+                                              )
+                 .accept(VIO.traverse(input,
+                                      lambda,
+                                      3
+                                     ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_bounded_par_doesnt_start_effects_after_failure(final VertxTestContext context) {
+        AtomicInteger started = new AtomicInteger(0);
+        VIO<Integer> ok = VIO.lazy(started::incrementAndGet);
+        VIO<Integer> ko = VIO.lazy(() -> {
+            started.incrementAndGet();
+            throw new RuntimeException("boom");
+        });
+
+        Verifiers.<List<Integer>>verifyFailure(e -> e.getMessage()
+                                                     .equals("boom") && started.get() == 3)
+                 .accept(ListExp.par(2,
+                                     ok,
+                                     ok,
+                                     ko,
+                                     ok,
+                                     ok
+                                    ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_bounded_par_of_sync_effects_doesnt_overflow_the_stack(final VertxTestContext context) {
+        List<Integer> input = IntStream.range(0, 100_000)
+                                       .boxed()
+                                       .collect(Collectors.toList());
+
+        Verifiers.<List<Integer>>verifySuccess(list -> list.equals(input))
+                 .accept(VIO.traverse(input,
+                                      VIO::succeed,
+                                      10
+                                     ),
+                         context
+                        );
+    }
+
 }
@@ -0,0 +1,152 @@
+package vertx.effect.api.patterns.exp;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import jsonvalues.JsObj;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.Event;
+import vertx.effect.VIO;
+import vertx.effect.VertxRef;
+import vertx.effect.api.Verifiers;
+import vertx.values.codecs.RegisterJsValuesCodecs;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+@SuppressWarnings("ReturnValueIgnored")
+@ExtendWith(VertxExtension.class)
+public class TestHedge {
+
+    private static final Map<String, AtomicInteger> events = new ConcurrentHashMap<>();
+    private static VertxRef vertxRef;
+
+    @BeforeAll
+    public static void prepare(final Vertx vertx,
+                               final VertxTestContext context
+                              ) {
+        vertxRef = new VertxRef(vertx);
+        vertxRef.<JsObj>registerConsumer(VertxRef.EVENTS_ADDRESS,
+                                         event -> events.computeIfAbsent(Event.eventLens.get.apply(event),
+                                                                         key -> new AtomicInteger(0)
+                                                                        )
+                                                        .incrementAndGet()
+                                        );
+        vertxRef.deployVerticle(new RegisterJsValuesCodecs())
+                .onComplete(it -> context.completeNow())
+                .get();
+    }
+
+    private static int count(final String event) {
+        AtomicInteger counter = events.get(event);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * every execution is a new copy that takes the number of millis returned by latency, given the number of the copy
+     */
+    private static VIO<String> copies(final Vertx vertx,
+                                      final AtomicInteger started,
+                                      final AtomicInteger cancellations,
+                                      final IntUnaryOperator latency
+                                     ) {
+        return VIO.cancelable(promise -> {
+            int copy = started.incrementAndGet();
+            long id = vertx.setTimer(latency.applyAsInt(copy),
+                                     it -> promise.complete("copy" + copy)
+                                    );
+            return () -> {
+                vertx.cancelTimer(id);
+                cancellations.incrementAndGet();
+            };
+        });
+    }
+
+    @Test
+    public void test_hedge_wins_when_the_first_copy_is_slow(final Vertx vertx,
+                                                            final VertxTestContext context
+                                                           ) {
+        AtomicInteger started = new AtomicInteger(0);
+        AtomicInteger cancellations = new AtomicInteger(0);
+        int fired = count(Event.HEDGE_FIRED);
+        int won = count(Event.HEDGE_WON);
+
+        VIO<String> hedged = copies(vertx,
+                                    started,
+                                    cancellations,
+                                    copy -> copy == 1 ? 10_000 : 10
+                                   ).hedge(vertxRef.delay(Duration.ofMillis(50)),
+                                           2
+                                          );
+
+        Verifiers.<String>verifySuccess(result -> result.equals("copy2")
+                                                  && started.get() == 2
+                                                  && cancellations.get() == 1
+                 )
+                 .accept(hedged.then(result -> VIO.<String>effect(() -> {
+                                                      // events are published to the event bus, so wait for them
+                                                      Promise<String> promise = Promise.promise();
+                                                      vertx.setTimer(100,
+                                                                     id -> promise.complete(
+                                                                             count(Event.HEDGE_FIRED) == fired + 1
+                                                                             && count(Event.HEDGE_WON) == won + 1 ?
+                                                                             result :
+                                                                             "events not published"
+                                                                                           )
+                                                                    );
+                                                      return promise.future();
+                                                  })),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_no_copy_is_started_if_the_effect_is_fast(final Vertx vertx,
+                                                              final VertxTestContext context
+                                                             ) {
+        AtomicInteger started = new AtomicInteger(0);
+        AtomicInteger cancellations = new AtomicInteger(0);
+
+        VIO<String> hedged = copies(vertx,
+                                    started,
+                                    cancellations,
+                                    copy -> 10
+                                   ).hedge(vertxRef.delay(Duration.ofMillis(200)),
+                                           3
+                                          );
+
+        Verifiers.<String>verifySuccess(result -> result.equals("copy1")
+                                                  && started.get() == 1
+                                                  && cancellations.get() == 0
+                 )
+                 .accept(hedged,
+                         context
+                        );
+    }
+
+    @Test
+    public void test_hedge_fails_when_all_the_copies_fail(final Vertx vertx,
+                                                          final VertxTestContext context
+                                                         ) {
+        AtomicInteger started = new AtomicInteger(0);
+
+        VIO<String> hedged = VIO.<String>lazy(() -> {
+                                    throw new RuntimeException("copy" + started.incrementAndGet());
+                                })
+                                .hedge(vertxRef.delay(Duration.ofMillis(50)),
+                                       3
+                                      );
+
+        Verifiers.<String>verifyFailure(e -> e.getMessage()
+                                              .equals("copy1") && started.get() == 1)
+                 .accept(hedged,
+                         context
+                        );
+    }
+}
@@ -11,7 +11,11 @@ import vertx.effect.VIO;
 import vertx.effect.VertxRef;
 import vertx.effect.JsArrayExp;
 import vertx.effect.PairExp;
+import vertx.effect.api.Verifiers;
 import vertx.values.codecs.RegisterJsValuesCodecs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 @SuppressWarnings("ReturnValueIgnored")
 @ExtendWith(VertxExtension.class)
 public class TestRace {
@@ -50,4 +54,92 @@ public class TestRace {
                          )
                .get();
     }
+
+    private static VIO<String> after(final Vertx vertx,
+                                     final long millis,
+                                     final String value,
+                                     final AtomicInteger cancellations
+                                    ) {
+        return VIO.cancelable(promise -> {
+            long id = vertx.setTimer(millis,
+                                     it -> promise.complete(value)
+                                    );
+            return () -> {
+                vertx.cancelTimer(id);
+                cancellations.incrementAndGet();
+            };
+        });
+    }
+
+    @Test
+    public void test_race_cancels_the_losers(final VertxTestContext context,
+                                             final Vertx vertx
+                                            ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<String>verifySuccess(winner -> winner.equals("b") && cancellations.get() == 2)
+                 .accept(VIO.race(after(vertx,
+                                        10_000,
+                                        "a",
+                                        cancellations
+                                       ),
+                                  after(vertx,
+                                        10,
+                                        "b",
+                                        cancellations
+                                       ),
+                                  after(vertx,
+                                        10_000,
+                                        "c",
+                                        cancellations
+                                       )
+                                 ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_race_skips_failures(final VertxTestContext context,
+                                         final Vertx vertx
+                                        ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<String>verifySuccess(winner -> winner.equals("b") && cancellations.get() == 0)
+                 .accept(VIO.race(VIO.fail(new RuntimeException("a")),
+                                  after(vertx,
+                                        10,
+                                        "b",
+                                        cancellations
+                                       )
+                                 ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_race_fails_with_the_first_failure_if_all_fail(final VertxTestContext context,
+                                                                   final Vertx vertx
+                                                                  ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<String>verifyFailure(e -> e.getMessage()
+                                              .equals("first"))
+                 .accept(VIO.race(after(vertx,
+                                        50,
+                                        "a",
+                                        cancellations
+                                       ).then(a -> VIO.fail(new RuntimeException("second"))),
+                                  VIO.fail(new RuntimeException("first"))
+                                 ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_race_doesnt_start_effects_once_there_is_a_winner(final VertxTestContext context) {
+        AtomicInteger started = new AtomicInteger(0);
+        Verifiers.<String>verifySuccess(winner -> winner.equals("a") && started.get() == 0)
+                 .accept(VIO.race(VIO.succeed("a"),
+                                  VIO.lazy(() -> String.valueOf(started.incrementAndGet()))
+                                 ),
+                         context
+                        );
+    }
 }
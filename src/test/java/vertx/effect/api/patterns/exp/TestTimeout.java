@@ -0,0 +1,154 @@
+package vertx.effect.api.patterns.exp;
+
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import jsonvalues.JsInt;
+import jsonvalues.JsObj;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import vertx.effect.JsObjExp;
+import vertx.effect.MapExp;
+import vertx.effect.VIO;
+import vertx.effect.api.Verifiers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SuppressWarnings("ReturnValueIgnored")
+@ExtendWith(VertxExtension.class)
+public class TestTimeout {
+
+    /**
+     * an effect that succeeds with the given value after the given millis and counts its cancellations
+     */
+    private static <O> VIO<O> after(final Vertx vertx,
+                                    final long millis,
+                                    final O value,
+                                    final AtomicInteger cancellations
+                                   ) {
+        return VIO.cancelable(promise -> {
+            long id = vertx.setTimer(millis,
+                                     it -> promise.complete(value)
+                                    );
+            return () -> {
+                vertx.cancelTimer(id);
+                cancellations.incrementAndGet();
+            };
+        });
+    }
+
+    @Test
+    public void test_slow_effect_times_out_and_is_cancelled(final Vertx vertx,
+                                                            final VertxTestContext context
+                                                           ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<String>verifyFailure(e -> e instanceof TimeoutException && cancellations.get() == 1)
+                 .accept(after(vertx,
+                               10_000,
+                               "slow",
+                               cancellations
+                              ).timeout(Duration.ofMillis(50)),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_fast_effect_doesnt_time_out(final Vertx vertx,
+                                                 final VertxTestContext context
+                                                ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<String>verifySuccess(result -> result.equals("fast") && cancellations.get() == 0)
+                 .accept(after(vertx,
+                               10,
+                               "fast",
+                               cancellations
+                              ).timeout(Duration.ofMillis(500)),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_fallback_computes_the_result_when_the_effect_times_out(final Vertx vertx,
+                                                                           final VertxTestContext context
+                                                                          ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<String>verifySuccess(result -> result.equals("fallback") && cancellations.get() == 1)
+                 .accept(after(vertx,
+                               10_000,
+                               "slow",
+                               cancellations
+                              ).timeout(Duration.ofMillis(50),
+                                        e -> VIO.succeed("fallback")
+                                       ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_fallback_doesnt_handle_failures_before_the_timeout(final VertxTestContext context) {
+        Verifiers.<String>verifyFailure(e -> e.getMessage()
+                                              .equals("boom"))
+                 .accept(VIO.<String>fail(new RuntimeException("boom"))
+                            .timeout(Duration.ofMillis(50),
+                                     e -> VIO.succeed("fallback")
+                                    ),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_map_exp_timeout_each(final Vertx vertx,
+                                          final VertxTestContext context
+                                         ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<Map<String, Integer>>verifyFailure(e -> e instanceof TimeoutException && cancellations.get() == 1)
+                 .accept(MapExp.par("a",
+                                    after(vertx,
+                                          10,
+                                          1,
+                                          cancellations
+                                         ),
+                                    "b",
+                                    after(vertx,
+                                          10_000,
+                                          2,
+                                          cancellations
+                                         )
+                                   )
+                               .timeoutEach(Duration.ofMillis(100)),
+                         context
+                        );
+    }
+
+    @Test
+    public void test_js_obj_exp_timeout_each(final Vertx vertx,
+                                             final VertxTestContext context
+                                            ) {
+        AtomicInteger cancellations = new AtomicInteger(0);
+        Verifiers.<JsObj>verifySuccess(obj -> obj.equals(JsObj.of("a",
+                                                                 JsInt.of(1),
+                                                                 "b",
+                                                                 JsInt.of(2)
+                                                                ))
+                                              && cancellations.get() == 0)
+                 .accept(JsObjExp.seq("a",
+                                      after(vertx,
+                                            10,
+                                            JsInt.of(1),
+                                            cancellations
+                                           ),
+                                      "b",
+                                      after(vertx,
+                                            10,
+                                            JsInt.of(2),
+                                            cancellations
+                                           )
+                                     )
+                                 .timeoutEach(Duration.ofMillis(500)),
+                         context
+                        );
+    }
+}
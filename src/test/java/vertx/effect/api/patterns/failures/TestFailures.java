@@ -58,4 +58,58 @@ public class TestFailures {
                      }))
                      .get();
     }
+
+    @Test
+    public void test_any_of_matches_by_code() {
+        ReplyException badMessage = GET_BAD_MESSAGE_EXCEPTION.apply("bad");
+        ReplyException userError = new ReplyException(ReplyFailure.RECIPIENT_FAILURE,
+                                                       -7,
+                                                       "user"
+        );
+        Assertions.assertTrue(anyOf(BAD_MESSAGE_CODE).test(badMessage));
+        Assertions.assertTrue(anyOf(HTTP_FAILURE_CODE,
+                                    MAILBOX_FULL_CODE,
+                                    BAD_MESSAGE_CODE
+                                   ).test(badMessage));
+        Assertions.assertFalse(anyOf(HTTP_FAILURE_CODE,
+                                     MAILBOX_FULL_CODE
+                                    ).test(badMessage));
+        Assertions.assertFalse(anyOf(BAD_MESSAGE_CODE,
+                                     MAILBOX_FULL_CODE
+                                    ).test(new IllegalArgumentException("bad")));
+        Assertions.assertTrue(anyOf(BAD_MESSAGE_CODE,
+                                    -7
+                                   ).test(userError));
+        Assertions.assertFalse(anyOf(BAD_MESSAGE_CODE,
+                                     -8
+                                    ).test(userError));
+        Assertions.assertSame(badMessage,
+                              anyOfPrism(MAILBOX_FULL_CODE,
+                                         BAD_MESSAGE_CODE
+                                        ).getOptional.apply(badMessage)
+                                                     .orElseThrow()
+                             );
+        Assertions.assertTrue(anyOfPrism(MAILBOX_FULL_CODE,
+                                         HTTP_FAILURE_CODE
+                                        ).getOptional.apply(badMessage)
+                                                     .isEmpty());
+        Assertions.assertEquals(0,
+                                HTTP_CONNECTION_WAS_CLOSED.getStackTrace().length
+                               );
+    }
+
+    @Test
+    public void test_any_of_doesnt_match_the_failures_of_vertx() {
+        ReplyException timeout = new ReplyException(ReplyFailure.TIMEOUT,
+                                                    "Timed out after waiting 1000(ms) for a reply"
+        );
+        Assertions.assertFalse(anyOf(BAD_MESSAGE_CODE,
+                                     MAILBOX_FULL_CODE
+                                    ).test(timeout));
+        Assertions.assertTrue(anyOfPrism(BAD_MESSAGE_CODE,
+                                         MAILBOX_FULL_CODE
+                                        ).getOptional.apply(timeout)
+                                                     .isEmpty());
+    }
 }
+